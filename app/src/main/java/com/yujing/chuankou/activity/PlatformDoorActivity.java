@@ -3,23 +3,28 @@ package com.yujing.chuankou.activity;
 import android.graphics.Color;
 import android.text.Spannable;
 import android.text.SpannableString;
+import android.text.SpannableStringBuilder;
 import android.text.style.ForegroundColorSpan;
+import android.view.View;
 
 import com.yujing.chuankou.R;
 import com.yujing.chuankou.base.KBaseActivity;
 import com.yujing.chuankou.config.Config;
 import com.yujing.chuankou.databinding.ActivityPlatformDoorBinding;
+import com.yujing.chuankou.utils.PlatformDoorCommand;
+import com.yujing.chuankou.utils.PlatformDoorFrameDecoder;
 import com.yujing.chuankou.utils.PlatformDoorParser;
 import com.yujing.chuankou.utils.Setting;
-import com.yujing.utils.YConvert;
 import com.yujing.utils.YLog;
 import com.yujing.utils.YToast;
-import com.yujing.yserialport.DataListener;
-import com.yujing.yserialport.ThreadMode;
+import com.yujing.yserialport.FrameBatchListener;
+import com.yujing.yserialport.YFrame;
+import com.yujing.yserialport.YHex;
 import com.yujing.yserialport.YSerialPort;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -30,6 +35,8 @@ import java.util.Locale;
  */
 public class PlatformDoorActivity extends KBaseActivity<ActivityPlatformDoorBinding> {
     YSerialPort ySerialPort;
+    PlatformDoorFrameDecoder frameDecoder = new PlatformDoorFrameDecoder();
+    private static final int STATS_INTERVAL = 500;//帧同步统计刷新间隔，毫秒
     SimpleDateFormat simpleDateFormat = new SimpleDateFormat("[HH:mm:ss.SSS]", Locale.getDefault());
 
     public PlatformDoorActivity() {
@@ -45,11 +52,12 @@ public class PlatformDoorActivity extends KBaseActivity<ActivityPlatformDoorBind
         //清空发送日志
         binding.tvClearSend.setOnClickListener(v -> binding.tvSend.setText(""));
 
-        //初始化串口
+        //初始化串口，默认按时间差组包，CRC错误、未知命令的数据原样显示
         ySerialPort = new YSerialPort(this, Config.getDevice(), Config.getBaudRate());
+        //勾选帧同步后按帧头切帧
+        binding.cbFrameSync.setOnCheckedChangeListener((buttonView, isChecked) -> setFrameSync(isChecked));
         //添加监听
-        ySerialPort.addDataListener(dataListener);
-        ySerialPort.setThreadMode(ThreadMode.MAIN);//设置回调线程为主线程
+        ySerialPort.addFrameBatchListener(frameBatchListener);//每个显示帧在主线程回调一次
         if (Config.getDevice() != null && Config.getBaudRate() != null)
             ySerialPort.start();
 
@@ -62,29 +70,50 @@ public class PlatformDoorActivity extends KBaseActivity<ActivityPlatformDoorBind
         });
 
         //测试命令按钮
-        String[] testCommands = PlatformDoorParser.getTestCommands();
-        binding.btnAllRise.setOnClickListener(v -> sendCommand(testCommands[0], "全部上升"));
-        binding.btnAllDescend.setOnClickListener(v -> sendCommand(testCommands[1], "全部下降"));
-        binding.btnAllStop.setOnClickListener(v -> sendCommand(testCommands[2], "全部停止"));
-        binding.btnShortRise.setOnClickListener(v -> sendCommand(testCommands[3], "短编上升"));
-        binding.btnReconnectRise.setOnClickListener(v -> sendCommand(testCommands[4], "重联上升"));
+        //命令和CRC在命令表中预先算好，直接发送字节
+        List<PlatformDoorCommand> commands = PlatformDoorCommand.getCommands();
+        binding.btnAllRise.setOnClickListener(v -> sendCommand(commands.get(0)));
+        binding.btnAllDescend.setOnClickListener(v -> sendCommand(commands.get(1)));
+        binding.btnAllStop.setOnClickListener(v -> sendCommand(commands.get(2)));
+        binding.btnShortRise.setOnClickListener(v -> sendCommand(commands.get(3)));
+        binding.btnReconnectRise.setOnClickListener(v -> sendCommand(commands.get(4)));
 
         //自定义命令发送
         binding.btnSendCustom.setOnClickListener(v -> sendCustomCommand());
     }
 
-    private void sendCommand(String hexCommand, String commandName) {
-        String hexString = hexCommand.replace(" ", "");
-        YLog.i("发送命令：" + commandName + " - " + hexString);
+    //帧同步：按帧头同步切帧，半包、粘包、帧前杂乱数据都能正确切出14字节命令，CRC错误的帧被解码器丢弃，只在统计中显示
+    private void setFrameSync(boolean enabled) {
+        if (enabled) ySerialPort.setFrameDecoder(frameDecoder);
+        else ySerialPort.setToAuto();
+        binding.tvDecoderStats.removeCallbacks(statsTask);
+        binding.tvDecoderStats.setVisibility(enabled ? View.VISIBLE : View.GONE);
+        if (enabled) statsTask.run();
+        //组包方式重启后生效
+        if (Config.getDevice() != null && Config.getBaudRate() != null)
+            ySerialPort.reStart(Config.getDevice(), Config.getBaudRate());
+    }
+
+    //定时刷新解码统计，只收到杂乱数据、没有完整帧时也能看到丢弃
+    private final Runnable statsTask = new Runnable() {
+        @Override
+        public void run() {
+            binding.tvDecoderStats.setText("帧同步：" + frameDecoder.getFrameCount() + "帧，丢弃" + frameDecoder.getGarbageCount() + "字节，CRC失败重新同步" + frameDecoder.getResyncCount() + "次");
+            binding.tvDecoderStats.postDelayed(this, STATS_INTERVAL);
+        }
+    };
+
+    private void sendCommand(PlatformDoorCommand command) {
+        String hexString = command.getHexString();
+        YLog.i("发送命令：" + command.getName() + " - " + hexString);
 
         try {
-            byte[] bytes = YConvert.hexStringToByte(hexString);
-            ySerialPort.send(bytes);
+            ySerialPort.send(command.getFrame());
 
             //显示发送日志
             if (binding.tvSend.getText().toString().length() > 10000)
                 binding.tvSend.setText(binding.tvSend.getText().toString().substring(0, 2000));
-            binding.tvSend.setText(simpleDateFormat.format(new Date()) + " 发送[" + commandName + "]：" + hexString + "\n" + binding.tvSend.getText().toString());
+            binding.tvSend.setText(simpleDateFormat.format(new Date()) + " 发送[" + command.getName() + "]：" + hexString + "\n" + binding.tvSend.getText().toString());
         } catch (Exception e) {
             YToast.show("发送失败：" + e.getMessage());
             YLog.e("发送命令失败", e);
@@ -108,7 +137,7 @@ public class PlatformDoorActivity extends KBaseActivity<ActivityPlatformDoorBind
         YLog.i("发送自定义命令：" + hexString);
 
         try {
-            byte[] bytes = YConvert.hexStringToByte(hexString);
+            byte[] bytes = YHex.decode(hexString);
             ySerialPort.send(bytes);
 
             //显示发送日志
@@ -121,13 +150,28 @@ public class PlatformDoorActivity extends KBaseActivity<ActivityPlatformDoorBind
         }
     }
 
-    DataListener dataListener = (hexString, bytes) -> {
-        //解析接收到的数据
-        PlatformDoorParser.ParseResult result = PlatformDoorParser.parseCommand(hexString);
+    //一个显示帧内收到的帧只刷新一次界面，设备发送很快时也不会卡死
+    FrameBatchListener frameBatchListener = frames -> {
+        SpannableStringBuilder builder = new SpannableStringBuilder();
+        //新数据显示在上面
+        for (int i = frames.size() - 1; i >= 0; i--) builder.append(format(frames.get(i)));
+        //显示接收数据
+        CharSequence receive = binding.tvReceive.getText();
+        if (receive.length() > 10000) receive = receive.subSequence(0, 2000);
+        binding.tvReceive.setText(builder.append(receive));
+    };
+
+    //只在主线程使用，每帧复用
+    private final PlatformDoorParser.ParseResult parseResult = new PlatformDoorParser.ParseResult();
+
+    //解析一帧，生成显示文本
+    private SpannableString format(YFrame frame) {
+        //直接按字节解析接收到的数据，不再转十六进制再转回字节
+        PlatformDoorParser.ParseResult result = PlatformDoorParser.parse(frame.getBytes(), frame.getOffset(), frame.getLength(), parseResult);
 
         //构建显示文本
         StringBuilder sb = new StringBuilder();
-        sb.append(simpleDateFormat.format(new Date())).append(" 接收：").append(hexString).append("\n");
+        sb.append(simpleDateFormat.format(new Date())).append(" 接收：").append(frame.getHexString()).append("\n");
         sb.append("  ├─ 命令：").append(result.commandName).append("\n");
         sb.append("  ├─ CRC校验：");
 
@@ -160,16 +204,14 @@ public class PlatformDoorActivity extends KBaseActivity<ActivityPlatformDoorBind
         SpannableString spannableString = new SpannableString(displayText);
         spannableString.setSpan(new ForegroundColorSpan(statusColor),
                 crcStatusStart, crcStatusEnd, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-
-        //显示接收数据
-        if (binding.tvReceive.getText().toString().length() > 10000)
-            binding.tvReceive.setText(binding.tvReceive.getText().toString().substring(0, 2000));
-        binding.tvReceive.setText(spannableString + binding.tvReceive.getText().toString());
-    };
+        return spannableString;
+    }
 
     @Override
     public void onDestroy() {
+        binding.tvDecoderStats.removeCallbacks(statsTask);
         super.onDestroy();
+        YLog.i("站台门解码统计：" + frameDecoder);
         ySerialPort.onDestroy();
     }
 }
@@ -9,8 +9,7 @@ import com.yujing.utils.YConvert;
 import com.yujing.utils.YLog;
 import com.yujing.utils.YShared;
 import com.yujing.utils.YToast;
-import com.yujing.yserialport.DataListener;
-import com.yujing.yserialport.ThreadMode;
+import com.yujing.yserialport.FrameBatchListener;
 import com.yujing.yserialport.YSerialPort;
 
 import java.nio.charset.Charset;
@@ -64,8 +63,7 @@ public class SendActivity extends KBaseActivity<ActivitySendBinding> {
 //            return bytes;
 //        });
         //添加监听
-        ySerialPort.addDataListener(dataListener);
-        ySerialPort.setThreadMode(ThreadMode.MAIN);//设置回调线程为主线程
+        ySerialPort.addFrameBatchListener(frameBatchListener);//每个显示帧在主线程回调一次
         if (Config.getDevice() != null && Config.getBaudRate() != null)
             ySerialPort.start();
         //设置
@@ -117,10 +115,16 @@ public class SendActivity extends KBaseActivity<ActivitySendBinding> {
         binding.tvSend.setText("STR " + simpleDateFormat.format(new Date()) + "：" + str + "\n" + binding.tvSend.getText().toString());
     }
 
-    DataListener dataListener = (hexString, bytes) -> {
-        //显示
-        if (binding.tvResult.getText().toString().length() > 10000) binding.tvResult.setText(binding.tvResult.getText().toString().substring(0, 2000));
-        binding.tvResult.setText("HEX " + simpleDateFormat.format(new Date()) + "：" + YConvert.bytesToHexString(bytes) + "\n" + binding.tvResult.getText().toString());
+    //一个显示帧内收到的帧只刷新一次界面，设备发送很快时也不会卡死
+    FrameBatchListener frameBatchListener = frames -> {
+        String time = simpleDateFormat.format(new Date());
+        StringBuilder sb = new StringBuilder();
+        //新数据显示在上面
+        for (int i = frames.size() - 1; i >= 0; i--)
+            sb.append("HEX ").append(time).append("：").append(frames.get(i).getHexString()).append("\n");
+        String result = binding.tvResult.getText().toString();
+        if (result.length() > 10000) result = result.substring(0, 2000);
+        binding.tvResult.setText(sb.append(result));
     };
 
     @Override
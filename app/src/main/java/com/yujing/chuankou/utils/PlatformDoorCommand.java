@@ -0,0 +1,102 @@
+package com.yujing.chuankou.utils;
+
+import com.yujing.yserialport.YChecksum;
+import com.yujing.yserialport.YCommandTable;
+import com.yujing.yserialport.YHex;
+
+import java.util.List;
+
+/**
+ * Platform Door command definition
+ * 站台门命令定义：命令表在COMMANDS中声明，类加载时编译进字节前缀树，并预先算好带CRC的完整命令
+ * 新增命令只需在COMMANDS中加一行
+ *
+ * @author yujing
+ */
+public final class PlatformDoorCommand {
+    // Bytes used to identify a command: header 5A 02 7E 00 04 08 + bytes 6-8
+    public static final int KEY_LENGTH = 9;
+
+    // Command table: type, name, data without CRC
+    private static final PlatformDoorCommand[] COMMANDS = {
+        new PlatformDoorCommand(PlatformDoorParser.CMD_ALL_RISE, "全部上升", "5A027E000408 F10302 01 80A5"),
+        new PlatformDoorCommand(PlatformDoorParser.CMD_ALL_DESCEND, "全部下降", "5A027E000408 F10301 01 7FA5"),
+        new PlatformDoorCommand(PlatformDoorParser.CMD_ALL_STOP, "全部停止", "5A027E000408 F10303 01 81A5"),
+        new PlatformDoorCommand(PlatformDoorParser.CMD_SHORT_RISE, "短编上升", "5A027E000408 D10302 01 60A5"),
+        new PlatformDoorCommand(PlatformDoorParser.CMD_RECONNECT_RISE, "重联上升", "5A027E000408 E10302 01 70A5")
+    };
+
+    private static final YCommandTable<PlatformDoorCommand> TABLE = new YCommandTable<>();
+
+    static {
+        for (PlatformDoorCommand command : COMMANDS) {
+            TABLE.add(command.getKey(), command);
+        }
+    }
+
+    private final int type;
+    private final String name;
+    private final byte[] frame;       // 完整命令，含CRC（高字节在前）
+    private final String hexString;   // 完整命令的十六进制
+
+    private PlatformDoorCommand(int type, String name, String data) {
+        byte[] bytes = YHex.decode(data);
+        int crc = YChecksum.crc16Modbus(bytes, 0, bytes.length);
+        this.type = type;
+        this.name = name;
+        this.frame = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, frame, 0, bytes.length);
+        frame[bytes.length] = (byte) (crc >> 8);
+        frame[bytes.length + 1] = (byte) crc;
+        this.hexString = YHex.encode(frame);
+    }
+
+    /**
+     * Identify a command by its header and bytes 6-8
+     * 识别命令，只扫描一次帧头，不创建对象
+     *
+     * @return command, or null if unknown
+     */
+    public static PlatformDoorCommand match(byte[] data, int offset, int length) {
+        return TABLE.match(data, offset, length);
+    }
+
+    /**
+     * All defined commands, in table order
+     * 全部命令，按表中顺序
+     */
+    public static List<PlatformDoorCommand> getCommands() {
+        return TABLE.getCommands();
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Complete command with CRC, do not modify
+     * 完整命令（含CRC），直接发送，不要修改
+     */
+    public byte[] getFrame() {
+        return frame;
+    }
+
+    public String getHexString() {
+        return hexString;
+    }
+
+    private byte[] getKey() {
+        byte[] key = new byte[KEY_LENGTH];
+        System.arraycopy(frame, 0, key, 0, KEY_LENGTH);
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + hexString + ")";
+    }
+}
@@ -0,0 +1,88 @@
+package com.yujing.chuankou.utils;
+
+import com.yujing.yserialport.FrameDecoder;
+
+/**
+ * Platform Door stream frame decoder
+ * 站台门帧同步解码器：在字节流中查找 5A 02 7E 00 04 08 帧头，切出14字节候选帧，校验末尾CRC-16/MODBUS（高字节在前）
+ * 帧头前的杂乱数据直接丢弃；CRC失败时从候选帧内的下一个帧头重新同步，已跳过的字节不再扫描
+ * 半包等待后续数据，粘包逐帧切出，每帧只回调一次
+ * 有状态（计数），一个解码器只能给一个串口使用
+ *
+ * @author yujing
+ */
+/*
+用法：
+ySerialPort.setFrameDecoder(new PlatformDoorFrameDecoder());
+//收到的每一帧都是完整、CRC正确的14字节命令
+ySerialPort.addFrameListener(frame -> PlatformDoorParser.parse(frame.getBytes(), frame.getOffset(), frame.getLength(), result));
+ */
+public class PlatformDoorFrameDecoder implements FrameDecoder {
+    // All commands start with: 5A 02 7E 00 04 08
+    private static final byte[] PREAMBLE = {0x5A, 0x02, 0x7E, 0x00, 0x04, 0x08};
+
+    // Statistics, updated on the read thread
+    private volatile long frameCount;      // 解出的帧数
+    private volatile long garbageCount;    // 丢弃的字节数
+    private volatile long resyncCount;     // CRC失败重新同步次数
+
+    @Override
+    public int decode(byte[] array, int offset, int length) {
+        // Skip garbage before the preamble (a partial preamble at the tail waits for more data)
+        int start = indexOfPreamble(array, offset, length, 0);
+        if (start > 0) {
+            garbageCount += start;
+            return -start;
+        }
+        if (length < PlatformDoorParser.FRAME_LENGTH) {
+            return 0;
+        }
+        if (PlatformDoorParser.verifyCRC(array, offset, PlatformDoorParser.FRAME_LENGTH)) {
+            frameCount++;
+            return PlatformDoorParser.FRAME_LENGTH;
+        }
+        // CRC failed: the preamble was noise or the frame is damaged, resync from the next preamble
+        resyncCount++;
+        int next = indexOfPreamble(array, offset, length, 1);
+        garbageCount += next;
+        return -next;
+    }
+
+    /**
+     * Position of the first (possibly partial at the tail) preamble at or after from
+     * 从from开始第一个帧头的位置，末尾不完整的帧头也算，没有返回length
+     */
+    private static int indexOfPreamble(byte[] array, int offset, int length, int from) {
+        for (int i = from; i < length; i++) {
+            if (array[offset + i] != PREAMBLE[0]) {
+                continue;
+            }
+            int count = Math.min(PREAMBLE.length, length - i);
+            int j = 1;
+            while (j < count && array[offset + i + j] == PREAMBLE[j]) {
+                j++;
+            }
+            if (j == count) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getGarbageCount() {
+        return garbageCount;
+    }
+
+    public long getResyncCount() {
+        return resyncCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PlatformDoorFrameDecoder{frames=" + frameCount + ", garbage=" + garbageCount + ", resync=" + resyncCount + "}";
+    }
+}
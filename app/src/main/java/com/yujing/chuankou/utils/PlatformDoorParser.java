@@ -1,6 +1,9 @@
 package com.yujing.chuankou.utils;
 
-import com.yujing.utils.YConvert;
+import com.yujing.yserialport.YChecksum;
+import com.yujing.yserialport.YHex;
+
+import java.util.List;
 
 /**
  * Platform Door Command Parser
@@ -26,17 +29,37 @@ public class PlatformDoorParser {
         public int commandType;         // 命令类型
         public String commandName;      // 命令名称
         public String errorMessage;     // 错误信息
-        public String hexString;        // 原始十六进制字符串
+        public String hexString;        // 原始十六进制字符串，字节解析时为null
+        
+        /**
+         * Empty result for reuse with parse(byte[], int, int, ParseResult)
+         * 空结果，用于字节解析时重复使用
+         */
+        public ParseResult() {
+            this(false, CMD_UNKNOWN, NAME_UNKNOWN, null, null);
+        }
         
         public ParseResult(boolean valid, int commandType, String commandName, String errorMessage, String hexString) {
+            set(valid, commandType, commandName, errorMessage, hexString);
+        }
+        
+        ParseResult set(boolean valid, int commandType, String commandName, String errorMessage, String hexString) {
             this.valid = valid;
             this.commandType = commandType;
             this.commandName = commandName;
             this.errorMessage = errorMessage;
             this.hexString = hexString;
+            return this;
         }
     }
     
+    // Frame layout
+    public static final int FRAME_LENGTH = 14;     // 帧长度
+    private static final String NAME_UNKNOWN = "未知命令";
+    private static final String ERROR_LENGTH = "数据长度不足";
+    private static final String ERROR_CRC = "CRC校验失败";
+    private static final String ERROR_UNKNOWN = "CRC校验通过但不是已知命令";
+    
     /**
      * Calculate CRC-16/MODBUS checksum
      * 计算CRC-16/MODBUS校验码
@@ -45,19 +68,8 @@ public class PlatformDoorParser {
      * @return CRC value as 2 bytes [high byte, low byte] as stored in the command
      */
     public static byte[] calculateCRC16(byte[] data) {
-        int crc = 0xFFFF;
-        
-        for (byte b : data) {
-            crc ^= (b & 0xFF);
-            for (int i = 0; i < 8; i++) {
-                if ((crc & 0x0001) != 0) {
-                    crc >>= 1;
-                    crc ^= 0xA001;
-                } else {
-                    crc >>= 1;
-                }
-            }
-        }
+        // Table-driven, one lookup per byte
+        int crc = YChecksum.crc16Modbus(data, 0, data.length);
         
         // Return as [high byte, low byte] to match command format
         return new byte[]{(byte) ((crc >> 8) & 0xFF), (byte) (crc & 0xFF)};
@@ -74,17 +86,26 @@ public class PlatformDoorParser {
         if (data == null || data.length < 3) {
             return false;
         }
+        return verifyCRC(data, 0, data.length);
+    }
+    
+    /**
+     * Verify CRC checksum in place, no copy
+     * 原地验证CRC校验，不拷贝
+     * 
+     * @param data   buffer containing the frame
+     * @param offset frame start
+     * @param length frame length including the 2 CRC bytes
+     * @return true if CRC is valid
+     */
+    public static boolean verifyCRC(byte[] data, int offset, int length) {
+        if (length < 3) {
+            return false;
+        }
         
-        // Extract data without CRC (all bytes except last 2)
-        byte[] dataWithoutCRC = new byte[data.length - 2];
-        System.arraycopy(data, 0, dataWithoutCRC, 0, data.length - 2);
-        
-        // Calculate expected CRC
-        byte[] calculatedCRC = calculateCRC16(dataWithoutCRC);
-        
-        // Compare with actual CRC (last 2 bytes)
-        return calculatedCRC[0] == data[data.length - 2] && 
-               calculatedCRC[1] == data[data.length - 1];
+        // CRC of all bytes except the last 2, compared with the last 2 (high byte first)
+        int crc = YChecksum.crc16Modbus(data, offset, length - 2);
+        return YChecksum.matches(crc, data, offset + length - 2, 2, true);
     }
     
     /**
@@ -95,78 +116,47 @@ public class PlatformDoorParser {
      * @return ParseResult object
      */
     public static ParseResult parseCommand(String hexString) {
-        // Remove spaces
-        hexString = hexString.replace(" ", "").toUpperCase();
-        
-        // Convert to bytes
+        // Convert to bytes, whitespace and case are ignored
         byte[] data;
         try {
-            data = YConvert.hexStringToByte(hexString);
-        } catch (Exception e) {
-            return new ParseResult(false, CMD_UNKNOWN, "未知命令", 
+            data = YHex.decode(hexString);
+        } catch (IllegalArgumentException e) {
+            return new ParseResult(false, CMD_UNKNOWN, NAME_UNKNOWN, 
                 "数据格式错误: " + e.getMessage(), hexString);
         }
         
+        ParseResult result = parse(data, 0, data.length, new ParseResult());
+        result.hexString = YHex.encode(data);
+        return result;
+    }
+    
+    /**
+     * Parse platform door command from received bytes, allocation free
+     * 按字节解析站台门命令，直接比较帧头，原地校验CRC，不创建对象，result可重复使用
+     * 
+     * @param data   buffer containing the command
+     * @param offset command start
+     * @param length command length
+     * @param result reusable result, overwritten (hexString set to null)
+     * @return result
+     */
+    public static ParseResult parse(byte[] data, int offset, int length, ParseResult result) {
         // Verify minimum length
-        if (data.length < 14) {
-            return new ParseResult(false, CMD_UNKNOWN, "未知命令", 
-                "数据长度不足", hexString);
-        }
-        
-        // Verify CRC
-        boolean crcValid = verifyCRC(data);
-        if (!crcValid) {
-            return new ParseResult(false, CMD_UNKNOWN, "未知命令", 
-                "CRC校验失败", hexString);
+        if (length < FRAME_LENGTH) {
+            return result.set(false, CMD_UNKNOWN, NAME_UNKNOWN, ERROR_LENGTH, null);
         }
         
-        // Identify command type based on byte 6 and byte 8
-        int commandType = CMD_UNKNOWN;
-        String commandName = "未知命令";
-        String errorMessage = null;
-        
-        // Check command pattern
-        // All commands start with: 5A 02 7E 00 04 08
-        if (data[0] == (byte)0x5A && data[1] == (byte)0x02 && 
-            data[2] == (byte)0x7E && data[3] == (byte)0x00 &&
-            data[4] == (byte)0x04 && data[5] == (byte)0x08) {
-            
-            byte byte6 = data[6];  // F1/D1/E1
-            byte byte8 = data[8];  // 02/01/03
-            
-            // F1 03 02 = All rise
-            if (byte6 == (byte)0xF1 && data[7] == (byte)0x03 && byte8 == (byte)0x02) {
-                commandType = CMD_ALL_RISE;
-                commandName = "全部上升";
-            }
-            // F1 03 01 = All descend
-            else if (byte6 == (byte)0xF1 && data[7] == (byte)0x03 && byte8 == (byte)0x01) {
-                commandType = CMD_ALL_DESCEND;
-                commandName = "全部下降";
-            }
-            // F1 03 03 = All stop
-            else if (byte6 == (byte)0xF1 && data[7] == (byte)0x03 && byte8 == (byte)0x03) {
-                commandType = CMD_ALL_STOP;
-                commandName = "全部停止";
-            }
-            // D1 03 02 = Short rise
-            else if (byte6 == (byte)0xD1 && data[7] == (byte)0x03 && byte8 == (byte)0x02) {
-                commandType = CMD_SHORT_RISE;
-                commandName = "短编上升";
-            }
-            // E1 03 02 = Reconnect rise
-            else if (byte6 == (byte)0xE1 && data[7] == (byte)0x03 && byte8 == (byte)0x02) {
-                commandType = CMD_RECONNECT_RISE;
-                commandName = "重联上升";
-            }
+        // Verify CRC in place
+        if (!verifyCRC(data, offset, length)) {
+            return result.set(false, CMD_UNKNOWN, NAME_UNKNOWN, ERROR_CRC, null);
         }
         
-        // If CRC is valid but command is unknown, set error message
-        if (crcValid && commandType == CMD_UNKNOWN) {
-            errorMessage = "CRC校验通过但不是已知命令";
+        // Identify the command by header 5A 02 7E 00 04 08 + bytes 6-8 through the command table trie
+        PlatformDoorCommand command = PlatformDoorCommand.match(data, offset, length);
+        if (command == null) {
+            return result.set(true, CMD_UNKNOWN, NAME_UNKNOWN, ERROR_UNKNOWN, null);
         }
-        
-        return new ParseResult(crcValid, commandType, commandName, errorMessage, hexString);
+        return result.set(true, command.getType(), command.getName(), null, null);
     }
     
     /**
@@ -176,13 +166,12 @@ public class PlatformDoorParser {
      * @return array of test command hex strings
      */
     public static String[] getTestCommands() {
-        return new String[]{
-            "5A027E000408F1030201 80A56DFC",  // 全部上升
-            "5A027E000408F1030101 7FA5D9BD",  // 全部下降
-            "5A027E000408F1030301 81A501FC",  // 全部停止
-            "5A027E000408D1030201 60A5CDB2",  // 短编上升
-            "5A027E000408E1030201 70A5FDBA"   // 重联上升
-        };
+        List<PlatformDoorCommand> commands = PlatformDoorCommand.getCommands();
+        String[] hexStrings = new String[commands.size()];
+        for (int i = 0; i < hexStrings.length; i++) {
+            hexStrings[i] = commands.get(i).getHexString();
+        }
+        return hexStrings;
     }
     
     /**
@@ -191,12 +180,11 @@ public class PlatformDoorParser {
      * @return array of command names
      */
     public static String[] getCommandNames() {
-        return new String[]{
-            "全部上升",
-            "全部下降",
-            "全部停止",
-            "短编上升",
-            "重联上升"
-        };
+        List<PlatformDoorCommand> commands = PlatformDoorCommand.getCommands();
+        String[] names = new String[commands.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = commands.get(i).getName();
+        }
+        return names;
     }
 }
@@ -0,0 +1,85 @@
+package com.yujing.chuankou.utils;
+
+import com.yujing.yserialport.YByteArray;
+import com.yujing.yserialport.YReadInputStream;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PlatformDoorFrameDecoder
+ */
+public class PlatformDoorFrameDecoderTest {
+
+    private static final byte[] ALL_RISE = hex("5A027E000408F103020180A56DFC");
+    private static final byte[] ALL_STOP = hex("5A027E000408F103030181A501FC");
+
+    private static byte[] hex(String s) {
+        byte[] bytes = new byte[s.length() / 2];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) Integer.parseInt(s.substring(i * 2, i * 2 + 2), 16);
+        return bytes;
+    }
+
+    // Feed the stream in chunks of the given size and collect the decoded frames
+    private static List<byte[]> feed(PlatformDoorFrameDecoder decoder, byte[] stream, int chunk) {
+        List<byte[]> frames = new ArrayList<>();
+        YByteArray buffer = new YByteArray();
+        for (int i = 0; i < stream.length; i += chunk) {
+            byte[] part = new byte[Math.min(chunk, stream.length - i)];
+            System.arraycopy(stream, i, part, 0, part.length);
+            buffer.add(part);
+            YReadInputStream.decode(decoder, buffer, frames::add);
+        }
+        return frames;
+    }
+
+    @Test
+    public void testSplitGluedAndNoisyStream() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x11);
+        out.write(0x5A);                          // line noise that looks like a header start
+        out.write(ALL_RISE, 0, ALL_RISE.length);
+        out.write(ALL_STOP, 0, ALL_STOP.length);  // glued to the previous frame
+        out.write(ALL_RISE, 0, ALL_RISE.length);
+        byte[] stream = out.toByteArray();
+
+        for (int chunk = 1; chunk <= stream.length; chunk++) {
+            PlatformDoorFrameDecoder decoder = new PlatformDoorFrameDecoder();
+            List<byte[]> frames = feed(decoder, stream, chunk);
+            assertEquals("three frames for chunk " + chunk, 3, frames.size());
+            assertArrayEquals("first frame exact", ALL_RISE, frames.get(0));
+            assertArrayEquals("second frame exact", ALL_STOP, frames.get(1));
+            assertArrayEquals("third frame exact", ALL_RISE, frames.get(2));
+            assertEquals("two garbage bytes", 2, decoder.getGarbageCount());
+            assertEquals("frame count", 3, decoder.getFrameCount());
+        }
+    }
+
+    @Test
+    public void testResyncInsideDamagedFrame() {
+        // A damaged frame cut short by a new frame: the preamble matches but the CRC does not
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ALL_STOP, 0, 9);
+        out.write(ALL_RISE, 0, ALL_RISE.length);
+        byte[] stream = out.toByteArray();
+
+        PlatformDoorFrameDecoder decoder = new PlatformDoorFrameDecoder();
+        List<byte[]> frames = feed(decoder, stream, stream.length);
+        assertEquals("only the intact frame", 1, frames.size());
+        assertArrayEquals("intact frame exact", ALL_RISE, frames.get(0));
+        assertEquals("one resync", 1, decoder.getResyncCount());
+        assertEquals("damaged bytes dropped up to the next preamble", 9, decoder.getGarbageCount());
+    }
+
+    @Test
+    public void testPartialPreambleWaits() {
+        PlatformDoorFrameDecoder decoder = new PlatformDoorFrameDecoder();
+        assertEquals("partial preamble should wait", 0, decoder.decode(ALL_RISE, 0, 4));
+        assertEquals("pure garbage should be dropped at once", -3, decoder.decode(new byte[]{1, 2, 3}, 0, 3));
+    }
+}
@@ -175,4 +175,73 @@ public class PlatformDoorParserTest {
         assertNotNull("Error message should not be null", result.errorMessage);
         assertEquals("Error message should indicate unknown command", "CRC校验通过但不是已知命令", result.errorMessage);
     }
+
+    @Test
+    public void testParseCommand_LowerCaseAndWhitespace() {
+        PlatformDoorParser.ParseResult result = PlatformDoorParser.parseCommand(" 5a 02 7e 00 04 08 f1 03 02 01\t80 a5 6d fc\n");
+
+        assertTrue("Should be valid", result.valid);
+        assertEquals("Should be CMD_ALL_RISE", PlatformDoorParser.CMD_ALL_RISE, result.commandType);
+        assertEquals("Hex string should be normalized", "5A027E000408F103020180A56DFC", result.hexString);
+    }
+
+    @Test
+    public void testParseCommand_InvalidHex() {
+        PlatformDoorParser.ParseResult oddLength = PlatformDoorParser.parseCommand("5A027E0");
+        assertFalse("Odd digit count should be invalid", oddLength.valid);
+        assertTrue("Error message should indicate a format error", oddLength.errorMessage.startsWith("数据格式错误"));
+
+        PlatformDoorParser.ParseResult badChar = PlatformDoorParser.parseCommand("5A027E00GG");
+        assertFalse("Non-hex character should be invalid", badChar.valid);
+        assertEquals("Should be CMD_UNKNOWN", PlatformDoorParser.CMD_UNKNOWN, badChar.commandType);
+    }
+
+    @Test
+    public void testParseBytes_OffsetAndReuse() {
+        // 全部停止 inside a larger buffer, then 全部上升 with the same result object
+        byte[] buffer = new byte[]{
+            (byte)0xFF, (byte)0x5A, (byte)0x02, (byte)0x7E, (byte)0x00,
+            (byte)0x04, (byte)0x08, (byte)0xF1, (byte)0x03, (byte)0x03,
+            (byte)0x01, (byte)0x81, (byte)0xA5, (byte)0x01, (byte)0xFC
+        };
+        PlatformDoorParser.ParseResult result = new PlatformDoorParser.ParseResult();
+        
+        assertSame("Result should be reused", result, PlatformDoorParser.parse(buffer, 1, 14, result));
+        assertTrue("Should be valid", result.valid);
+        assertEquals("Should be CMD_ALL_STOP", PlatformDoorParser.CMD_ALL_STOP, result.commandType);
+        assertNull("Byte parsing should not build a hex string", result.hexString);
+        
+        byte[] allRise = new byte[]{
+            (byte)0x5A, (byte)0x02, (byte)0x7E, (byte)0x00,
+            (byte)0x04, (byte)0x08, (byte)0xF1, (byte)0x03,
+            (byte)0x02, (byte)0x01, (byte)0x80, (byte)0xA5,
+            (byte)0x6D, (byte)0xFC
+        };
+        PlatformDoorParser.parse(allRise, 0, allRise.length, result);
+        assertEquals("Should be CMD_ALL_RISE", PlatformDoorParser.CMD_ALL_RISE, result.commandType);
+        assertNull("Error message should be cleared", result.errorMessage);
+        
+        PlatformDoorParser.parse(allRise, 0, 13, result);
+        assertFalse("Short frame should be invalid", result.valid);
+        assertEquals("Error message should indicate short data", "数据长度不足", result.errorMessage);
+    }
+
+    @Test
+    public void testCommandTable_PrecomputedFrames() {
+        // Precomputed frames must equal the documented commands and carry a valid CRC
+        String[] expected = {
+            "5A027E000408F103020180A56DFC",
+            "5A027E000408F10301017FA5D9BD",
+            "5A027E000408F103030181A501FC",
+            "5A027E000408D103020160A5CDB2",
+            "5A027E000408E103020170A5FDBA"
+        };
+        assertArrayEquals("Test commands should come from the table", expected, PlatformDoorParser.getTestCommands());
+        for (PlatformDoorCommand command : PlatformDoorCommand.getCommands()) {
+            byte[] frame = command.getFrame();
+            assertTrue("Precomputed CRC should be valid: " + command, PlatformDoorParser.verifyCRC(frame));
+            assertSame("Frame should classify as its own command", command, PlatformDoorCommand.match(frame, 0, frame.length));
+        }
+        assertEquals("Names should follow table order", "重联上升", PlatformDoorParser.getCommandNames()[4]);
+    }
 }
@@ -0,0 +1,48 @@
+package com.yujing.yserialport.benchmark;
+
+import com.yujing.yserialport.YHex;
+import com.yujing.yserialport.YSerialPort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 十六进制转换，每帧回调DataListener时都会调用
+ *
+ * @author yujing 2026年10月18日
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HexBenchmark {
+    @Param({"14", "256", "4096"})
+    public int size;
+
+    private byte[] data;
+    private String hex;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        for (int i = 0; i < size; i++) data[i] = (byte) (i * 31);
+        hex = YHex.encode(data);
+    }
+
+    @Benchmark
+    public String bytesToHexString() {
+        return YSerialPort.bytesToHexString(data);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return YHex.decode(hex);
+    }
+}
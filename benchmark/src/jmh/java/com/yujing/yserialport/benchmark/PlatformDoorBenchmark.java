@@ -0,0 +1,48 @@
+package com.yujing.yserialport.benchmark;
+
+import com.yujing.chuankou.utils.PlatformDoorParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 站台门命令：CRC计算、十六进制解析和字节解析
+ *
+ * @author yujing 2026年10月18日
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlatformDoorBenchmark {
+    //全部上升
+    private final String hex = "5A027E000408F1030201 80A56DFC";
+    private final byte[] frame = {0x5A, 0x02, 0x7E, 0x00, 0x04, 0x08, (byte) 0xF1, 0x03, 0x02, 0x01, (byte) 0x80, (byte) 0xA5, 0x6D, (byte) 0xFC};
+    private final byte[] data = {0x5A, 0x02, 0x7E, 0x00, 0x04, 0x08, (byte) 0xF1, 0x03, 0x02, 0x01, (byte) 0x80, (byte) 0xA5};
+    private final PlatformDoorParser.ParseResult result = new PlatformDoorParser.ParseResult();
+
+    @Benchmark
+    public byte[] calculateCRC16() {
+        return PlatformDoorParser.calculateCRC16(data);
+    }
+
+    @Benchmark
+    public boolean verifyCRC() {
+        return PlatformDoorParser.verifyCRC(frame, 0, frame.length);
+    }
+
+    @Benchmark
+    public PlatformDoorParser.ParseResult parseCommand() {
+        return PlatformDoorParser.parseCommand(hex);
+    }
+
+    @Benchmark
+    public PlatformDoorParser.ParseResult parseBytes() {
+        return PlatformDoorParser.parse(frame, 0, frame.length, result);
+    }
+}
@@ -0,0 +1,59 @@
+package com.yujing.yserialport.benchmark;
+
+import com.yujing.yserialport.YBytes;
+import com.yujing.yserialport.YReadInputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 组包循环，由内存中的定时输入流驱动
+ * readLength：数据立即到达，每次available()最多chunk字节，测循环本身的开销和分配
+ * readTime：数据每50微秒到达chunk字节，收完后等待1毫秒组包时间，测一次组包的总耗时
+ * 关闭轮询休眠（setSleep(false)），避免1毫秒的休眠粒度掩盖循环开销
+ *
+ * @author yujing 2026年10月18日
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadLoopBenchmark {
+    @Param({"256", "4096"})
+    public int size;
+
+    @Param({"16"})
+    public int chunk;
+
+    private TimedInputStream instant;
+    private TimedInputStream timed;
+
+    @Setup
+    public void setup() {
+        YReadInputStream.setSleep(false);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) data[i] = (byte) i;
+        instant = new TimedInputStream(data, chunk, 0);
+        timed = new TimedInputStream(data, chunk, TimeUnit.MICROSECONDS.toNanos(50));
+    }
+
+    //每次从头读，rewind()只重置位置和计时，不用Level.Invocation，避免其计时开销
+    @Benchmark
+    public YBytes readLength() throws Exception {
+        instant.rewind();
+        return YReadInputStream.readLength(instant, size, 1000);
+    }
+
+    @Benchmark
+    public YBytes readTime() throws Exception {
+        timed.rewind();
+        return YReadInputStream.readTime(timed, 1, 1000);
+    }
+}
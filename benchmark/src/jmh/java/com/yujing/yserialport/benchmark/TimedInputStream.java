@@ -0,0 +1,64 @@
+package com.yujing.yserialport.benchmark;
+
+import java.io.InputStream;
+
+/**
+ * 内存中的定时输入流，模拟串口：数据每隔interval纳秒到达chunk字节，available()只返回已到达未读取的字节数
+ * 用于在JVM上驱动readTime()/readLength()的组包循环，不需要串口设备
+ *
+ * @author yujing 2026年10月18日
+ */
+public class TimedInputStream extends InputStream {
+    private final byte[] data;
+    private final int chunk;
+    private final long interval;
+    private long startTime;
+    private int position;
+
+    /**
+     * @param data     全部数据
+     * @param chunk    每次到达的字节数
+     * @param interval 到达间隔，纳秒，0表示全部立即到达，但每次available()最多返回chunk字节
+     */
+    public TimedInputStream(byte[] data, int chunk, long interval) {
+        this.data = data;
+        this.chunk = chunk;
+        this.interval = interval;
+        rewind();
+    }
+
+    /**
+     * 从头开始，重新计时
+     */
+    public void rewind() {
+        position = 0;
+        startTime = System.nanoTime();
+    }
+
+    //已到达的字节数
+    private int arrived() {
+        if (interval == 0) return Math.min(data.length, position + chunk);
+        long chunks = (System.nanoTime() - startTime) / interval + 1;
+        return (int) Math.min(data.length, chunks * chunk);
+    }
+
+    @Override
+    public int available() {
+        return arrived() - position;
+    }
+
+    @Override
+    public int read() {
+        if (available() <= 0) return -1;
+        return data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        int count = Math.min(len, available());
+        if (count <= 0) return 0;
+        System.arraycopy(data, position, b, off, count);
+        position += count;
+        return count;
+    }
+}
@@ -0,0 +1,55 @@
+package com.yujing.yserialport.benchmark;
+
+import com.yujing.yserialport.YBytes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * YBytes组包：逐字节、按块追加，和按长度拆分
+ *
+ * @author yujing 2026年10月18日
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class YBytesBenchmark {
+    @Param({"64", "1024"})
+    public int size;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        for (int i = 0; i < size; i++) data[i] = (byte) i;
+    }
+
+    @Benchmark
+    public byte[] addByteSingle() {
+        YBytes bytes = new YBytes();
+        for (byte b : data) bytes.addByte(b);
+        return bytes.getBytes();
+    }
+
+    @Benchmark
+    public byte[] addByteChunks() {
+        YBytes bytes = new YBytes();
+        for (int i = 0; i < data.length; i += 16) bytes.addByte(data, i, Math.min(16, data.length - i));
+        return bytes.getBytes();
+    }
+
+    @Benchmark
+    public List<byte[]> split() {
+        return YBytes.split(data, 14);
+    }
+}
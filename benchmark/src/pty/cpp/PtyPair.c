@@ -0,0 +1,69 @@
+/*
+ * pty回环测试用：打开一对伪终端，主端给负载生成器写入，从端路径交给SerialPort按串口打开
+ * 只用于桌面Linux，不打包进aar
+ *
+ * @author yujing 2026年10月18日
+ */
+#define _GNU_SOURCE
+#include <stdlib.h>
+#include <stdio.h>
+#include <string.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <termios.h>
+#include <jni.h>
+
+static void throwIOException(JNIEnv *env, const char *what) {
+    char message[256];
+    snprintf(message, sizeof(message), "%s: %s", what, strerror(errno));
+    jclass IOExceptionClass = (*env)->FindClass(env, "java/io/IOException");
+    (*env)->ThrowNew(env, IOExceptionClass, message);
+}
+
+/**
+ * 打开pty主端，从端设为原始模式（不回显、不处理换行）
+ * @param env
+ * @param clazz
+ * @param slaveName 长度1，返回从端路径，如/dev/pts/3
+ * @return 主端FileDescriptor
+ */
+JNIEXPORT jobject JNICALL Java_com_yujing_yserialport_benchmark_PtyPair_open(JNIEnv *env, jclass clazz, jobjectArray slaveName) {
+    int master = posix_openpt(O_RDWR | O_NOCTTY);
+    if (master == -1) {
+        throwIOException(env, "posix_openpt");
+        return NULL;
+    }
+    if (grantpt(master) == -1 || unlockpt(master) == -1) {
+        throwIOException(env, "unlockpt");
+        close(master);
+        return NULL;
+    }
+    const char *name = ptsname(master);
+    if (name == NULL) {
+        throwIOException(env, "ptsname");
+        close(master);
+        return NULL;
+    }
+    /* 从端先设为原始模式，SerialPort打开时还会按波特率重新设置 */
+    int slave = open(name, O_RDWR | O_NOCTTY);
+    if (slave == -1) {
+        throwIOException(env, name);
+        close(master);
+        return NULL;
+    }
+    struct termios cfg;
+    if (tcgetattr(slave, &cfg) == 0) {
+        cfmakeraw(&cfg);
+        tcsetattr(slave, TCSANOW, &cfg);
+    }
+    close(slave);
+
+    (*env)->SetObjectArrayElement(env, slaveName, 0, (*env)->NewStringUTF(env, name));
+    jclass FileDescriptorClass = (*env)->FindClass(env, "java/io/FileDescriptor");
+    jmethodID init = (*env)->GetMethodID(env, FileDescriptorClass, "<init>", "()V");
+    jfieldID fdID = (*env)->GetFieldID(env, FileDescriptorClass, "fd", "I");
+    jobject fileDescriptor = (*env)->NewObject(env, FileDescriptorClass, init);
+    (*env)->SetIntField(env, fileDescriptor, fdID, (jint) master);
+    return fileDescriptor;
+}
@@ -0,0 +1,321 @@
+package com.yujing.yserialport.benchmark;
+
+import com.yujing.yserialport.FixedLengthFrameDecoder;
+import com.yujing.yserialport.FrameListener;
+import com.yujing.yserialport.ThreadMode;
+import com.yujing.yserialport.YFrame;
+import com.yujing.yserialport.YSerialPort;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * pty回环端到端测试：负载生成器按固定间隔向pty主端写帧，YSerialPort打开从端，经过真实的读取线程、组包和回调线程
+ * 测每种组包方式、每种ThreadMode的吞吐量（字节/秒、帧/秒）和延迟分位数（p50/p99/p999，写入主端到监听回调）
+ * 帧固定16字节：A5 5A + 4字节序号（高字节在前）+ 10字节填充；组包切开或合并的帧由接收端按帧头重新拼接
+ * 每个组合先发warmup帧预热并丢弃结果，再发frames帧计量；参数相同、机器空闲时结果可重复
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+./gradlew -Pbenchmark :benchmark:ptyBenchmark
+./gradlew -Pbenchmark :benchmark:ptyBenchmark --args="--frames 5000 --interval 200 --modes AUTO,CUSTOM --threads CURRENT,MAIN --csv build/results/pty.csv"
+--interval为发送间隔，微秒，0表示尽快发送（测最大吞吐量）
+ */
+public final class PtyBenchmark {
+    static final int FRAME_LENGTH = 16;
+    private static final byte HEAD0 = (byte) 0xA5;
+    private static final byte HEAD1 = 0x5A;
+    private static final long SETTLE_TIMEOUT = TimeUnit.SECONDS.toNanos(3);//最后一帧发出后最多等待时间
+
+    /**
+     * 组包方式
+     * AUTO：setToAuto(1)，1毫秒没有数据回调一包
+     * MANUAL：setToManual(16, 10)，至少16字节
+     * CUSTOM：InputStreamReadListener每次阻塞读满16字节
+     * DECODER：FixedLengthFrameDecoder(16)
+     */
+    enum Framing {
+        AUTO, MANUAL, CUSTOM, DECODER
+    }
+
+    private PtyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int frames = 5000;
+        int warmup = 1000;
+        long interval = TimeUnit.MICROSECONDS.toNanos(200);
+        List<Framing> framings = Arrays.asList(Framing.values());
+        List<ThreadMode> threadModes = Arrays.asList(ThreadMode.values());
+        String csv = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--frames":
+                    frames = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--interval":
+                    interval = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(args[++i]));
+                    break;
+                case "--modes":
+                    framings = new ArrayList<>();
+                    for (String name : args[++i].split(",")) framings.add(Framing.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    break;
+                case "--threads":
+                    threadModes = new ArrayList<>();
+                    for (String name : args[++i].split(",")) threadModes.add(ThreadMode.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    break;
+                case "--csv":
+                    csv = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "# %s %s, %s %s, cpus=%d, frames=%d, warmup=%d, interval=%dus%n",
+                System.getProperty("java.vm.name"), System.getProperty("java.version"), System.getProperty("os.name"), System.getProperty("os.version"),
+                Runtime.getRuntime().availableProcessors(), frames, warmup, TimeUnit.NANOSECONDS.toMicros(interval));
+        System.out.println(Result.HEADER);
+        List<Result> results = new ArrayList<>();
+        for (Framing framing : framings) {
+            for (ThreadMode threadMode : threadModes) {
+                Result result = run(framing, threadMode, frames, warmup, interval);
+                results.add(result);
+                System.out.println(result.format());
+            }
+        }
+        if (csv != null) {
+            File file = new File(csv);
+            if (file.getParentFile() != null) file.getParentFile().mkdirs();
+            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                writer.println(Result.CSV_HEADER);
+                for (Result result : results) writer.println(result.toCsv());
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 跑一个组合，每次用新的pty和YSerialPort
+     */
+    static Result run(Framing framing, ThreadMode threadMode, int frames, int warmup, long interval) throws Exception {
+        int total = warmup + frames;
+        Receiver receiver = new Receiver(total);
+        PtyPair pty = PtyPair.open();
+        YSerialPort ySerialPort = new YSerialPort(null, pty.getSlaveName(), "115200");
+        String[] error = new String[1];
+        ySerialPort.setErrorListener(message -> error[0] = message);
+        ySerialPort.setThreadMode(threadMode);
+        switch (framing) {
+            case AUTO:
+                ySerialPort.setToAuto(1);
+                break;
+            case MANUAL:
+                ySerialPort.setToManual(FRAME_LENGTH, 10);
+                break;
+            case CUSTOM:
+                ySerialPort.setInputStreamReadListener(PtyBenchmark::readFrame);
+                break;
+            case DECODER:
+                ySerialPort.setFrameDecoder(new FixedLengthFrameDecoder(FRAME_LENGTH));
+                break;
+        }
+        ySerialPort.addFrameListener(receiver);
+        try {
+            ySerialPort.start();
+            //等待读取线程开始读取
+            Thread.sleep(200);
+            if (error[0] != null) throw new IOException(pty.getSlaveName() + "：" + error[0]);
+            AtomicLongArray sendTimes = new AtomicLongArray(total);
+            OutputStream outputStream = pty.getOutputStream();
+            //预热，等全部收到或超时，不计结果
+            send(outputStream, sendTimes, 0, warmup, interval);
+            receiver.await(warmup, System.nanoTime() + SETTLE_TIMEOUT);
+            send(outputStream, sendTimes, warmup, total, interval);
+            receiver.await(total, System.nanoTime() + SETTLE_TIMEOUT);
+            return receiver.result(framing, threadMode, sendTimes, warmup, total);
+        } finally {
+            ySerialPort.onDestroy();
+            //再关闭主端，仍阻塞在read()上的自定义读取线程随即返回
+            pty.close();
+        }
+    }
+
+    //按截止时间发送，某帧发晚了后面的帧不累积延后
+    private static void send(OutputStream outputStream, AtomicLongArray sendTimes, int from, int to, long interval) throws IOException {
+        byte[] frame = new byte[FRAME_LENGTH];
+        frame[0] = HEAD0;
+        frame[1] = HEAD1;
+        for (int i = 6; i < FRAME_LENGTH; i++) frame[i] = (byte) i;
+        long start = System.nanoTime();
+        for (int sequence = from; sequence < to; sequence++) {
+            long deadline = start + (sequence - from) * interval;
+            long wait;
+            while ((wait = deadline - System.nanoTime()) > 0) {
+                //park精度约50微秒，最后一段自旋
+                if (wait > 100_000) LockSupport.parkNanos(wait - 50_000);
+                else Thread.onSpinWait();
+            }
+            frame[2] = (byte) (sequence >>> 24);
+            frame[3] = (byte) (sequence >>> 16);
+            frame[4] = (byte) (sequence >>> 8);
+            frame[5] = (byte) sequence;
+            sendTimes.set(sequence, System.nanoTime());
+            outputStream.write(frame);
+        }
+    }
+
+    //自定义组包：阻塞读满一帧；主端关闭后read()出错，中断读取线程让其退出
+    private static byte[] readFrame(InputStream inputStream) {
+        byte[] frame = new byte[FRAME_LENGTH];
+        int length = 0;
+        while (length < FRAME_LENGTH) {
+            int count;
+            try {
+                count = inputStream.read(frame, length, FRAME_LENGTH - length);
+            } catch (IOException e) {
+                count = -1;
+            }
+            if (count < 0) {
+                Thread.currentThread().interrupt();
+                return Arrays.copyOf(frame, length);
+            }
+            length += count;
+        }
+        return frame;
+    }
+
+    /**
+     * 接收端，把组包切开或合并的数据按帧头重新拼成16字节帧，记录每个序号的回调时间
+     * 回调可能在不同线程，加锁保证拼接状态可见
+     */
+    static final class Receiver implements FrameListener {
+        private final long[] receiveTimes;
+        private final byte[] carry = new byte[FRAME_LENGTH];
+        private int carryLength;
+        private volatile int received;//收到的不同序号数
+        private long garbage;//帧头以外丢弃的字节数
+
+        Receiver(int total) {
+            receiveTimes = new long[total];
+        }
+
+        @Override
+        public synchronized void value(YFrame frame) {
+            long now = System.nanoTime();
+            byte[] bytes = frame.getBytes();
+            int end = frame.getOffset() + frame.getLength();
+            for (int i = frame.getOffset(); i < end; i++) {
+                byte b = bytes[i];
+                if (carryLength == 0 && b != HEAD0) {
+                    garbage++;
+                    continue;
+                }
+                if (carryLength == 1 && b != HEAD1) {
+                    //前一个A5不是帧头，当前字节可能是新帧头
+                    garbage++;
+                    if (b != HEAD0) {
+                        garbage++;
+                        carryLength = 0;
+                    }
+                    continue;
+                }
+                carry[carryLength++] = b;
+                if (carryLength < FRAME_LENGTH) continue;
+                carryLength = 0;
+                int sequence = ((carry[2] & 0xFF) << 24) | ((carry[3] & 0xFF) << 16) | ((carry[4] & 0xFF) << 8) | (carry[5] & 0xFF);
+                if (sequence < 0 || sequence >= receiveTimes.length || receiveTimes[sequence] != 0) {
+                    garbage += FRAME_LENGTH;
+                    continue;
+                }
+                receiveTimes[sequence] = now;
+                received++;
+            }
+        }
+
+        //等到收到count个序号或超时
+        void await(int count, long deadline) throws InterruptedException {
+            while (received < count && System.nanoTime() < deadline) Thread.sleep(1);
+        }
+
+        synchronized Result result(Framing framing, ThreadMode threadMode, AtomicLongArray sendTimes, int from, int to) {
+            long[] latencies = new long[to - from];
+            int count = 0;
+            long last = 0;
+            for (int sequence = from; sequence < to; sequence++) {
+                long time = receiveTimes[sequence];
+                if (time == 0) continue;
+                latencies[count++] = time - sendTimes.get(sequence);
+                if (time > last) last = time;
+            }
+            latencies = Arrays.copyOf(latencies, count);
+            Arrays.sort(latencies);
+            long duration = count == 0 ? 0 : last - sendTimes.get(from);
+            return new Result(framing, threadMode, to - from, count, garbage, duration, latencies);
+        }
+    }
+
+    /**
+     * 一个组合的结果，延迟为纳秒
+     */
+    static final class Result {
+        static final String HEADER = String.format(Locale.ROOT, "%-8s %-9s %12s %10s %10s %10s %10s %10s %6s", "framing", "thread", "bytes/s", "frames/s", "p50(us)", "p99(us)", "p999(us)", "max(us)", "lost");
+        static final String CSV_HEADER = "framing,thread,frames,received,lost,garbage,bytesPerSecond,framesPerSecond,p50Nanos,p99Nanos,p999Nanos,maxNanos";
+        final Framing framing;
+        final ThreadMode threadMode;
+        final int frames;
+        final int received;
+        final long garbage;
+        final long duration;
+        final long[] latencies;//已排序
+
+        Result(Framing framing, ThreadMode threadMode, int frames, int received, long garbage, long duration, long[] latencies) {
+            this.framing = framing;
+            this.threadMode = threadMode;
+            this.frames = frames;
+            this.received = received;
+            this.garbage = garbage;
+            this.duration = duration;
+            this.latencies = latencies;
+        }
+
+        double framesPerSecond() {
+            return duration == 0 ? 0 : received * 1e9 / duration;
+        }
+
+        //最近秩法，没有数据返回0
+        long percentile(double p) {
+            if (latencies.length == 0) return 0;
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%-8s %-9s %12.0f %10.0f %10.1f %10.1f %10.1f %10.1f %6d",
+                    framing, threadMode, framesPerSecond() * FRAME_LENGTH, framesPerSecond(),
+                    percentile(0.5) / 1e3, percentile(0.99) / 1e3, percentile(0.999) / 1e3, percentile(1) / 1e3, frames - received);
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.0f,%.0f,%d,%d,%d,%d",
+                    framing, threadMode, frames, received, frames - received, garbage, framesPerSecond() * FRAME_LENGTH, framesPerSecond(),
+                    percentile(0.5), percentile(0.99), percentile(0.999), percentile(1));
+        }
+    }
+}
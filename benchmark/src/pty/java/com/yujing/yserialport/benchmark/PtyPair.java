@@ -0,0 +1,68 @@
+package com.yujing.yserialport.benchmark;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 一对伪终端，从端路径当作串口交给YSerialPort打开，向主端写入的数据就是串口收到的数据
+ * 不需要串口设备和root，普通Linux即可运行，需要libPtyPair.so（./gradlew -Pbenchmark :benchmark:ptyNative）
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+try (PtyPair pty = PtyPair.open()) {
+    YSerialPort ySerialPort = new YSerialPort(null, pty.getSlaveName(), "115200");
+    ySerialPort.start();
+    pty.getOutputStream().write(bytes);//ySerialPort收到bytes
+}
+ */
+public final class PtyPair implements Closeable {
+    static {
+        System.loadLibrary("PtyPair");
+    }
+
+    private final String slaveName;
+    private final FileOutputStream outputStream;
+
+    private PtyPair(String slaveName, FileDescriptor master) {
+        this.slaveName = slaveName;
+        this.outputStream = new FileOutputStream(master);
+    }
+
+    private static native FileDescriptor open(String[] slaveName) throws IOException;
+
+    /**
+     * 打开一对新的伪终端
+     */
+    public static PtyPair open() throws IOException {
+        String[] slaveName = new String[1];
+        FileDescriptor master = open(slaveName);
+        return new PtyPair(slaveName[0], master);
+    }
+
+    /**
+     * 从端路径，如/dev/pts/3
+     */
+    public String getSlaveName() {
+        return slaveName;
+    }
+
+    /**
+     * 主端输出流，写入的数据从从端读出
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * 关闭主端，从端的读取随即返回错误
+     */
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+}
@@ -0,0 +1,10 @@
+package android.content;
+
+/**
+ * JVM基准测试用桩类，只提供编译需要的接口
+ */
+public abstract class Context {
+    public static final int MODE_PRIVATE = 0;
+
+    public abstract SharedPreferences getSharedPreferences(String name, int mode);
+}
@@ -0,0 +1,18 @@
+package android.content;
+
+/**
+ * JVM基准测试用桩类，只提供编译需要的接口
+ */
+public interface SharedPreferences {
+    String getString(String key, String defValue);
+
+    Editor edit();
+
+    interface Editor {
+        Editor putString(String key, String value);
+
+        void apply();
+
+        boolean commit();
+    }
+}
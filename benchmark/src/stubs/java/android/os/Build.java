@@ -0,0 +1,18 @@
+package android.os;
+
+/**
+ * JVM基准测试用桩类，只提供编译需要的接口
+ */
+public class Build {
+    public static class VERSION {
+        public static final int SDK_INT = 34;
+    }
+
+    public static class VERSION_CODES {
+        public static final int GINGERBREAD = 9;
+        public static final int JELLY_BEAN = 16;
+        public static final int LOLLIPOP = 21;
+        public static final int M = 23;
+        public static final int N = 24;
+    }
+}
@@ -0,0 +1,56 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM基准测试用桩类，任务交给Looper模拟的主线程执行，支持removeCallbacks()
+ */
+public class Handler {
+    private final Looper looper;
+    private final Map<Runnable, List<Future<?>>> pending = new HashMap<>();
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final boolean post(Runnable r) {
+        return postDelayed(r, 0);
+    }
+
+    public final boolean postAtFrontOfQueue(Runnable r) {
+        return postDelayed(r, 0);
+    }
+
+    public final boolean postDelayed(final Runnable r, long delayMillis) {
+        final Future<?>[] holder = new Future<?>[1];
+        synchronized (pending) {
+            holder[0] = looper.executor.schedule(() -> {
+                synchronized (pending) {
+                    List<Future<?>> futures = pending.get(r);
+                    if (futures != null && futures.remove(holder[0]) && futures.isEmpty()) pending.remove(r);
+                }
+                r.run();
+            }, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+            List<Future<?>> futures = pending.get(r);
+            if (futures == null) pending.put(r, futures = new ArrayList<>());
+            futures.add(holder[0]);
+        }
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        synchronized (pending) {
+            List<Future<?>> futures = pending.remove(r);
+            if (futures != null) for (Future<?> future : futures) future.cancel(false);
+        }
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+}
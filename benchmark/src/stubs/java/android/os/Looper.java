@@ -0,0 +1,40 @@
+package android.os;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * JVM基准测试用桩类，用一个守护线程模拟主线程，Handler的任务都在这个线程按顺序执行
+ */
+public final class Looper {
+    private static final Looper MAIN = new Looper();
+    final ScheduledThreadPoolExecutor executor;
+    private volatile Thread thread;
+
+    private Looper() {
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "main");
+            thread.setDaemon(true);
+            this.thread = thread;
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        //先启动线程，getThread()才有值
+        executor.prestartAllCoreThreads();
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN;
+    }
+
+    public static Looper myLooper() {
+        return MAIN.isCurrentThread() ? MAIN : null;
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+
+    public boolean isCurrentThread() {
+        return Thread.currentThread() == thread;
+    }
+}
@@ -0,0 +1,22 @@
+package android.os;
+
+/**
+ * JVM基准测试用桩类，读取循环会调用，按JVM时钟实现
+ */
+public final class SystemClock {
+    public static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static long elapsedRealtimeNanos() {
+        return System.nanoTime();
+    }
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000;
+    }
+}
@@ -0,0 +1,28 @@
+package android.view;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * JVM基准测试用桩类，在模拟的主线程上每16毫秒回调一次显示帧
+ */
+public final class Choreographer {
+    private static final Choreographer INSTANCE = new Choreographer();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    public static Choreographer getInstance() {
+        if (Looper.myLooper() == null) throw new IllegalStateException("The current thread must have a looper!");
+        return INSTANCE;
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        handler.postDelayed(() -> callback.doFrame(System.nanoTime()), 16);
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+    }
+}
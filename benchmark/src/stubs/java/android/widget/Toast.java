@@ -0,0 +1,18 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * JVM基准测试用桩类，只提供编译需要的接口，调用即抛异常
+ */
+public class Toast {
+    public static final int LENGTH_LONG = 1;
+
+    public static Toast makeText(Context context, CharSequence text, int duration) {
+        throw new UnsupportedOperationException("Stub!");
+    }
+
+    public void show() {
+        throw new UnsupportedOperationException("Stub!");
+    }
+}
@@ -20,14 +20,40 @@
 #include <sys/stat.h>
 #include <fcntl.h>
 #include <string.h>
+#include <stdlib.h>
+#include <stdint.h>
+#include <poll.h>
+#include <errno.h>
+#include <time.h>
+#include <sys/syscall.h>
+#include <sys/ioctl.h>
+#include <sys/epoll.h>
+#include <sys/eventfd.h>
 #include <jni.h>
 #include "YSerialPort.h"
+#ifdef __ANDROID__
 #include "android/log.h"
+#else
+#include <stdio.h>
+#endif
 
 static const char *TAG = "serial_port";
+/* readTimed单次最多读取长度，栈上缓存 */
+#define READ_BUFFER_SIZE 4096
+/* writev单次最多段数，与SerialPort.WRITEV_MAX_SEGMENTS一致 */
+#define WRITEV_MAX_SEGMENTS 64
+/* writev合并写入的栈上缓存，超出时临时申请 */
+#define WRITE_BUFFER_SIZE 4096
+#ifdef __ANDROID__
 #define LOGI(fmt, args...) __android_log_print(ANDROID_LOG_INFO,  TAG, fmt, ##args)
 #define LOGD(fmt, args...) __android_log_print(ANDROID_LOG_DEBUG, TAG, fmt, ##args)
 #define LOGE(fmt, args...) __android_log_print(ANDROID_LOG_ERROR, TAG, fmt, ##args)
+#else
+/* 桌面Linux（pty测试、基准测试）输出到stderr，调试日志不输出 */
+#define LOGI(fmt, args...) fprintf(stderr, "I/%s: " fmt "\n", TAG, ##args)
+#define LOGD(fmt, args...) do { } while (0)
+#define LOGE(fmt, args...) fprintf(stderr, "E/%s: " fmt "\n", TAG, ##args)
+#endif
 
 static speed_t getBaudrate(jint baudrate) {
     switch (baudrate) {
@@ -98,6 +124,67 @@ static speed_t getBaudrate(jint baudrate) {
     }
 }
 
+/**
+ * FileDescriptor中保存文件描述符的字段，Android为descriptor，桌面JDK为fd
+ * @param env
+ * @return jfieldID
+ */
+static jfieldID getDescriptorField(JNIEnv *env) {
+    static jfieldID descriptorID = NULL;
+    if (descriptorID == NULL) {
+        jclass FileDescriptorClass = (*env)->FindClass(env, "java/io/FileDescriptor");
+        descriptorID = (*env)->GetFieldID(env, FileDescriptorClass, "descriptor", "I");
+        if (descriptorID == NULL) {
+            /* 清除NoSuchFieldError，再找桌面JDK的字段 */
+            (*env)->ExceptionClear(env);
+            descriptorID = (*env)->GetFieldID(env, FileDescriptorClass, "fd", "I");
+        }
+    }
+    return descriptorID;
+}
+
+/**
+ * 获取SerialPort.mFd中的文件描述符
+ * @param env
+ * @param thiz
+ * @return 文件描述符，串口未打开或已关闭时返回-1
+ */
+static int getDescriptor(JNIEnv *env, jobject thiz) {
+    static jfieldID mFdID = NULL;
+    if (mFdID == NULL) {
+        jclass SerialPortClass = (*env)->GetObjectClass(env, thiz);
+        mFdID = (*env)->GetFieldID(env, SerialPortClass, "mFd", "Ljava/io/FileDescriptor;");
+    }
+    jobject mFd = (*env)->GetObjectField(env, thiz, mFdID);
+    if (mFd == NULL) return -1;
+    return (*env)->GetIntField(env, mFd, getDescriptorField(env));
+}
+
+/**
+ * SerialPort.mWakeFd字段，唤醒等待线程用的eventfd
+ * @param env
+ * @param thiz
+ * @return jfieldID
+ */
+static jfieldID getWakeFdField(JNIEnv *env, jobject thiz) {
+    static jfieldID mWakeFdID = NULL;
+    if (mWakeFdID == NULL) {
+        jclass SerialPortClass = (*env)->GetObjectClass(env, thiz);
+        mWakeFdID = (*env)->GetFieldID(env, SerialPortClass, "mWakeFd", "I");
+    }
+    return mWakeFdID;
+}
+
+/**
+ * 获取SerialPort.mWakeFd
+ * @param env
+ * @param thiz
+ * @return eventfd，串口未打开或已关闭时返回-1
+ */
+static int getWakeFd(JNIEnv *env, jobject thiz) {
+    return (*env)->GetIntField(env, thiz, getWakeFdField(env, thiz));
+}
+
 /**
  * 打开串口
  * @param env
@@ -108,9 +195,11 @@ static speed_t getBaudrate(jint baudrate) {
  * @param parity 奇偶校验；0:无校验位(NONE，默认)；1:奇校验位(ODD);2:偶校验位(EVEN)
  * @param stopBits 停止位；默认1；1:1位停止位；2:2位停止位
  * @param flags 默认0
+ * @param vmin 非规范模式下read()至少返回的字节数，0~255；小于0保持默认
+ * @param vtime 非规范模式下read()字节间超时，单位0.1秒，0~255；小于0保持默认
  * @return
  */
-JNIEXPORT jobject JNICALL Java_com_yujing_serialport_SerialPort_open(JNIEnv *env, jobject thiz, jstring path, jint baudRate, jint dataBits, jint parity,jint stopBits,jint flags) {
+JNIEXPORT jobject JNICALL Java_com_yujing_serialport_SerialPort_open(JNIEnv *env, jobject thiz, jstring path, jint baudRate, jint dataBits, jint parity,jint stopBits,jint flags, jint vmin, jint vtime) {
     int fd;
     speed_t speed;
     jobject mFileDescriptor;
@@ -198,6 +287,10 @@ JNIEXPORT jobject JNICALL Java_com_yujing_serialport_SerialPort_open(JNIEnv *env
                 break;
         }
 
+        /* 内核组包，小于0时保持cfmakeraw的默认值（VMIN=1，VTIME=0） */
+        if (vmin >= 0) cfg.c_cc[VMIN] = (cc_t) (vmin > 255 ? 255 : vmin);
+        if (vtime >= 0) cfg.c_cc[VTIME] = (cc_t) (vtime > 255 ? 255 : vtime);
+
         if (tcsetattr(fd, TCSANOW, &cfg)) {
             LOGE("获取终端参数失败");
             close(fd);
@@ -208,28 +301,472 @@ JNIEXPORT jobject JNICALL Java_com_yujing_serialport_SerialPort_open(JNIEnv *env
     {
         jclass cFileDescriptor = (*env)->FindClass(env, "java/io/FileDescriptor");
         jmethodID iFileDescriptor = (*env)->GetMethodID(env, cFileDescriptor, "<init>", "()V");
-        jfieldID descriptorID = (*env)->GetFieldID(env, cFileDescriptor, "descriptor", "I");
+        jfieldID descriptorID = getDescriptorField(env);
         mFileDescriptor = (*env)->NewObject(env, cFileDescriptor, iFileDescriptor);
         (*env)->SetIntField(env, mFileDescriptor, descriptorID, (jint) fd);
     }
+    /* 唤醒用的eventfd，和串口fd一起poll，关闭前写入即可让等待线程立即返回 */
+    {
+        int wakeFd = eventfd(0, 0);
+        if (wakeFd < 0) {
+            LOGE("eventfd 失败, errno = %d", errno);
+            close(fd);
+            return NULL;
+        }
+        fcntl(wakeFd, F_SETFD, FD_CLOEXEC);
+        fcntl(wakeFd, F_SETFL, fcntl(wakeFd, F_GETFL) | O_NONBLOCK);
+        (*env)->SetIntField(env, thiz, getWakeFdField(env, thiz), (jint) wakeFd);
+    }
     return mFileDescriptor;
 }
 
 /**
- * 关闭串口
+ * 关闭串口，先唤醒仍在等待的线程，再关闭串口fd和eventfd
+ * 读取线程应先停止并等待退出，再调用close()，否则等待中的线程可能看到已关闭的fd
  * @param env
  * @param thiz
  */
 JNIEXPORT void JNICALL Java_com_yujing_serialport_SerialPort_close(JNIEnv *env, jobject thiz) {
     jclass SerialPortClass = (*env)->GetObjectClass(env, thiz);
-    jclass FileDescriptorClass = (*env)->FindClass(env, "java/io/FileDescriptor");
 
     jfieldID mFdID = (*env)->GetFieldID(env, SerialPortClass, "mFd", "Ljava/io/FileDescriptor;");
-    jfieldID descriptorID = (*env)->GetFieldID(env, FileDescriptorClass, "descriptor", "I");
+    jfieldID descriptorID = getDescriptorField(env);
+    jfieldID wakeFdID = getWakeFdField(env, thiz);
 
+    jint wakeFd = (*env)->GetIntField(env, thiz, wakeFdID);
+    if (wakeFd >= 0) {
+        Java_com_yujing_serialport_SerialPort_wakeup(env, thiz);
+        (*env)->SetIntField(env, thiz, wakeFdID, -1);
+    }
     jobject mFd = (*env)->GetObjectField(env, thiz, mFdID);
     jint descriptor = (*env)->GetIntField(env, mFd, descriptorID);
     LOGD("close(fd = %d)", descriptor);
-    close(descriptor);
+    /* 先标记为已关闭，之后进入等待的线程直接返回，不会使用被系统复用的fd */
+    (*env)->SetIntField(env, mFd, descriptorID, -1);
+    if (descriptor >= 0) close(descriptor);
+    if (wakeFd >= 0) close(wakeFd);
+}
+
+/**
+ * 唤醒阻塞在waitReadable上的线程，之后的等待都立即返回-1，直到clearWakeup()
+ * @param env
+ * @param thiz
+ */
+JNIEXPORT void JNICALL Java_com_yujing_serialport_SerialPort_wakeup(JNIEnv *env, jobject thiz) {
+    int wakeFd = getWakeFd(env, thiz);
+    if (wakeFd < 0) return;
+    uint64_t value = 1;
+    ssize_t ret;
+    do {
+        ret = write(wakeFd, &value, sizeof(value));
+    } while (ret < 0 && errno == EINTR);
+}
+
+/**
+ * 清除唤醒标志，读取线程退出后重新开始读取前调用
+ * @param env
+ * @param thiz
+ */
+JNIEXPORT void JNICALL Java_com_yujing_serialport_SerialPort_clearWakeup(JNIEnv *env, jobject thiz) {
+    int wakeFd = getWakeFd(env, thiz);
+    if (wakeFd < 0) return;
+    uint64_t value;
+    ssize_t ret;
+    do {
+        ret = read(wakeFd, &value, sizeof(value));
+    } while (ret < 0 && errno == EINTR);
+}
+
+/**
+ * 阻塞在ppoll上等待fd可读，同时等待唤醒eventfd
+ * 直接使用系统调用，bionic的ppoll()要求API 21，系统调用本身在所有内核版本都可用
+ * @param fd 文件描述符
+ * @param wakeFd 唤醒eventfd，小于0不等待
+ * @param timeout 超时时间，NULL一直等；被信号打断时内核会写回剩余时间
+ * @return 大于0：有数据可读；0：超时；小于0：出错（串口已关闭、设备断开等）或被唤醒
+ */
+static int waitFd(int fd, int wakeFd, struct timespec *timeout) {
+    if (fd < 0) return -1;
+    struct pollfd pfd[2];
+    pfd[0].fd = fd;
+    pfd[0].events = POLLIN;
+    pfd[0].revents = 0;
+    pfd[1].fd = wakeFd;
+    pfd[1].events = POLLIN;
+    pfd[1].revents = 0;
+    long ret;
+    do {
+        ret = syscall(__NR_ppoll, pfd, wakeFd >= 0 ? 2 : 1, timeout, NULL, 0);
+    } while (ret < 0 && errno == EINTR);
+    if (ret < 0) {
+        LOGE("ppoll(fd = %d) 失败, errno = %d", fd, errno);
+        return -1;
+    }
+    if (ret == 0) return 0;
+    /* 被唤醒，串口即将关闭，不是错误 */
+    if (pfd[1].revents & POLLIN) {
+        LOGD("ppoll(fd = %d) 被唤醒", fd);
+        return -1;
+    }
+    /* POLLERR、POLLHUP、POLLNVAL，设备已断开，即使带有POLLIN也不再可读 */
+    if (pfd[0].revents & (POLLERR | POLLHUP | POLLNVAL)) {
+        LOGE("ppoll(fd = %d) revents = 0x%x", fd, pfd[0].revents);
+        return -1;
+    }
+    return 1;
 }
 
+/**
+ * 等待串口可读，阻塞在poll上，直到有数据、超时或出错
+ * @param env
+ * @param thiz
+ * @param timeout 超时毫秒；小于0一直等
+ * @return 大于0：有数据可读；0：超时；小于0：出错（串口已关闭、设备断开等）
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_waitReadable(JNIEnv *env, jobject thiz, jint timeout) {
+    if (timeout < 0) return waitFd(getDescriptor(env, thiz), getWakeFd(env, thiz), NULL);
+    struct timespec ts;
+    ts.tv_sec = timeout / 1000;
+    ts.tv_nsec = (long) (timeout % 1000) * 1000000L;
+    return waitFd(getDescriptor(env, thiz), getWakeFd(env, thiz), &ts);
+}
+
+/**
+ * 等待串口可读，纳秒精度，用于亚毫秒级的字节间隔判断
+ * @param env
+ * @param thiz
+ * @param timeout 超时纳秒；小于0一直等
+ * @return 大于0：有数据可读；0：超时；小于0：出错（串口已关闭、设备断开等）
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_waitReadableNanos(JNIEnv *env, jobject thiz, jlong timeout) {
+    if (timeout < 0) return waitFd(getDescriptor(env, thiz), getWakeFd(env, thiz), NULL);
+    struct timespec ts;
+    ts.tv_sec = (time_t) (timeout / 1000000000LL);
+    ts.tv_nsec = (long) (timeout % 1000000000LL);
+    return waitFd(getDescriptor(env, thiz), getWakeFd(env, thiz), &ts);
+}
+
+/**
+ * 获取串口接收缓冲区中可读取的字节数（ioctl FIONREAD）
+ * @param env
+ * @param thiz
+ * @return 可读取字节数；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_available(JNIEnv *env, jobject thiz) {
+    int fd = getDescriptor(env, thiz);
+    if (fd < 0) return -1;
+    int count = 0;
+    if (ioctl(fd, FIONREAD, &count) < 0) {
+        LOGE("ioctl(fd = %d, FIONREAD) 失败, errno = %d", fd, errno);
+        return -1;
+    }
+    return count;
+}
+
+/**
+ * 记录read()返回时的单调时钟到SerialPort.mReadTime
+ * @param env
+ * @param thiz
+ */
+static void markReadTime(JNIEnv *env, jobject thiz) {
+    static jfieldID mReadTimeID = NULL;
+    if (mReadTimeID == NULL) {
+        jclass SerialPortClass = (*env)->GetObjectClass(env, thiz);
+        mReadTimeID = (*env)->GetFieldID(env, SerialPortClass, "mReadTime", "J");
+    }
+    struct timespec now;
+    clock_gettime(CLOCK_MONOTONIC, &now);
+    (*env)->SetLongField(env, thiz, mReadTimeID, (jlong) now.tv_sec * 1000000000LL + now.tv_nsec);
+}
+
+/**
+ * 读取串口数据，并在read()返回后立即记录CLOCK_MONOTONIC时间戳到SerialPort.mReadTime
+ * CLOCK_MONOTONIC与Java的System.nanoTime()同源，不受系统时间调整影响
+ * @param env
+ * @param thiz
+ * @param buffer 目标数组
+ * @param offset 起始位置
+ * @param length 最多读取长度
+ * @return 读取长度；0：无数据；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_readTimed(JNIEnv *env, jobject thiz, jbyteArray buffer, jint offset, jint length) {
+    int fd = getDescriptor(env, thiz);
+    if (fd < 0) return -1;
+    jbyte buf[READ_BUFFER_SIZE];
+    if (length > READ_BUFFER_SIZE) length = READ_BUFFER_SIZE;
+    ssize_t ret;
+    do {
+        ret = read(fd, buf, (size_t) length);
+    } while (ret < 0 && errno == EINTR);
+    markReadTime(env, thiz);
+    if (ret < 0) {
+        if (errno == EAGAIN) return 0;
+        LOGE("read(fd = %d) 失败, errno = %d", fd, errno);
+        return -1;
+    }
+    if (ret > 0) (*env)->SetByteArrayRegion(env, buffer, offset, (jsize) ret, buf);
+    return (jint) ret;
+}
+
+/**
+ * 读取串口数据直接写入DirectByteBuffer，无中间拷贝，同时记录时间戳
+ * @param env
+ * @param thiz
+ * @param buffer DirectByteBuffer
+ * @param position 写入位置
+ * @param length 最多读取长度
+ * @return 读取长度；0：无数据；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_readDirect(JNIEnv *env, jobject thiz, jobject buffer, jint position, jint length) {
+    int fd = getDescriptor(env, thiz);
+    jbyte *address = (jbyte *) (*env)->GetDirectBufferAddress(env, buffer);
+    if (fd < 0 || address == NULL) return -1;
+    ssize_t ret;
+    do {
+        ret = read(fd, address + position, (size_t) length);
+    } while (ret < 0 && errno == EINTR);
+    markReadTime(env, thiz);
+    if (ret < 0) {
+        if (errno == EAGAIN) return 0;
+        LOGE("read(fd = %d) 失败, errno = %d", fd, errno);
+        return -1;
+    }
+    return (jint) ret;
+}
+
+/**
+ * 把DirectByteBuffer中的数据直接写入串口，无中间拷贝，写完为止
+ * @param env
+ * @param thiz
+ * @param buffer DirectByteBuffer
+ * @param position 起始位置
+ * @param length 写入长度
+ * @return 写入长度；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_writeDirect(JNIEnv *env, jobject thiz, jobject buffer, jint position, jint length) {
+    int fd = getDescriptor(env, thiz);
+    jbyte *address = (jbyte *) (*env)->GetDirectBufferAddress(env, buffer);
+    if (fd < 0 || address == NULL) return -1;
+    jint written = 0;
+    while (written < length) {
+        ssize_t ret = write(fd, address + position + written, (size_t) (length - written));
+        if (ret < 0) {
+            if (errno == EINTR) continue;
+            LOGE("write(fd = %d) 失败, errno = %d", fd, errno);
+            return -1;
+        }
+        written += (jint) ret;
+    }
+    return written;
+}
+
+/**
+ * 聚合写入，多段数据拷贝到本地缓存后一次写入串口，写完为止
+ * 串口是阻塞的，低波特率时写入可能等待很久，因此先拷贝，写入期间不持有Java数组，不影响GC和其他线程
+ * @param env
+ * @param thiz
+ * @param buffers 数据数组，可以是同一个数组的不同片段
+ * @param offsets 各段起始位置
+ * @param lengths 各段长度
+ * @param count 段数，最多WRITEV_MAX_SEGMENTS
+ * @return 写入总长度；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_writev(JNIEnv *env, jobject thiz, jobjectArray buffers, jintArray offsets, jintArray lengths, jint count) {
+    int fd = getDescriptor(env, thiz);
+    if (fd < 0) return -1;
+    if (count <= 0) return 0;
+    if (count > WRITEV_MAX_SEGMENTS) {
+        LOGE("writev 段数%d超过%d", count, WRITEV_MAX_SEGMENTS);
+        return -1;
+    }
+    jint offs[WRITEV_MAX_SEGMENTS];
+    jint lens[WRITEV_MAX_SEGMENTS];
+    (*env)->GetIntArrayRegion(env, offsets, 0, count, offs);
+    (*env)->GetIntArrayRegion(env, lengths, 0, count, lens);
+    if ((*env)->ExceptionCheck(env)) return -1;
+    int i;
+    jint total = 0;
+    /* 先检查越界，算出总长度 */
+    for (i = 0; i < count; i++) {
+        jbyteArray array = (jbyteArray) (*env)->GetObjectArrayElement(env, buffers, i);
+        jsize size = array == NULL ? 0 : (*env)->GetArrayLength(env, array);
+        if (array != NULL) (*env)->DeleteLocalRef(env, array);
+        if (array == NULL || offs[i] < 0 || lens[i] < 0 || offs[i] > size - lens[i] || lens[i] > INT32_MAX - total) {
+            LOGE("writev 第%d段越界", i);
+            return -1;
+        }
+        total += lens[i];
+    }
+    /* 短帧用栈上缓存，超出时临时申请 */
+    jbyte stackBuffer[WRITE_BUFFER_SIZE];
+    jbyte *buffer = total <= WRITE_BUFFER_SIZE ? stackBuffer : (jbyte *) malloc((size_t) total);
+    if (buffer == NULL) {
+        LOGE("writev 申请%d字节失败", total);
+        return -1;
+    }
+    jint position = 0;
+    for (i = 0; i < count; i++) {
+        jbyteArray array = (jbyteArray) (*env)->GetObjectArrayElement(env, buffers, i);
+        (*env)->GetByteArrayRegion(env, array, offs[i], lens[i], buffer + position);
+        (*env)->DeleteLocalRef(env, array);
+        position += lens[i];
+    }
+    jint result = total;
+    jint written = 0;
+    while (written < total) {
+        ssize_t ret = write(fd, buffer + written, (size_t) (total - written));
+        if (ret < 0) {
+            if (errno == EINTR) continue;
+            /* 先保存errno，输出日志可能改写 */
+            int error = errno;
+            LOGE("writev(fd = %d) 失败, errno = %d", fd, error);
+            result = -1;
+            break;
+        }
+        written += (jint) ret;
+    }
+    if (buffer != stackBuffer) free(buffer);
+    return result;
+}
+
+/* Epoll事件标志，与com.yujing.serialport.Epoll中的常量一致 */
+#define EPOLL_READABLE 1
+#define EPOLL_ERROR 2
+
+/**
+ * 创建epoll
+ * @return epoll fd；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_create(JNIEnv *env, jclass clazz) {
+    /* epoll_create1在API 21才有，用epoll_create再设置FD_CLOEXEC */
+    int epfd = epoll_create(16);
+    if (epfd < 0) {
+        LOGE("epoll_create 失败, errno = %d", errno);
+        return -1;
+    }
+    fcntl(epfd, F_SETFD, FD_CLOEXEC);
+    return epfd;
+}
+
+/**
+ * 创建唤醒用的eventfd，并加入epoll
+ * @param epfd epoll fd
+ * @param id 唤醒事件的id
+ * @return eventfd；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_createWakeup(JNIEnv *env, jclass clazz, jint epfd, jint id) {
+    int fd = eventfd(0, 0);
+    if (fd < 0) {
+        LOGE("eventfd 失败, errno = %d", errno);
+        return -1;
+    }
+    fcntl(fd, F_SETFD, FD_CLOEXEC);
+    fcntl(fd, F_SETFL, fcntl(fd, F_GETFL) | O_NONBLOCK);
+    struct epoll_event event;
+    memset(&event, 0, sizeof(event));
+    event.events = EPOLLIN;
+    event.data.u32 = (uint32_t) id;
+    if (epoll_ctl(epfd, EPOLL_CTL_ADD, fd, &event) < 0) {
+        LOGE("epoll_ctl(ADD eventfd = %d) 失败, errno = %d", fd, errno);
+        close(fd);
+        return -1;
+    }
+    return fd;
+}
+
+/**
+ * 唤醒阻塞在epoll_wait上的线程
+ * @param fd eventfd
+ */
+JNIEXPORT void JNICALL Java_com_yujing_serialport_Epoll_wakeup(JNIEnv *env, jclass clazz, jint fd) {
+    uint64_t value = 1;
+    ssize_t ret;
+    do {
+        ret = write(fd, &value, sizeof(value));
+    } while (ret < 0 && errno == EINTR);
+}
+
+/**
+ * 清除唤醒标志
+ * @param fd eventfd
+ */
+JNIEXPORT void JNICALL Java_com_yujing_serialport_Epoll_clearWakeup(JNIEnv *env, jclass clazz, jint fd) {
+    uint64_t value;
+    ssize_t ret;
+    do {
+        ret = read(fd, &value, sizeof(value));
+    } while (ret < 0 && errno == EINTR);
+}
+
+/**
+ * 把串口加入epoll，监听可读
+ * @param epfd epoll fd
+ * @param serialPort 串口
+ * @param id 事件id，epoll_wait时返回
+ * @return 0：成功；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_add(JNIEnv *env, jclass clazz, jint epfd, jobject serialPort, jint id) {
+    int fd = getDescriptor(env, serialPort);
+    if (fd < 0) return -1;
+    struct epoll_event event;
+    memset(&event, 0, sizeof(event));
+    event.events = EPOLLIN;
+    event.data.u32 = (uint32_t) id;
+    if (epoll_ctl(epfd, EPOLL_CTL_ADD, fd, &event) < 0) {
+        LOGE("epoll_ctl(ADD fd = %d) 失败, errno = %d", fd, errno);
+        return -1;
+    }
+    return 0;
+}
+
+/**
+ * 把串口移出epoll，串口已关闭时内核已自动移除
+ * @param epfd epoll fd
+ * @param serialPort 串口
+ * @return 0：成功；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_remove(JNIEnv *env, jclass clazz, jint epfd, jobject serialPort) {
+    int fd = getDescriptor(env, serialPort);
+    if (fd < 0) return -1;
+    /* 2.6.9之前的内核要求event不能为NULL */
+    struct epoll_event event;
+    memset(&event, 0, sizeof(event));
+    if (epoll_ctl(epfd, EPOLL_CTL_DEL, fd, &event) < 0) return -1;
+    return 0;
+}
+
+/**
+ * 等待事件，结果按[id, 标志]成对写入events
+ * @param epfd epoll fd
+ * @param events 结果数组，长度为最大事件数的2倍
+ * @param timeout 超时毫秒；小于0一直等
+ * @return 事件个数；0：超时或被信号打断；小于0：出错
+ */
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_wait(JNIEnv *env, jclass clazz, jint epfd, jintArray events, jint timeout) {
+    struct epoll_event ready[32];
+    int max = (*env)->GetArrayLength(env, events) / 2;
+    if (max > 32) max = 32;
+    if (max <= 0) return -1;
+    int count = epoll_wait(epfd, ready, max, timeout);
+    if (count < 0) {
+        if (errno == EINTR) return 0;
+        LOGE("epoll_wait(epfd = %d) 失败, errno = %d", epfd, errno);
+        return -1;
+    }
+    jint result[64];
+    for (int i = 0; i < count; i++) {
+        result[i * 2] = (jint) ready[i].data.u32;
+        /* 出错时即使带有EPOLLIN也不再可读 */
+        result[i * 2 + 1] = (ready[i].events & (EPOLLERR | EPOLLHUP)) ? EPOLL_ERROR : EPOLL_READABLE;
+    }
+    if (count > 0) (*env)->SetIntArrayRegion(env, events, 0, count * 2, result);
+    return count;
+}
+
+/**
+ * 关闭epoll fd或eventfd
+ * @param fd 文件描述符
+ */
+JNIEXPORT void JNICALL Java_com_yujing_serialport_Epoll_close(JNIEnv *env, jclass clazz, jint fd) {
+    if (fd >= 0) close(fd);
+}
@@ -9,8 +9,40 @@
 extern "C" {
 #endif
 
-JNIEXPORT jobject JNICALL Java_com_yujing_serialport_SerialPort_open(JNIEnv *, jobject, jstring, jint, jint, jint, jint, jint);
+JNIEXPORT jobject JNICALL Java_com_yujing_serialport_SerialPort_open(JNIEnv *, jobject, jstring, jint, jint, jint, jint, jint, jint, jint);
 JNIEXPORT void JNICALL Java_com_yujing_serialport_SerialPort_close(JNIEnv *, jobject);
+JNIEXPORT void JNICALL Java_com_yujing_serialport_SerialPort_wakeup(JNIEnv *, jobject);
+JNIEXPORT void JNICALL Java_com_yujing_serialport_SerialPort_clearWakeup(JNIEnv *, jobject);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_waitReadable(JNIEnv *, jobject, jint);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_waitReadableNanos(JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_available(JNIEnv *, jobject);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_readTimed(JNIEnv *, jobject, jbyteArray, jint, jint);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_readDirect(JNIEnv *, jobject, jobject, jint, jint);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_writeDirect(JNIEnv *, jobject, jobject, jint, jint);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_SerialPort_writev(JNIEnv *, jobject, jobjectArray, jintArray, jintArray, jint);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif
+/* Header for class com_yujing_serialport_Epoll */
+
+#ifndef _Included_com_yujing_serialport_Epoll
+#define _Included_com_yujing_serialport_Epoll
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_create(JNIEnv *, jclass);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_createWakeup(JNIEnv *, jclass, jint, jint);
+JNIEXPORT void JNICALL Java_com_yujing_serialport_Epoll_wakeup(JNIEnv *, jclass, jint);
+JNIEXPORT void JNICALL Java_com_yujing_serialport_Epoll_clearWakeup(JNIEnv *, jclass, jint);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_add(JNIEnv *, jclass, jint, jobject, jint);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_remove(JNIEnv *, jclass, jint, jobject);
+JNIEXPORT jint JNICALL Java_com_yujing_serialport_Epoll_wait(JNIEnv *, jclass, jint, jintArray, jint);
+JNIEXPORT void JNICALL Java_com_yujing_serialport_Epoll_close(JNIEnv *, jclass, jint);
 
 #ifdef __cplusplus
 }
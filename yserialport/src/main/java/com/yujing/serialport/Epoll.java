@@ -0,0 +1,108 @@
+package com.yujing.serialport;
+
+import android.util.Log;
+
+/**
+ * JNI epoll，一个线程同时等待多个串口，用于{@link com.yujing.yserialport.YSerialPortReactor}
+ * 空闲的串口不会唤醒线程；其他线程注册、注销时通过eventfd唤醒
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+int epfd = Epoll.create();
+int wakeFd = Epoll.createWakeup(epfd, -1);
+Epoll.add(epfd, serialPort, 0);
+int[] events = new int[32];
+int count = Epoll.wait(epfd, events, -1);
+for (int i = 0; i < count; i++) {
+    int id = events[i * 2];
+    int flags = events[i * 2 + 1];//Epoll.READABLE 或 Epoll.ERROR
+}
+Epoll.close(wakeFd);
+Epoll.close(epfd);
+ */
+public final class Epoll {
+    private static final String TAG = "Epoll";
+    //可读
+    public static final int READABLE = 1;
+    //出错（串口已关闭、设备断开等），不再可读
+    public static final int ERROR = 2;
+
+    static {
+        try {
+            System.loadLibrary("YSerialPort");
+        } catch (UnsatisfiedLinkError e) {
+            Log.e(TAG, "加载JNI库失败，请检查环境配置", e);
+        }
+    }
+
+    private Epoll() {
+    }
+
+    /**
+     * JNI 创建epoll
+     *
+     * @return epoll fd；小于0：出错
+     */
+    public static native int create();
+
+    /**
+     * JNI 创建唤醒用的eventfd，并加入epoll
+     *
+     * @param epfd epoll fd
+     * @param id   唤醒事件的id
+     * @return eventfd；小于0：出错
+     */
+    public static native int createWakeup(int epfd, int id);
+
+    /**
+     * JNI 唤醒阻塞在wait()上的线程
+     *
+     * @param fd eventfd
+     */
+    public static native void wakeup(int fd);
+
+    /**
+     * JNI 清除唤醒标志，收到唤醒事件后调用
+     *
+     * @param fd eventfd
+     */
+    public static native void clearWakeup(int fd);
+
+    /**
+     * JNI 把串口加入epoll，监听可读
+     *
+     * @param epfd       epoll fd
+     * @param serialPort 串口
+     * @param id         事件id，wait()时返回
+     * @return 0：成功；小于0：出错
+     */
+    public static native int add(int epfd, SerialPort serialPort, int id);
+
+    /**
+     * JNI 把串口移出epoll，串口已关闭时内核已自动移除
+     *
+     * @param epfd       epoll fd
+     * @param serialPort 串口
+     * @return 0：成功；小于0：出错
+     */
+    public static native int remove(int epfd, SerialPort serialPort);
+
+    /**
+     * JNI 等待事件，结果按[id, 标志]成对写入events
+     *
+     * @param epfd    epoll fd
+     * @param events  结果数组，长度为最大事件数的2倍，最多32个事件
+     * @param timeout 超时毫秒；小于0一直等
+     * @return 事件个数；0：超时或被信号打断；小于0：出错
+     */
+    public static native int wait(int epfd, int[] events, int timeout);
+
+    /**
+     * JNI 关闭epoll fd或eventfd
+     *
+     * @param fd 文件描述符
+     */
+    public static native void close(int fd);
+}
@@ -25,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * 串口工具
@@ -39,11 +40,21 @@ SerialPort serialPort = SerialPort.newBuilder(new File("/dev/ttyS4"), 9600).buil
 serialPort.getInputStream();
 //获取输出流
 serialPort.getOutputStream();
+//内核组包，收满255字节或字节间隔超过100毫秒，一次read()返回一包
+SerialPort serialPort = SerialPort.newBuilder(new File("/dev/ttyS4"), 9600).vmin(255).vtime(1).build();
+//等待数据，最多等100毫秒
+serialPort.waitReadable(100);
+//DirectByteBuffer收发，无中间拷贝
+ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+serialPort.read(buffer);
+serialPort.write(buffer);
 //关闭
 serialPort.tryClose();
  */
 public final class SerialPort {
     private static final String TAG = "SerialPort";
+    //writev()单次最多段数
+    public static final int WRITEV_MAX_SEGMENTS = 64;
     private static String suPath = "/system/bin/su";
     private File device; //串口设备文件
     private int baudRate; //波特率
@@ -51,16 +62,83 @@ public final class SerialPort {
     private int parity; //奇偶校验；0:无校验位(NONE，默认)；1:奇校验位(ODD);2:偶校验位(EVEN)
     private int stopBits; //停止位；默认1；1:1位停止位；2:2位停止位
     private int flags;//默认0
+    private int vmin; //非规范模式下read()至少返回的字节数，0~255；-1保持默认
+    private int vtime; //非规范模式下read()字节间超时，单位0.1秒，0~255；-1保持默认
     private FileDescriptor mFd;
+    private int mWakeFd = -1; //唤醒等待线程用的eventfd，native打开时创建，关闭时关闭
+    private long mReadTime; //最近一次readTimed()返回时的单调时钟，纳秒，与System.nanoTime()同源
     private FileInputStream mFileInputStream;
     private FileOutputStream mFileOutputStream;
 
     //JNI 打开串口
-    private native FileDescriptor open(String absolutePath, int baudRate, int dataBits, int parity, int stopBits, int flags);
+    private native FileDescriptor open(String absolutePath, int baudRate, int dataBits, int parity, int stopBits, int flags, int vmin, int vtime);
 
-    //JNI 关闭串口
+    //JNI 关闭串口，先唤醒等待中的线程
     public native void close();
 
+    /**
+     * JNI 唤醒阻塞在{@link #waitReadable(int)}上的线程，之后的等待都立即返回-1，直到{@link #clearWakeup()}
+     * 停止读取线程时调用，不用等到等待超时
+     */
+    public native void wakeup();
+
+    /**
+     * JNI 清除唤醒标志，读取线程退出后、重新开始读取前调用
+     */
+    public native void clearWakeup();
+
+    /**
+     * JNI 等待串口可读，阻塞在poll上，直到有数据、超时或出错，等待期间不占用CPU
+     *
+     * @param timeout 超时毫秒；小于0一直等
+     * @return 大于0：有数据可读；0：超时；小于0：出错（串口已关闭、设备断开等）或被{@link #wakeup()}唤醒
+     */
+    public native int waitReadable(int timeout);
+
+    /**
+     * JNI 等待串口可读，纳秒精度，用于亚毫秒级的字节间隔判断
+     *
+     * @param timeout 超时纳秒；小于0一直等
+     * @return 大于0：有数据可读；0：超时；小于0：出错（串口已关闭、设备断开等）或被{@link #wakeup()}唤醒
+     */
+    public native int waitReadableNanos(long timeout);
+
+    /**
+     * JNI 获取串口接收缓冲区中可读取的字节数（ioctl FIONREAD）
+     *
+     * @return 可读取字节数；小于0：出错
+     */
+    public native int available();
+
+    /**
+     * JNI 读取串口数据，read()返回后立即记录单调时钟，通过{@link #getReadTime()}获取
+     * 请在{@link #waitReadable(int)}返回大于0后调用，否则可能阻塞
+     *
+     * @param buffer 目标数组
+     * @param offset 起始位置
+     * @param length 最多读取长度，单次最多4096
+     * @return 读取长度；0：无数据；小于0：出错
+     */
+    public native int readTimed(byte[] buffer, int offset, int length);
+
+    //JNI 读取到DirectByteBuffer
+    private native int readDirect(ByteBuffer buffer, int position, int length);
+
+    //JNI 从DirectByteBuffer写入
+    private native int writeDirect(ByteBuffer buffer, int position, int length);
+
+    /**
+     * JNI 聚合写入，多段数据在native拷贝到一块缓存后一次写入串口，写完为止
+     * 写入期间不持有Java数组，低波特率下阻塞也不影响GC
+     *
+     * @param buffers 数据数组，可以是同一个数组的不同片段
+     * @param offsets 各段起始位置
+     * @param lengths 各段长度
+     * @param count   段数，最多{@link #WRITEV_MAX_SEGMENTS}
+     * @return 写入总长度；小于0：出错
+     */
+    public native int writev(byte[][] buffers, int[] offsets, int[] lengths, int count);
+
     static {
         try {
             System.loadLibrary("YSerialPort");
@@ -92,12 +170,38 @@ public final class SerialPort {
      * @throws IOException
      */
     public SerialPort(File device, int baudRate, int dataBits, int parity, int stopBits, int flags) throws SecurityException, IOException {
+        this(device, baudRate, dataBits, parity, stopBits, flags, -1, -1);
+    }
+
+    /**
+     * 串口
+     * <p>
+     * vmin、vtime即termios的c_cc[VMIN]、c_cc[VTIME]，由tty驱动在内核中组包：
+     * vmin&gt;0，vtime&gt;0：收到第一个字节后开始计时，收满vmin字节或字节间隔超过vtime时read()返回，一次read()即一包数据；
+     * vmin&gt;0，vtime=0：收满vmin字节read()才返回；
+     * vmin=0，vtime&gt;0：有数据立即返回，vtime时间内无数据返回0。
+     * flags包含O_NONBLOCK时，vmin、vtime无效。
+     *
+     * @param device   串口设备文件
+     * @param baudRate 波特率
+     * @param dataBits 数据位；默认8,可选值为5~8
+     * @param parity   奇偶校验；0:无校验位(NONE，默认)；1:奇校验位(ODD);2:偶校验位(EVEN)
+     * @param stopBits 停止位；默认1；1:1位停止位；2:2位停止位
+     * @param flags    默认0
+     * @param vmin     read()至少返回的字节数，0~255；-1保持默认(1)
+     * @param vtime    read()字节间超时，单位0.1秒，0~255；-1保持默认(0)
+     * @throws SecurityException
+     * @throws IOException
+     */
+    public SerialPort(File device, int baudRate, int dataBits, int parity, int stopBits, int flags, int vmin, int vtime) throws SecurityException, IOException {
         this.device = device;
         this.baudRate = baudRate;
         this.dataBits = dataBits;
         this.parity = parity;
         this.stopBits = stopBits;
         this.flags = flags;
+        this.vmin = vmin;
+        this.vtime = vtime;
 
         /* 检查访问权限 */
         if (!device.canRead() || !device.canWrite()) {
@@ -116,7 +220,7 @@ public final class SerialPort {
             }
         }
 
-        mFd = open(device.getAbsolutePath(), baudRate, dataBits, parity, stopBits, flags);
+        mFd = open(device.getAbsolutePath(), baudRate, dataBits, parity, stopBits, flags, vmin, vtime);
         if (mFd == null) {
             Log.e(TAG, "打开串口失败");
             throw new IOException();
@@ -200,6 +304,68 @@ public final class SerialPort {
         return flags;
     }
 
+    /**
+     * read()至少返回的字节数；-1表示保持默认
+     */
+    public int getVmin() {
+        return vmin;
+    }
+
+    /**
+     * read()字节间超时，单位0.1秒；-1表示保持默认
+     */
+    public int getVtime() {
+        return vtime;
+    }
+
+    /**
+     * 读取串口数据，由native直接写入DirectByteBuffer的position处，无中间拷贝，读取后position后移
+     * 同时记录时间戳，通过{@link #getReadTime()}获取。请在{@link #waitReadable(int)}返回大于0后调用，否则可能阻塞
+     *
+     * @param buffer 必须是DirectByteBuffer，最多读取remaining()字节
+     * @return 读取长度；0：无数据；小于0：出错
+     */
+    public int read(ByteBuffer buffer) {
+        if (!buffer.isDirect()) throw new IllegalArgumentException("必须使用ByteBuffer.allocateDirect()创建");
+        int position = buffer.position();
+        int size = readDirect(buffer, position, buffer.remaining());
+        if (size > 0) buffer.position(position + size);
+        return size;
+    }
+
+    /**
+     * 把DirectByteBuffer中position到limit的数据直接写入串口，无中间拷贝，写完后position等于limit
+     *
+     * @param buffer 必须是DirectByteBuffer
+     * @return 写入长度
+     * @throws IOException 写入失败
+     */
+    public int write(ByteBuffer buffer) throws IOException {
+        if (!buffer.isDirect()) throw new IllegalArgumentException("必须使用ByteBuffer.allocateDirect()创建");
+        int position = buffer.position();
+        int size = writeDirect(buffer, position, buffer.remaining());
+        if (size < 0) throw new IOException("写入串口失败");
+        buffer.position(position + size);
+        return size;
+    }
+
+    /**
+     * 最近一次{@link #readTimed(byte[], int, int)}返回时的单调时钟，纳秒，与System.nanoTime()同源
+     */
+    public long getReadTime() {
+        return mReadTime;
+    }
+
+    /**
+     * 传输一个字符的时间，纳秒。一个字符=起始位1+数据位+校验位(有则1)+停止位
+     * 例：115200 8N1，一个字符10位，约86.8微秒
+     */
+    public long getCharTime() {
+        if (baudRate <= 0) return 0;
+        int bits = 1 + dataBits + (parity == 0 ? 0 : 1) + stopBits;
+        return bits * 1000000000L / baudRate;
+    }
+
     /**
      * 关闭流和串口，已经try-catch
      */
@@ -236,6 +402,8 @@ public final class SerialPort {
         private int parity = 0; //奇偶校验；0:无校验位(NONE，默认)；1:奇校验位(ODD);2:偶校验位(EVEN)
         private int stopBits = 1;  //停止位；默认1；1:1位停止位；2:2位停止位
         private int flags = 0; //默认0
+        private int vmin = -1; //read()至少返回的字节数，-1保持默认
+        private int vtime = -1; //read()字节间超时，单位0.1秒，-1保持默认
 
         private Builder(File device, int baudRate) {
             this.device = device;
@@ -290,6 +458,28 @@ public final class SerialPort {
             return this;
         }
 
+        /**
+         * 内核组包，read()至少返回的字节数，即c_cc[VMIN]
+         *
+         * @param vmin 0~255，默认保持cfmakeraw的值(1)
+         * @return
+         */
+        public Builder vmin(int vmin) {
+            this.vmin = vmin;
+            return this;
+        }
+
+        /**
+         * 内核组包，read()字节间超时，即c_cc[VTIME]
+         *
+         * @param vtime 单位0.1秒，0~255，默认保持cfmakeraw的值(0)
+         * @return
+         */
+        public Builder vtime(int vtime) {
+            this.vtime = vtime;
+            return this;
+        }
+
         /**
          * 打开并返回串口
          *
@@ -298,7 +488,7 @@ public final class SerialPort {
          * @throws IOException
          */
         public SerialPort build() throws SecurityException, IOException {
-            return new SerialPort(device, baudRate, dataBits, parity, stopBits, flags);
+            return new SerialPort(device, baudRate, dataBits, parity, stopBits, flags, vmin, vtime);
         }
     }
 }
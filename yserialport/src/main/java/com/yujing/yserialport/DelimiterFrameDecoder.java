@@ -0,0 +1,55 @@
+package com.yujing.yserialport;
+
+/**
+ * 分隔符帧解码器，以分隔符结尾为一帧，帧包含分隔符
+ * 超过maxFrameLength仍未找到分隔符时丢弃已收数据，避免缓存无限增长
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//以回车换行结尾，最长1024字节
+ySerialPort.setFrameDecoder(new DelimiterFrameDecoder(new byte[]{0x0D, 0x0A}, 1024));
+ */
+public class DelimiterFrameDecoder implements FrameDecoder {
+    private final byte[] delimiter;
+    private final int maxFrameLength;
+
+    /**
+     * @param delimiter      分隔符
+     * @param maxFrameLength 最大帧长度，包含分隔符
+     */
+    public DelimiterFrameDecoder(byte[] delimiter, int maxFrameLength) {
+        if (delimiter == null || delimiter.length == 0) throw new IllegalArgumentException("分隔符不能为空");
+        if (maxFrameLength < delimiter.length) throw new IllegalArgumentException("最大帧长度不能小于分隔符长度：" + maxFrameLength);
+        this.delimiter = delimiter.clone();
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    public int decode(byte[] array, int offset, int length) {
+        int limit = Math.min(length, maxFrameLength);
+        int last = limit - delimiter.length;
+        for (int i = 0; i <= last; i++) {
+            if (matches(array, offset + i)) return i + delimiter.length;
+        }
+        if (length < maxFrameLength) return 0;
+        //超长，保留可能是分隔符开头的尾部，丢弃前面的数据
+        return -(maxFrameLength - delimiter.length + 1);
+    }
+
+    private boolean matches(byte[] array, int index) {
+        for (int i = 0; i < delimiter.length; i++) {
+            if (array[index + i] != delimiter[i]) return false;
+        }
+        return true;
+    }
+
+    public byte[] getDelimiter() {
+        return delimiter.clone();
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+}
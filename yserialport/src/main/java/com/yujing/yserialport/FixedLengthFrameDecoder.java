@@ -0,0 +1,31 @@
+package com.yujing.yserialport;
+
+/**
+ * 定长帧解码器，每frameLength字节一帧
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+ySerialPort.setFrameDecoder(new FixedLengthFrameDecoder(8));
+ */
+public class FixedLengthFrameDecoder implements FrameDecoder {
+    private final int frameLength;
+
+    /**
+     * @param frameLength 帧长度
+     */
+    public FixedLengthFrameDecoder(int frameLength) {
+        if (frameLength <= 0) throw new IllegalArgumentException("帧长度必须大于0：" + frameLength);
+        this.frameLength = frameLength;
+    }
+
+    @Override
+    public int decode(byte[] array, int offset, int length) {
+        return length >= frameLength ? frameLength : 0;
+    }
+
+    public int getFrameLength() {
+        return frameLength;
+    }
+}
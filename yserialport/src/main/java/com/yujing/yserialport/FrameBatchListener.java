@@ -0,0 +1,17 @@
+package com.yujing.yserialport;
+
+import java.util.List;
+
+/**
+ * 批量帧回调，在主线程每个显示帧（或每个间隔）回调一次
+ *
+ * @author yujing 2026年10月18日
+ */
+public interface FrameBatchListener {
+    /**
+     * 本批收到的帧，按接收顺序，列表回调结束后复用，不要保存
+     *
+     * @param frames 帧
+     */
+    void value(List<YFrame> frames);
+}
@@ -0,0 +1,33 @@
+package com.yujing.yserialport;
+
+/**
+ * 帧解码器，按协议结构从字节流中切出完整帧，用于{@link YReadInputStream#setFrameDecoder(FrameDecoder)}
+ * 读取到的数据追加到累积缓存，再循环调用decode()，解出的帧从缓存头部消费，剩余半包留到下次数据到达
+ * 解码器只判断帧边界，不需要自己保存半包，数据无论怎样分段到达，每帧都只回调一次
+ * 内置：{@link LengthFieldFrameDecoder}、{@link DelimiterFrameDecoder}、{@link FixedLengthFrameDecoder}、{@link HeaderChecksumFrameDecoder}
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//长度域在第2字节，1字节长，长度值为后续数据长度
+ySerialPort.setFrameDecoder(new LengthFieldFrameDecoder(1, 1, 0, 256));
+//以0D 0A结尾
+ySerialPort.setFrameDecoder(new DelimiterFrameDecoder(new byte[]{0x0D, 0x0A}, 1024));
+//自定义
+ySerialPort.setFrameDecoder((array, offset, length) -> {
+    if (array[offset] != 0x5A) return -1;//丢弃1字节，重新同步
+    return length >= 8 ? 8 : 0;
+});
+ */
+public interface FrameDecoder {
+    /**
+     * 从array[offset, offset+length)头部识别一帧
+     *
+     * @param array  累积缓存
+     * @param offset 数据起始位置
+     * @param length 数据长度，大于0
+     * @return 大于0：帧长度，帧从offset开始，不能超过length；0：数据不足，等待更多数据；小于0：丢弃开头-n字节后重新识别
+     */
+    int decode(byte[] array, int offset, int length);
+}
@@ -0,0 +1,123 @@
+package com.yujing.yserialport;
+
+/**
+ * 帧过滤条件，用于{@link YSerialPort#addFrameListener(FrameFilter, FrameListener)}，只把需要的帧回调给监听
+ * 内置：帧头前缀、长度范围、类型字节，可用all()组合；前缀条件在监听较多时由字节前缀树统一匹配，每帧只扫描一次帧头
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//帧头5A 02
+FrameFilter filter = FrameFilter.prefix((byte) 0x5A, (byte) 0x02);
+//长度14~32
+FrameFilter filter = FrameFilter.length(14, 32);
+//第6字节为0x01或0x02
+FrameFilter filter = FrameFilter.type(6, (byte) 0x01, (byte) 0x02);
+//组合
+ySerialPort.addFrameListener(FrameFilter.all(FrameFilter.prefix((byte) 0x5A), FrameFilter.length(14, 14)), frame -> {});
+ */
+public interface FrameFilter {
+    /**
+     * 是否回调该帧
+     *
+     * @param frame 帧
+     * @return 是否接收
+     */
+    boolean accept(YFrame frame);
+
+    /**
+     * 帧以prefix开头
+     *
+     * @param prefix 帧头
+     * @return FrameFilter
+     */
+    static FrameFilter prefix(byte... prefix) {
+        return new Prefix(prefix);
+    }
+
+    /**
+     * 帧长度在[min, max]之间
+     *
+     * @param min 最小长度
+     * @param max 最大长度
+     * @return FrameFilter
+     */
+    static FrameFilter length(final int min, final int max) {
+        if (min < 0 || max < min) throw new IllegalArgumentException("长度范围错误：" + min + "~" + max);
+        return frame -> frame.getLength() >= min && frame.getLength() <= max;
+    }
+
+    /**
+     * 帧offset处的字节是types之一，如功能码、命令字
+     *
+     * @param offset 位置
+     * @param types  类型
+     * @return FrameFilter
+     */
+    static FrameFilter type(final int offset, final byte... types) {
+        if (offset < 0) throw new IllegalArgumentException("位置错误：" + offset);
+        final boolean[] table = new boolean[256];
+        for (byte type : types) table[type & 0xFF] = true;
+        return frame -> frame.getLength() > offset && table[frame.get(offset) & 0xFF];
+    }
+
+    /**
+     * 全部满足
+     *
+     * @param filters 过滤条件
+     * @return FrameFilter
+     */
+    static FrameFilter all(FrameFilter... filters) {
+        return new All(filters);
+    }
+
+    /**
+     * 帧头前缀，注册时取出放入前缀树
+     */
+    final class Prefix implements FrameFilter {
+        private final byte[] prefix;
+
+        Prefix(byte[] prefix) {
+            this.prefix = prefix.clone();
+        }
+
+        public byte[] getPrefix() {
+            return prefix.clone();
+        }
+
+        @Override
+        public boolean accept(YFrame frame) {
+            if (frame.getLength() < prefix.length) return false;
+            byte[] bytes = frame.getBytes();
+            int offset = frame.getOffset();
+            for (int i = 0; i < prefix.length; i++) {
+                if (bytes[offset + i] != prefix[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 组合条件，注册时其中的前缀条件放入前缀树，其余逐个判断
+     */
+    final class All implements FrameFilter {
+        private final FrameFilter[] filters;
+
+        All(FrameFilter[] filters) {
+            this.filters = filters.clone();
+        }
+
+        public FrameFilter[] getFilters() {
+            return filters.clone();
+        }
+
+        @Override
+        public boolean accept(YFrame frame) {
+            for (FrameFilter filter : filters) {
+                if (!filter.accept(frame)) return false;
+            }
+            return true;
+        }
+    }
+}
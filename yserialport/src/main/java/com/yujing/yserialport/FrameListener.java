@@ -0,0 +1,16 @@
+package com.yujing.yserialport;
+
+/**
+ * 帧回调，回调线程由ThreadMode决定；只在需要时调用frame.getHexString()，不需要十六进制时没有转换开销
+ * DataListener也通过它回调
+ *
+ * @author yujing 2026年10月18日
+ */
+public interface FrameListener {
+    /**
+     * 收到一帧
+     *
+     * @param frame 帧
+     */
+    void value(YFrame frame);
+}
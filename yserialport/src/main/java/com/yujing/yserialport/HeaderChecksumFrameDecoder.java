@@ -0,0 +1,94 @@
+package com.yujing.yserialport;
+
+import java.util.zip.Checksum;
+
+/**
+ * 帧头+校验码帧解码器，帧以固定帧头开始，定长，最后checksumLength字节为前面全部数据的校验码
+ * 帧头前的杂乱数据直接丢弃；校验失败时丢弃1字节，从下一个帧头重新同步
+ * Checksum有状态，一个解码器只能给一个串口使用
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//站台门命令：5A 02 7E ... 共14字节，最后2字节为CRC-16/MODBUS，高字节在前
+ySerialPort.setFrameDecoder(new HeaderChecksumFrameDecoder(new byte[]{0x5A, 0x02, 0x7E}, 14, YChecksum.newCrc16Modbus(), 2));
+//CRC32，低字节在前
+ySerialPort.setFrameDecoder(new HeaderChecksumFrameDecoder(new byte[]{(byte) 0xAA}, 64, new CRC32(), 4, false));
+ */
+public class HeaderChecksumFrameDecoder implements FrameDecoder {
+    private final byte[] header;
+    private final int frameLength;
+    private final Checksum checksum;
+    private final int checksumLength;
+    private final boolean bigEndian;
+
+    /**
+     * 校验码高字节在前
+     *
+     * @param header         帧头
+     * @param frameLength    帧长度，包含帧头和校验码
+     * @param checksum       校验算法
+     * @param checksumLength 校验码字节数，1~8
+     */
+    public HeaderChecksumFrameDecoder(byte[] header, int frameLength, Checksum checksum, int checksumLength) {
+        this(header, frameLength, checksum, checksumLength, true);
+    }
+
+    /**
+     * @param header         帧头
+     * @param frameLength    帧长度，包含帧头和校验码
+     * @param checksum       校验算法
+     * @param checksumLength 校验码字节数，1~8
+     * @param bigEndian      校验码是否高字节在前
+     */
+    public HeaderChecksumFrameDecoder(byte[] header, int frameLength, Checksum checksum, int checksumLength, boolean bigEndian) {
+        if (header == null || header.length == 0) throw new IllegalArgumentException("帧头不能为空");
+        if (checksumLength < 1 || checksumLength > 8) throw new IllegalArgumentException("校验码字节数只能为1~8：" + checksumLength);
+        if (frameLength < header.length + checksumLength) throw new IllegalArgumentException("帧长度不能小于帧头加校验码：" + frameLength);
+        this.header = header.clone();
+        this.frameLength = frameLength;
+        this.checksum = checksum;
+        this.checksumLength = checksumLength;
+        this.bigEndian = bigEndian;
+    }
+
+    @Override
+    public int decode(byte[] array, int offset, int length) {
+        //找帧头，末尾不完整的帧头也算，等待更多数据
+        int start = 0;
+        while (start < length && !headerMatches(array, offset + start, length - start)) start++;
+        if (start > 0) return -start;
+        if (length < frameLength) return 0;
+        return YChecksum.verify(checksum, array, offset, frameLength, checksumLength, bigEndian) ? frameLength : -1;
+    }
+
+    //从index开始最多available字节是否与帧头匹配
+    private boolean headerMatches(byte[] array, int index, int available) {
+        int count = Math.min(available, header.length);
+        for (int i = 0; i < count; i++) {
+            if (array[index + i] != header[i]) return false;
+        }
+        return true;
+    }
+
+    public byte[] getHeader() {
+        return header.clone();
+    }
+
+    public int getFrameLength() {
+        return frameLength;
+    }
+
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    public int getChecksumLength() {
+        return checksumLength;
+    }
+
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+}
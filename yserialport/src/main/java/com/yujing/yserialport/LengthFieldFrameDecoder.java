@@ -0,0 +1,87 @@
+package com.yujing.yserialport;
+
+/**
+ * 长度域帧解码器，帧长度由帧内的长度域决定
+ * 帧长度 = lengthFieldOffset + lengthFieldLength + 长度值 + lengthAdjustment
+ * 帧长度非法（小于长度域结尾或大于maxFrameLength）时丢弃1字节，重新同步
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//帧格式：AA LEN DATA... CRC(2)，LEN为DATA长度，1字节
+ySerialPort.setFrameDecoder(new LengthFieldFrameDecoder(1, 1, 2, 260));
+//帧格式：HEAD(2) LEN(2,小端) DATA...，LEN为整帧长度
+ySerialPort.setFrameDecoder(new LengthFieldFrameDecoder(2, 2, -4, 1024, false));
+ */
+public class LengthFieldFrameDecoder implements FrameDecoder {
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final int lengthAdjustment;
+    private final int maxFrameLength;
+    private final boolean bigEndian;
+
+    /**
+     * 长度域为大端
+     *
+     * @param lengthFieldOffset 长度域在帧中的位置
+     * @param lengthFieldLength 长度域字节数，1~4
+     * @param lengthAdjustment  帧长度修正，长度值之后还有多少字节（如校验码）或长度值包含了前面的字节时使用
+     * @param maxFrameLength    最大帧长度
+     */
+    public LengthFieldFrameDecoder(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment, int maxFrameLength) {
+        this(lengthFieldOffset, lengthFieldLength, lengthAdjustment, maxFrameLength, true);
+    }
+
+    /**
+     * @param lengthFieldOffset 长度域在帧中的位置
+     * @param lengthFieldLength 长度域字节数，1~4
+     * @param lengthAdjustment  帧长度修正，长度值之后还有多少字节（如校验码）或长度值包含了前面的字节时使用
+     * @param maxFrameLength    最大帧长度
+     * @param bigEndian         长度域是否大端
+     */
+    public LengthFieldFrameDecoder(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment, int maxFrameLength, boolean bigEndian) {
+        if (lengthFieldOffset < 0) throw new IllegalArgumentException("长度域位置不能小于0：" + lengthFieldOffset);
+        if (lengthFieldLength < 1 || lengthFieldLength > 4) throw new IllegalArgumentException("长度域字节数只能为1~4：" + lengthFieldLength);
+        if (maxFrameLength < lengthFieldOffset + lengthFieldLength) throw new IllegalArgumentException("最大帧长度不能小于长度域结尾：" + maxFrameLength);
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.maxFrameLength = maxFrameLength;
+        this.bigEndian = bigEndian;
+    }
+
+    @Override
+    public int decode(byte[] array, int offset, int length) {
+        int headerLength = lengthFieldOffset + lengthFieldLength;
+        if (length < headerLength) return 0;
+        long value = 0;
+        for (int i = 0; i < lengthFieldLength; i++) {
+            int index = bigEndian ? i : lengthFieldLength - 1 - i;
+            value = (value << 8) | (array[offset + lengthFieldOffset + index] & 0xFF);
+        }
+        long frameLength = headerLength + value + lengthAdjustment;
+        if (frameLength < headerLength || frameLength > maxFrameLength) return -1;
+        return length >= frameLength ? (int) frameLength : 0;
+    }
+
+    public int getLengthFieldOffset() {
+        return lengthFieldOffset;
+    }
+
+    public int getLengthFieldLength() {
+        return lengthFieldLength;
+    }
+
+    public int getLengthAdjustment() {
+        return lengthAdjustment;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+}
@@ -0,0 +1,13 @@
+package com.yujing.yserialport
+
+/**
+ * 发送队列满时的处理方式
+ * BLOCK：阻塞调用线程，直到队列有空位
+ * FAIL：拒绝本次发送，回调false
+ * DROP_OLDEST：丢弃队列中最早的数据，回调其false，再加入本次发送
+ */
+enum class OverflowPolicy {
+    BLOCK,
+    FAIL,
+    DROP_OLDEST
+}
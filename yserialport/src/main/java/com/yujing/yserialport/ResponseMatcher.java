@@ -0,0 +1,80 @@
+package com.yujing.yserialport;
+
+/**
+ * 应答匹配，用于{@link YTransactionEngine}判断收到的帧是哪个请求的应答
+ * 内置：同位置字节相等（地址、命令回显、序号）、任意帧，可用all()组合
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//Modbus RTU：地址(第0字节)和功能码(第1字节)回显
+ResponseMatcher matcher = ResponseMatcher.field(0, 2);
+//请求第3字节的序号，在应答第5字节回显
+ResponseMatcher matcher = ResponseMatcher.field(3, 5, 1);
+//组合
+ResponseMatcher matcher = ResponseMatcher.all(ResponseMatcher.field(0, 1), ResponseMatcher.field(6, 6, 3));
+ */
+public interface ResponseMatcher {
+    /**
+     * 是否为该请求的应答
+     *
+     * @param request  请求
+     * @param response 收到的帧
+     * @return 是否匹配
+     */
+    boolean matches(byte[] request, byte[] response);
+
+    /**
+     * 请求和应答在offset处的length字节相等，如地址、命令回显、序号
+     *
+     * @param offset 位置
+     * @param length 长度
+     * @return ResponseMatcher
+     */
+    static ResponseMatcher field(int offset, int length) {
+        return field(offset, offset, length);
+    }
+
+    /**
+     * 请求requestOffset处与应答responseOffset处的length字节相等
+     *
+     * @param requestOffset  请求中的位置
+     * @param responseOffset 应答中的位置
+     * @param length         长度
+     * @return ResponseMatcher
+     */
+    static ResponseMatcher field(final int requestOffset, final int responseOffset, final int length) {
+        return (request, response) -> {
+            if (request.length < requestOffset + length || response.length < responseOffset + length) return false;
+            for (int i = 0; i < length; i++) {
+                if (request[requestOffset + i] != response[responseOffset + i]) return false;
+            }
+            return true;
+        };
+    }
+
+    /**
+     * 任意帧都是应答，一问一答的协议，同时只能有一个请求在等待
+     *
+     * @return ResponseMatcher
+     */
+    static ResponseMatcher any() {
+        return (request, response) -> true;
+    }
+
+    /**
+     * 全部匹配
+     *
+     * @param matchers 匹配条件
+     * @return ResponseMatcher
+     */
+    static ResponseMatcher all(final ResponseMatcher... matchers) {
+        return (request, response) -> {
+            for (ResponseMatcher matcher : matchers) {
+                if (!matcher.matches(request, response)) return false;
+            }
+            return true;
+        };
+    }
+}
@@ -3,13 +3,15 @@ package com.yujing.yserialport
 /**
  * 线程类型
  * CURRENT：直接执行
- * NEW：新建线程执行
+ * NEW：在共用线程池中执行，同一串口的回调按顺序执行
  * MAIN：是主线程直接执行，不是就先回到主线程再执行
- * IO：是主线程就创建线程，不是就直接执行
+ * IO：是主线程就在共用线程池中执行，不是就直接执行
+ * LISTENER：每个DataListener一个串行执行器，慢的监听不影响其他监听
  */
 enum class ThreadMode {
     CURRENT,
     NEW,
     MAIN,
-    IO
+    IO,
+    LISTENER
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.yujing.yserialport;
+
+/**
+ * 接收缓存池，按大小分级复用byte[]，避免读取线程每次组包都分配新数组
+ * 大小等级：64、256、1K、4K、16K、64K，每级最多缓存4个；超过64K的数组不缓存
+ * 每个读取线程一个缓存池（{@link #local()}），非线程安全；命中统计可在其他线程读取
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YBufferPool pool = YBufferPool.local();
+byte[] buffer = pool.acquire(serialPort.available());
+...
+pool.release(buffer);
+Log.i(TAG, "命中：" + pool.getHitCount() + "，未命中：" + pool.getMissCount());
+ */
+@SuppressWarnings("unused")
+public class YBufferPool {
+    private static final int[] SIZES = {64, 256, 1024, 4096, 16384, 65536};
+    private static final int MAX_PER_SIZE = 4;
+    private static final ThreadLocal<YBufferPool> LOCAL = new ThreadLocal<YBufferPool>() {
+        @Override
+        protected YBufferPool initialValue() {
+            return new YBufferPool();
+        }
+    };
+
+    private final byte[][][] buffers = new byte[SIZES.length][MAX_PER_SIZE][];
+    private final int[] counts = new int[SIZES.length];
+    private volatile long hitCount;//命中次数
+    private volatile long missCount;//未命中，新分配次数
+
+    /**
+     * 当前线程的缓存池
+     *
+     * @return YBufferPool
+     */
+    public static YBufferPool local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * 获取一个至少minSize长的数组，长度为对应等级大小，内容未清零
+     *
+     * @param minSize 最小长度
+     * @return byte[]
+     */
+    public byte[] acquire(int minSize) {
+        int level = level(minSize);
+        if (level < 0) {
+            missCount++;
+            return new byte[minSize];
+        }
+        if (counts[level] > 0) {
+            hitCount++;
+            byte[] buffer = buffers[level][--counts[level]];
+            buffers[level][counts[level]] = null;
+            return buffer;
+        }
+        missCount++;
+        return new byte[SIZES[level]];
+    }
+
+    /**
+     * 归还数组，长度不是等级大小或该等级已满时丢弃
+     *
+     * @param buffer 数组
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) return;
+        int level = level(buffer.length);
+        if (level < 0 || SIZES[level] != buffer.length || counts[level] >= MAX_PER_SIZE) return;
+        buffers[level][counts[level]++] = buffer;
+    }
+
+    //大小等级，超过最大等级返回-1
+    private static int level(int size) {
+        for (int i = 0; i < SIZES.length; i++) {
+            if (size <= SIZES[i]) return i;
+        }
+        return -1;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 当前缓存的数组个数
+     */
+    public int getPooledCount() {
+        int count = 0;
+        for (int c : counts) count += c;
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "YBufferPool{hit=" + hitCount + ", miss=" + missCount + ", pooled=" + getPooledCount() + "}";
+    }
+}
@@ -0,0 +1,252 @@
+package com.yujing.yserialport;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 可增长的byte数组，用于组包
+ * 容量不足时按2倍扩容，追加数据均摊O(1)；数据区为array()[offset(), offset()+size())，读取时无需拷贝
+ * 可以直接把数据读到尾部：ensureWritable(n)后读取到array()的writeIndex()处，再advance(读取长度)
+ * 可以从头部消费数据：skip(n)，头部空间在下次扩容时回收，适合流式解码时保留半包
+ * 非线程安全
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YByteArray bytes = new YByteArray();
+bytes.add(data, 0, length);
+//直接读到尾部，无中间数组
+bytes.ensureWritable(1024);
+int size = inputStream.read(bytes.array(), bytes.writeIndex(), bytes.writable());
+if (size > 0) bytes.advance(size);
+//使用数据，无拷贝
+process(bytes.array(), bytes.offset(), bytes.size());
+//需要独立数组时才拷贝
+byte[] result = bytes.toByteArray();
+ */
+@SuppressWarnings("unused")
+public class YByteArray {
+    private static final byte[] EMPTY = new byte[0];
+    private final YBufferPool pool;//扩容时从缓存池获取数组，可以为null
+    private byte[] array;
+    private boolean pooled;//array是否来自缓存池，trim()交给调用者后不再归还
+    private int start;//数据起始位置
+    private int end;//数据结束位置
+
+    public YByteArray() {
+        this((YBufferPool) null, 0);
+    }
+
+    /**
+     * @param capacity 初始容量
+     */
+    public YByteArray(int capacity) {
+        this((YBufferPool) null, capacity);
+    }
+
+    /**
+     * 底层数组从缓存池获取，用完后调用{@link #release()}归还
+     *
+     * @param pool     缓存池
+     * @param capacity 初始容量
+     */
+    public YByteArray(YBufferPool pool, int capacity) {
+        this.pool = pool;
+        array = capacity <= 0 ? EMPTY : allocate(capacity);
+    }
+
+    /**
+     * 直接使用数组，不拷贝
+     *
+     * @param array  数组
+     * @param length 有效数据长度
+     */
+    public YByteArray(byte[] array, int length) {
+        this.pool = null;
+        this.array = array;
+        this.end = length;
+    }
+
+    /**
+     * 底层数组，数据区为[offset(), offset()+size())
+     */
+    public byte[] array() {
+        return array;
+    }
+
+    /**
+     * 数据在array()中的起始位置
+     */
+    public int offset() {
+        return start;
+    }
+
+    /**
+     * 数据长度
+     */
+    public int size() {
+        return end - start;
+    }
+
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    /**
+     * 当前容量
+     */
+    public int capacity() {
+        return array.length;
+    }
+
+    /**
+     * 尾部可直接写入的位置
+     */
+    public int writeIndex() {
+        return end;
+    }
+
+    /**
+     * 尾部可直接写入的长度
+     */
+    public int writable() {
+        return array.length - end;
+    }
+
+    /**
+     * 保证尾部至少可以写入length字节，先回收头部已消费的空间，不够再按2倍扩容
+     *
+     * @param length 长度
+     */
+    public void ensureWritable(int length) {
+        if (array.length - end >= length) return;
+        int size = end - start;
+        if (start > 0 && array.length - size >= length) {
+            System.arraycopy(array, start, array, 0, size);
+        } else {
+            int capacity = Math.max(array.length, 16);
+            while (capacity - size < length) capacity <<= 1;
+            byte[] old = array;
+            boolean oldPooled = pooled;
+            array = allocate(capacity);
+            System.arraycopy(old, start, array, 0, size);
+            if (oldPooled) pool.release(old);
+        }
+        start = 0;
+        end = size;
+    }
+
+    /**
+     * 直接写入array()尾部后，确认写入长度
+     *
+     * @param length 写入长度
+     */
+    public void advance(int length) {
+        if (length < 0 || end + length > array.length) throw new IndexOutOfBoundsException("advance " + length);
+        end += length;
+    }
+
+    /**
+     * 从头部消费数据
+     *
+     * @param length 长度
+     */
+    public void skip(int length) {
+        if (length < 0 || length > end - start) throw new IndexOutOfBoundsException("skip " + length);
+        start += length;
+        if (start == end) start = end = 0;
+    }
+
+    /**
+     * 清空数据，保留容量
+     */
+    public void clear() {
+        start = end = 0;
+    }
+
+    /**
+     * 获取第index个字节
+     */
+    public byte get(int index) {
+        if (index < 0 || index >= end - start) throw new IndexOutOfBoundsException("index " + index);
+        return array[start + index];
+    }
+
+    /**
+     * 修改第index个字节
+     */
+    public void set(int index, byte b) {
+        if (index < 0 || index >= end - start) throw new IndexOutOfBoundsException("index " + index);
+        array[start + index] = b;
+    }
+
+    public YByteArray add(byte b) {
+        ensureWritable(1);
+        array[end++] = b;
+        return this;
+    }
+
+    public YByteArray add(byte[] bs) {
+        return add(bs, 0, bs.length);
+    }
+
+    public YByteArray add(byte[] bs, int offset, int length) {
+        ensureWritable(length);
+        System.arraycopy(bs, offset, array, end, length);
+        end += length;
+        return this;
+    }
+
+    /**
+     * 追加ByteBuffer中position到limit的数据，追加后position等于limit
+     */
+    public YByteArray add(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        ensureWritable(length);
+        buffer.get(array, end, length);
+        end += length;
+        return this;
+    }
+
+    /**
+     * 拷贝出独立数组
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(array, start, end);
+    }
+
+    /**
+     * 返回恰好等于数据长度的底层数组，长度不等时拷贝一次并替换底层数组，之后再调用无拷贝
+     */
+    public byte[] trim() {
+        if (start != 0 || end != array.length) {
+            byte[] temp = toByteArray();
+            free(array);
+            array = temp;
+            end -= start;
+            start = 0;
+        }
+        pooled = false;
+        return array;
+    }
+
+    /**
+     * 把底层数组归还缓存池并清空，之后仍可继续使用
+     */
+    public void release() {
+        free(array);
+        array = EMPTY;
+        start = end = 0;
+    }
+
+    private byte[] allocate(int capacity) {
+        pooled = pool != null;
+        return pooled ? pool.acquire(capacity) : new byte[capacity];
+    }
+
+    private void free(byte[] old) {
+        if (pooled) pool.release(old);
+        pooled = false;
+    }
+}
@@ -0,0 +1,126 @@
+package com.yujing.yserialport;
+
+import java.util.Arrays;
+
+/**
+ * 字节前缀树，多个字节前缀各对应一个编号，一次扫描帧头即可找出全部匹配的前缀，耗时只与帧头长度有关，与前缀个数无关
+ * 构建后只读，可多线程同时匹配；匹配不创建对象
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YByteTrie trie = new YByteTrie();
+trie.put(new byte[]{0x5A, 0x02}, 0);
+trie.put(new byte[]{0x5A}, 1);
+//全部匹配的前缀，编号对应的位置1
+long mask = trie.match(bytes, 0, bytes.length);//编号都小于64
+long[] masks = new long[2];
+trie.match(bytes, 0, bytes.length, masks);
+//最长匹配的前缀编号，没有返回-1
+int id = trie.longestMatch(bytes, 0, bytes.length);
+ */
+@SuppressWarnings("unused")
+public final class YByteTrie {
+    private static final int[] NO_IDS = new int[0];
+    private final Node root = new Node();
+    private int size;//前缀个数
+    private int maxId = -1;
+
+    private static final class Node {
+        Node[] children;//按字节值索引，有子节点时才创建
+        int[] ids = NO_IDS;//以此结束的前缀编号
+    }
+
+    /**
+     * 添加前缀，相同前缀可对应多个编号，空前缀匹配全部
+     *
+     * @param prefix 前缀
+     * @param id     编号，大于等于0
+     */
+    public void put(byte[] prefix, int id) {
+        if (id < 0) throw new IllegalArgumentException("编号不能小于0：" + id);
+        Node node = root;
+        for (byte b : prefix) {
+            if (node.children == null) node.children = new Node[256];
+            Node child = node.children[b & 0xFF];
+            if (child == null) node.children[b & 0xFF] = child = new Node();
+            node = child;
+        }
+        node.ids = Arrays.copyOf(node.ids, node.ids.length + 1);
+        node.ids[node.ids.length - 1] = id;
+        size++;
+        if (id > maxId) maxId = id;
+    }
+
+    /**
+     * 找出全部匹配的前缀，编号对应的位置1，不清除mask原有的位
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @param mask   位图，长度至少(最大编号/64+1)
+     */
+    public void match(byte[] bytes, int offset, int length, long[] mask) {
+        Node node = root;
+        for (int i = 0; ; i++) {
+            for (int id : node.ids) mask[id >>> 6] |= 1L << id;
+            if (i == length || node.children == null) return;
+            node = node.children[bytes[offset + i] & 0xFF];
+            if (node == null) return;
+        }
+    }
+
+    /**
+     * 找出全部匹配的前缀，编号都小于64时使用，不需要位图数组
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 位图，编号对应的位为1
+     */
+    public long match(byte[] bytes, int offset, int length) {
+        if (maxId >= 64) throw new IllegalStateException("编号超过63，使用match(bytes, offset, length, mask)");
+        long mask = 0;
+        Node node = root;
+        for (int i = 0; ; i++) {
+            for (int id : node.ids) mask |= 1L << id;
+            if (i == length || node.children == null) return mask;
+            node = node.children[bytes[offset + i] & 0xFF];
+            if (node == null) return mask;
+        }
+    }
+
+    /**
+     * 最长匹配的前缀编号，相同前缀有多个编号时返回最先添加的
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 编号，没有匹配返回-1
+     */
+    public int longestMatch(byte[] bytes, int offset, int length) {
+        int result = -1;
+        Node node = root;
+        for (int i = 0; ; i++) {
+            if (node.ids.length > 0) result = node.ids[0];
+            if (i == length || node.children == null) return result;
+            node = node.children[bytes[offset + i] & 0xFF];
+            if (node == null) return result;
+        }
+    }
+
+    /**
+     * 前缀个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 最大编号，没有前缀返回-1
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+}
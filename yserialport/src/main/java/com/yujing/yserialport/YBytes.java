@@ -5,18 +5,19 @@ import java.util.List;
 
 /**
  * byte拼接类
+ * 内部使用{@link YByteArray}，按2倍扩容，追加数据均摊O(1)，不再每次追加都复制整个数组
  *
  * @author YuJing 2019年12月5日09:39:55
  */
 @SuppressWarnings("unused")
 public class YBytes {
-    private byte[] bytes;
+    private YByteArray bytes;
 
     /**
      * 构造函数，创建一个长度为0的byte数组
      */
     public YBytes() {
-        bytes = new byte[0];
+        bytes = new YByteArray();
     }
 
     /**
@@ -25,7 +26,7 @@ public class YBytes {
      * @param i byte[]长度
      */
     public YBytes(int i) {
-        bytes = new byte[i];
+        bytes = new YByteArray(new byte[i], i);
     }
 
     /**
@@ -34,8 +35,17 @@ public class YBytes {
      * @param b 初始数组
      */
     public YBytes(byte[] b) {
-        this.bytes = new byte[b.length];
-        System.arraycopy(b, 0, this.bytes, 0, b.length);
+        bytes = new YByteArray(b.length);
+        bytes.add(b);
+    }
+
+    /**
+     * 直接使用YByteArray，不拷贝
+     *
+     * @param bytes 已组包的数据
+     */
+    public YBytes(YByteArray bytes) {
+        this.bytes = bytes;
     }
 
     /**
@@ -45,10 +55,7 @@ public class YBytes {
      * @return YBytes
      */
     public YBytes addByte(byte b) {
-        byte[] temp = new byte[bytes.length + 1];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
-        temp[temp.length - 1] = b;
-        bytes = temp;
+        bytes.add(b);
         return this;
     }
 
@@ -59,10 +66,7 @@ public class YBytes {
      * @return YBytes
      */
     public YBytes addByte(byte[] bs) {
-        byte[] temp = new byte[bytes.length + bs.length];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
-        System.arraycopy(bs, 0, temp, bytes.length, bs.length);
-        bytes = temp;
+        bytes.add(bs);
         return this;
     }
 
@@ -74,10 +78,7 @@ public class YBytes {
      * @return Bytes
      */
     public YBytes addByte(byte[] bs, int length) {
-        byte[] temp = new byte[bytes.length + length];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
-        System.arraycopy(bs, 0, temp, bytes.length, length);
-        bytes = temp;
+        bytes.add(bs, 0, length);
         return this;
     }
 
@@ -90,10 +91,7 @@ public class YBytes {
      * @return Bytes
      */
     public YBytes addByte(byte[] bs, int start, int length) {
-        byte[] temp = new byte[bytes.length + length];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
-        System.arraycopy(bs, start, temp, bytes.length, length);
-        bytes = temp;
+        bytes.add(bs, start, length);
         return this;
     }
 
@@ -104,13 +102,7 @@ public class YBytes {
      * @return YBytes
      */
     public YBytes addByte(List<Byte> bs) {
-        byte[] temp = new byte[bytes.length + bs.size()];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
-        for (int i = 0; i < bs.size(); i++) {
-            temp[bytes.length + i] = bs.get(i);
-        }
-        bytes = temp;
-        return this;
+        return addByte(bs, 0, bs.size());
     }
 
     /**
@@ -121,13 +113,7 @@ public class YBytes {
      * @return Bytes
      */
     public YBytes addByte(List<Byte> bs, int length) {
-        byte[] temp = new byte[bytes.length + length];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
-        for (int i = 0; i < length; i++) {
-            temp[bytes.length + i] = bs.get(i);
-        }
-        bytes = temp;
-        return this;
+        return addByte(bs, 0, length);
     }
 
     /**
@@ -139,12 +125,10 @@ public class YBytes {
      * @return Bytes
      */
     public YBytes addByte(List<Byte> bs, int start, int length) {
-        byte[] temp = new byte[bytes.length + length];
-        System.arraycopy(bytes, 0, temp, 0, bytes.length);
+        bytes.ensureWritable(length);
         for (int i = 0; i < length; i++) {
-            temp[bytes.length + i] = bs.get(i + start);
+            bytes.add(bs.get(i + start));
         }
-        bytes = temp;
         return this;
     }
 
@@ -156,8 +140,8 @@ public class YBytes {
      * @return YBytes
      */
     public YBytes changeByte(byte b, int index) {
-        if (index >= 0 && index < bytes.length) {
-            bytes[index] = b;
+        if (index >= 0 && index < bytes.size()) {
+            bytes.set(index, b);
         }
         return this;
     }
@@ -184,8 +168,8 @@ public class YBytes {
     public YBytes changeByte(byte[] b, int start, int length) {
         if (start >= 0 && length > 0) {
             for (int i = 0; i < length; i++) {
-                if (start + i < bytes.length) {
-                    bytes[start + i] = b[i];
+                if (start + i < bytes.size()) {
+                    bytes.set(start + i, b[i]);
                 }
             }
         }
@@ -214,8 +198,8 @@ public class YBytes {
     public YBytes changeByte(List<Byte> b, int start, int length) {
         if (start >= 0 && length > 0) {
             for (int i = 0; i < length; i++) {
-                if (start + i < bytes.length) {
-                    bytes[start + i] = b.get(i);
+                if (start + i < bytes.size()) {
+                    bytes.set(start + i, b.get(i));
                 }
             }
         }
@@ -228,7 +212,7 @@ public class YBytes {
      * @param bytes bytes
      */
     public void setBytes(byte[] bytes) {
-        this.bytes = bytes;
+        this.bytes = new YByteArray(bytes, bytes.length);
     }
 
     /**
@@ -265,15 +249,33 @@ public class YBytes {
      * @return 最终拆分的数据
      */
     public List<byte[]> split(int length) {
-        return split(bytes, length);
+        return split(getBytes(), length);
     }
 
     /**
-     * 获取bytes数组
+     * 获取bytes数组，容量大于数据长度时拷贝一次，之后再调用无拷贝
      *
      * @return byte[]
      */
     public byte[] getBytes() {
+        return bytes.trim();
+    }
+
+    /**
+     * 获取底层YByteArray，数据区为array()[offset(), offset()+size())，无拷贝
+     *
+     * @return YByteArray
+     */
+    public YByteArray getByteArray() {
         return bytes;
     }
+
+    /**
+     * 数据长度，无拷贝
+     *
+     * @return 长度
+     */
+    public int length() {
+        return bytes.size();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,411 @@
+package com.yujing.yserialport;
+
+import java.util.zip.Checksum;
+
+/**
+ * 常用串口校验算法，查表实现，每字节一次查表，不再逐位循环8次；CRC32使用slicing-by-8，每次处理8字节
+ * 实现java.util.zip.Checksum，可分段update()，也可用于{@link HeaderChecksumFrameDecoder}
+ * 有状态，一个实例只能在一个线程使用；静态方法无状态，可直接计算一段数据
+ * 内置：CRC-16/MODBUS、CRC-16/CCITT-FALSE、CRC-32、LRC、XOR
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//一次计算
+int crc = YChecksum.crc16Modbus(bytes, 0, bytes.length);
+//分段计算
+YChecksum checksum = YChecksum.newCrc16Modbus();
+checksum.update(bytes, 0, 6);
+checksum.update(bytes, 6, 6);
+long crc = checksum.getValue();
+//原地校验：最后2字节为前面数据的校验码，高字节在前，不拷贝
+boolean valid = YChecksum.verify(YChecksum.newCrc16Modbus(), bytes, 0, bytes.length, 2, true);
+//帧解码器
+ySerialPort.setFrameDecoder(new HeaderChecksumFrameDecoder(new byte[]{0x5A, 0x02, 0x7E}, 14, YChecksum.newCrc16Modbus(), 2));
+ */
+@SuppressWarnings("unused")
+public abstract class YChecksum implements Checksum {
+    private static final int[] CRC16_MODBUS_TABLE = new int[256];
+    private static final int[] CRC16_CCITT_TABLE = new int[256];
+    private static final int[][] CRC32_TABLES = new int[8][256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            //CRC-16/MODBUS：多项式0x8005反转为0xA001，低位先算
+            int crc = i;
+            for (int j = 0; j < 8; j++) crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xA001 : crc >>> 1;
+            CRC16_MODBUS_TABLE[i] = crc;
+            //CRC-16/CCITT：多项式0x1021，高位先算
+            crc = i << 8;
+            for (int j = 0; j < 8; j++) crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            CRC16_CCITT_TABLE[i] = crc & 0xFFFF;
+            //CRC-32：多项式0x04C11DB7反转为0xEDB88320
+            crc = i;
+            for (int j = 0; j < 8; j++) crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xEDB88320 : crc >>> 1;
+            CRC32_TABLES[0][i] = crc;
+        }
+        //slicing-by-8：第k张表为一个字节后面再跟k个0字节的CRC
+        for (int i = 0; i < 256; i++) {
+            for (int k = 1; k < 8; k++) {
+                int previous = CRC32_TABLES[k - 1][i];
+                CRC32_TABLES[k][i] = (previous >>> 8) ^ CRC32_TABLES[0][previous & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * 算法名称
+     */
+    public abstract String getName();
+
+    /**
+     * 校验码字节数
+     */
+    public abstract int getLength();
+
+    public void update(byte[] b) {
+        update(b, 0, b.length);
+    }
+
+    @Override
+    public String toString() {
+        return "YChecksum{" + getName() + "=" + Long.toHexString(getValue()).toUpperCase() + "}";
+    }
+
+    /**
+     * CRC-16/MODBUS，初值0xFFFF，2字节
+     */
+    public static YChecksum newCrc16Modbus() {
+        return new Crc16Modbus();
+    }
+
+    /**
+     * CRC-16/CCITT-FALSE，初值0xFFFF，2字节
+     */
+    public static YChecksum newCrc16Ccitt() {
+        return new Crc16Ccitt();
+    }
+
+    /**
+     * CRC-32（与java.util.zip.CRC32相同），4字节
+     */
+    public static YChecksum newCrc32() {
+        return new Crc32();
+    }
+
+    /**
+     * LRC，全部字节和的补码，1字节（Modbus ASCII）
+     */
+    public static YChecksum newLrc() {
+        return new Lrc();
+    }
+
+    /**
+     * XOR，全部字节异或，1字节
+     */
+    public static YChecksum newXor() {
+        return new Xor();
+    }
+
+    /**
+     * 计算CRC-16/MODBUS
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return CRC，0~0xFFFF
+     */
+    public static int crc16Modbus(byte[] bytes, int offset, int length) {
+        return updateCrc16Modbus(0xFFFF, bytes, offset, length);
+    }
+
+    /**
+     * 计算CRC-16/CCITT-FALSE
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return CRC，0~0xFFFF
+     */
+    public static int crc16Ccitt(byte[] bytes, int offset, int length) {
+        return updateCrc16Ccitt(0xFFFF, bytes, offset, length);
+    }
+
+    /**
+     * 计算CRC-32
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return CRC，无符号32位
+     */
+    public static long crc32(byte[] bytes, int offset, int length) {
+        return ~updateCrc32(0xFFFFFFFF, bytes, offset, length) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 计算LRC
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return LRC，0~0xFF
+     */
+    public static int lrc(byte[] bytes, int offset, int length) {
+        int sum = 0;
+        for (int i = offset, end = offset + length; i < end; i++) sum += bytes[i];
+        return -sum & 0xFF;
+    }
+
+    /**
+     * 计算XOR
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return XOR，0~0xFF
+     */
+    public static int xor(byte[] bytes, int offset, int length) {
+        int value = 0;
+        for (int i = offset, end = offset + length; i < end; i++) value ^= bytes[i];
+        return value & 0xFF;
+    }
+
+    /**
+     * 原地校验，bytes[offset, offset+length)最后checksumLength字节为前面数据的校验码，不拷贝
+     *
+     * @param checksum       校验算法，会被reset()
+     * @param bytes          数据
+     * @param offset         帧起始位置
+     * @param length         帧长度，包含校验码
+     * @param checksumLength 校验码字节数，1~8
+     * @param bigEndian      校验码是否高字节在前
+     * @return 是否通过
+     */
+    public static boolean verify(Checksum checksum, byte[] bytes, int offset, int length, int checksumLength, boolean bigEndian) {
+        int dataLength = length - checksumLength;
+        if (dataLength < 0) return false;
+        checksum.reset();
+        checksum.update(bytes, offset, dataLength);
+        return matches(checksum.getValue(), bytes, offset + dataLength, checksumLength, bigEndian);
+    }
+
+    /**
+     * bytes中index开始的checksumLength字节是否等于value
+     *
+     * @param value          校验码
+     * @param bytes          数据
+     * @param index          校验码位置
+     * @param checksumLength 校验码字节数，1~8
+     * @param bigEndian      是否高字节在前
+     * @return 是否相等
+     */
+    public static boolean matches(long value, byte[] bytes, int index, int checksumLength, boolean bigEndian) {
+        for (int i = 0; i < checksumLength; i++) {
+            int shift = 8 * (bigEndian ? checksumLength - 1 - i : i);
+            if (bytes[index + i] != (byte) (value >>> shift)) return false;
+        }
+        return true;
+    }
+
+    private static int updateCrc16Modbus(int crc, byte[] bytes, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            crc = (crc >>> 8) ^ CRC16_MODBUS_TABLE[(crc ^ bytes[i]) & 0xFF];
+        }
+        return crc;
+    }
+
+    private static int updateCrc16Ccitt(int crc, byte[] bytes, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            crc = ((crc << 8) ^ CRC16_CCITT_TABLE[((crc >>> 8) ^ bytes[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+    //crc为取反后的中间值
+    private static int updateCrc32(int crc, byte[] bytes, int offset, int length) {
+        final int[] t0 = CRC32_TABLES[0], t1 = CRC32_TABLES[1], t2 = CRC32_TABLES[2], t3 = CRC32_TABLES[3];
+        final int[] t4 = CRC32_TABLES[4], t5 = CRC32_TABLES[5], t6 = CRC32_TABLES[6], t7 = CRC32_TABLES[7];
+        int i = offset;
+        int end = offset + length;
+        for (; end - i >= 8; i += 8) {
+            int one = crc ^ ((bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | bytes[i + 3] << 24);
+            int two = (bytes[i + 4] & 0xFF) | (bytes[i + 5] & 0xFF) << 8 | (bytes[i + 6] & 0xFF) << 16 | bytes[i + 7] << 24;
+            crc = t7[one & 0xFF] ^ t6[(one >>> 8) & 0xFF] ^ t5[(one >>> 16) & 0xFF] ^ t4[one >>> 24]
+                    ^ t3[two & 0xFF] ^ t2[(two >>> 8) & 0xFF] ^ t1[(two >>> 16) & 0xFF] ^ t0[two >>> 24];
+        }
+        for (; i < end; i++) crc = (crc >>> 8) ^ t0[(crc ^ bytes[i]) & 0xFF];
+        return crc;
+    }
+
+    private static final class Crc16Modbus extends YChecksum {
+        private int crc = 0xFFFF;
+
+        @Override
+        public void update(int b) {
+            crc = (crc >>> 8) ^ CRC16_MODBUS_TABLE[(crc ^ b) & 0xFF];
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            crc = updateCrc16Modbus(crc, b, off, len);
+        }
+
+        @Override
+        public long getValue() {
+            return crc;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFF;
+        }
+
+        @Override
+        public String getName() {
+            return "CRC-16/MODBUS";
+        }
+
+        @Override
+        public int getLength() {
+            return 2;
+        }
+    }
+
+    private static final class Crc16Ccitt extends YChecksum {
+        private int crc = 0xFFFF;
+
+        @Override
+        public void update(int b) {
+            crc = ((crc << 8) ^ CRC16_CCITT_TABLE[((crc >>> 8) ^ b) & 0xFF]) & 0xFFFF;
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            crc = updateCrc16Ccitt(crc, b, off, len);
+        }
+
+        @Override
+        public long getValue() {
+            return crc;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFF;
+        }
+
+        @Override
+        public String getName() {
+            return "CRC-16/CCITT-FALSE";
+        }
+
+        @Override
+        public int getLength() {
+            return 2;
+        }
+    }
+
+    private static final class Crc32 extends YChecksum {
+        private int crc = 0xFFFFFFFF;
+
+        @Override
+        public void update(int b) {
+            crc = (crc >>> 8) ^ CRC32_TABLES[0][(crc ^ b) & 0xFF];
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            crc = updateCrc32(crc, b, off, len);
+        }
+
+        @Override
+        public long getValue() {
+            return ~crc & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFFFFFF;
+        }
+
+        @Override
+        public String getName() {
+            return "CRC-32";
+        }
+
+        @Override
+        public int getLength() {
+            return 4;
+        }
+    }
+
+    private static final class Lrc extends YChecksum {
+        private int sum;
+
+        @Override
+        public void update(int b) {
+            sum += (byte) b;
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++) sum += b[i];
+        }
+
+        @Override
+        public long getValue() {
+            return -sum & 0xFF;
+        }
+
+        @Override
+        public void reset() {
+            sum = 0;
+        }
+
+        @Override
+        public String getName() {
+            return "LRC";
+        }
+
+        @Override
+        public int getLength() {
+            return 1;
+        }
+    }
+
+    private static final class Xor extends YChecksum {
+        private int value;
+
+        @Override
+        public void update(int b) {
+            value ^= b;
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++) value ^= b[i];
+        }
+
+        @Override
+        public long getValue() {
+            return value & 0xFF;
+        }
+
+        @Override
+        public void reset() {
+            value = 0;
+        }
+
+        @Override
+        public String getName() {
+            return "XOR";
+        }
+
+        @Override
+        public int getLength() {
+            return 1;
+        }
+    }
+}
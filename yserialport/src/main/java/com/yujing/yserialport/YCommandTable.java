@@ -0,0 +1,74 @@
+package com.yujing.yserialport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 命令表，每条命令由帧头+操作码等固定字节前缀识别，添加时编译进字节前缀树
+ * 识别一帧只扫描一次帧头，耗时与命令条数无关，几百个操作码也不需要if/else逐条比较
+ * 前缀互相包含时取最长的；全部add()完成后再识别，识别时只读，可多线程同时使用
+ *
+ * @param <T> 命令类型
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YCommandTable<String> table = new YCommandTable<String>()
+        .add("5A027E000408 F10302", "全部上升")
+        .add("5A027E000408 F10301", "全部下降");
+String command = table.match(bytes, 0, bytes.length);//没有匹配返回null
+ */
+@SuppressWarnings("unused")
+public final class YCommandTable<T> {
+    private final YByteTrie trie = new YByteTrie();
+    private final List<T> commands = new ArrayList<>();
+
+    /**
+     * 添加命令
+     *
+     * @param key     识别前缀，如帧头+操作码
+     * @param command 命令
+     * @return this
+     */
+    public YCommandTable<T> add(byte[] key, T command) {
+        trie.put(key, commands.size());
+        commands.add(command);
+        return this;
+    }
+
+    /**
+     * 添加命令
+     *
+     * @param hexKey  识别前缀的十六进制，可含空格
+     * @param command 命令
+     * @return this
+     */
+    public YCommandTable<T> add(String hexKey, T command) {
+        return add(YHex.decode(hexKey), command);
+    }
+
+    /**
+     * 识别一帧，不创建对象
+     *
+     * @param bytes  数据
+     * @param offset 帧起始位置
+     * @param length 帧长度
+     * @return 前缀最长的匹配命令，没有返回null
+     */
+    public T match(byte[] bytes, int offset, int length) {
+        int id = trie.longestMatch(bytes, offset, length);
+        return id < 0 ? null : commands.get(id);
+    }
+
+    /**
+     * 全部命令，按添加顺序
+     */
+    public List<T> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+}
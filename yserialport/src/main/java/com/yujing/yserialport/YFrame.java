@@ -0,0 +1,97 @@
+package com.yujing.yserialport;
+
+/**
+ * 收到的一帧，数据为bytes中offset开始的length字节，加接收时间
+ * 十六进制在第一次getHexString()时才转换，之后缓存，多个监听共用
+ *
+ * @author yujing 2026年10月18日
+ */
+@SuppressWarnings("unused")
+public final class YFrame {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final long time;
+    private String hexString;//懒加载，String不可变，并发时最多重复转换一次
+
+    /**
+     * @param bytes 数据
+     * @param time  接收时间，System.nanoTime()
+     */
+    public YFrame(byte[] bytes, long time) {
+        this(bytes, 0, bytes.length, time);
+    }
+
+    /**
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @param time   接收时间，System.nanoTime()
+     */
+    public YFrame(byte[] bytes, int offset, int length, long time) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + bytes.length);
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.time = time;
+    }
+
+    /**
+     * 底层数组，帧数据从getOffset()开始，长度getLength()，不要修改
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 第index个字节
+     *
+     * @param index 帧内位置
+     * @return 字节
+     */
+    public byte get(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("index=" + index + ", length=" + length);
+        return bytes[offset + index];
+    }
+
+    /**
+     * 帧数据，整个数组就是帧时直接返回，不拷贝
+     *
+     * @return 帧数据
+     */
+    public byte[] toByteArray() {
+        if (offset == 0 && length == bytes.length) return bytes;
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * 接收时间，System.nanoTime()
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * 大写十六进制，第一次调用时转换
+     */
+    public String getHexString() {
+        String hex = hexString;
+        if (hex == null) hexString = hex = YHex.encode(bytes, offset, length);
+        return hex;
+    }
+
+    @Override
+    public String toString() {
+        return "YFrame{" + getHexString() + "}";
+    }
+}
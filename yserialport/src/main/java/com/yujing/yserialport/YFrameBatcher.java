@@ -0,0 +1,157 @@
+package com.yujing.yserialport;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 界面批量分发，读取线程把帧放入无锁队列，主线程每个显示帧（Choreographer）或每个间隔取出全部帧回调一次
+ * 设备发送再快，主线程每帧也只回调一次，界面只刷新一次，不会卡死
+ * 主线程长时间不取时队列满，新帧被丢弃并计数，读取线程不会被界面拖慢
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//一般通过YSerialPort使用，每个显示帧回调一次
+ySerialPort.addFrameBatchListener(frames -> {
+    StringBuilder sb = new StringBuilder();
+    for (YFrame frame : frames) sb.append(frame.getHexString()).append("\n");
+    textView.append(sb);
+});
+//或者每100毫秒回调一次
+ySerialPort.setFrameBatchInterval(100);
+YFrameBatcher batcher = ySerialPort.getFrameBatcher();
+Log.i(TAG, "帧数：" + batcher.getFrameCount() + "，批数：" + batcher.getBatchCount() + "，丢弃：" + batcher.getDroppedCount());
+ */
+@SuppressWarnings("unused")
+public class YFrameBatcher implements Choreographer.FrameCallback {
+    private static final String TAG = "YFrameBatcher";
+    private static final int CAPACITY = 4096;//队列长度，主线程两次回调之间最多积累的帧数
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final YSpscRing<YFrame> ring = new YSpscRing<>(CAPACITY);
+    private final List<FrameBatchListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();//已安排回调，还没执行
+    private final ArrayList<YFrame> batch = new ArrayList<>();//只在主线程使用，每批复用
+    private final List<YFrame> batchView = Collections.unmodifiableList(batch);
+    //在主线程注册显示帧回调，Choreographer只能在主线程获取
+    private final Runnable frameCallbackTask = () -> Choreographer.getInstance().postFrameCallback(this);
+    private final Runnable intervalTask = () -> doFrame(System.nanoTime());
+    private volatile int interval;//回调间隔，毫秒，0跟随显示帧
+    private volatile boolean closed;
+
+    //统计
+    private volatile long frameCount;//回调的帧数
+    private volatile long batchCount;//回调的批数
+    private volatile long droppedCount;//队列满丢弃的帧数
+
+    /**
+     * 设置回调间隔
+     *
+     * @param interval 毫秒，0跟随显示帧（默认）
+     */
+    public void setInterval(int interval) {
+        this.interval = Math.max(interval, 0);
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void addListener(FrameBatchListener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    public void removeListener(FrameBatchListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListener() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * 放入一帧，在读取线程调用，只能有一个读取线程
+     *
+     * @param frame 帧
+     */
+    void offer(YFrame frame) {
+        if (closed) return;
+        if (!ring.offer(frame)) droppedCount++;
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) return;
+        int interval = this.interval;
+        if (interval > 0) handler.postDelayed(intervalTask, interval);
+        else handler.post(frameCallbackTask);
+    }
+
+    /**
+     * 显示帧回调，在主线程取出全部帧回调一次
+     *
+     * @param frameTimeNanos 显示帧时间
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (closed) return;
+        YFrame frame;
+        while (batch.size() < CAPACITY && (frame = ring.poll()) != null) batch.add(frame);
+        scheduled.set(false);
+        if (!batch.isEmpty()) {
+            batchCount++;
+            frameCount += batch.size();
+            for (FrameBatchListener listener : listeners) {
+                try {
+                    listener.value(batchView);
+                } catch (Throwable e) {
+                    Log.e(TAG, "批量回调异常", e);
+                }
+            }
+            batch.clear();
+        }
+        if (!ring.isEmpty()) schedule();
+    }
+
+    /**
+     * 关闭，不再回调，队列中的帧丢弃
+     */
+    public void close() {
+        closed = true;
+        handler.removeCallbacks(frameCallbackTask);
+        handler.removeCallbacks(intervalTask);
+        listeners.clear();
+    }
+
+    /**
+     * 等待回调的帧数
+     */
+    public int getPendingCount() {
+        return ring.size();
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "YFrameBatcher{frames=" + frameCount + ", batches=" + batchCount + ", dropped=" + droppedCount + ", pending=" + getPendingCount() + "}";
+    }
+}
@@ -0,0 +1,102 @@
+package com.yujing.yserialport;
+
+/**
+ * 十六进制编解码，查表实现，每个字节两个char，直接写入char[]，不为每个字节创建String
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+String hex = YHex.encode(bytes);//"5A027E"
+String hex = YHex.encode(bytes, 0, 3);
+byte[] bytes = YHex.decode("5A 02 7e");//忽略空格，大小写均可
+ */
+@SuppressWarnings("unused")
+public final class YHex {
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+    //字符到数值，非十六进制字符为-1
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) VALUES[i] = -1;
+        for (int i = 0; i < 10; i++) VALUES['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            VALUES['A' + i] = (byte) (10 + i);
+            VALUES['a' + i] = (byte) (10 + i);
+        }
+    }
+
+    private YHex() {
+    }
+
+    /**
+     * 编码为大写十六进制，无分隔符
+     *
+     * @param bytes 数据
+     * @return 十六进制字符串
+     */
+    public static String encode(byte[] bytes) {
+        return encode(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 编码为大写十六进制，无分隔符
+     *
+     * @param bytes  数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 十六进制字符串
+     */
+    public static String encode(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + bytes.length);
+        char[] chars = new char[length * 2];
+        encode(bytes, offset, length, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * 编码到char[]，不创建对象
+     *
+     * @param bytes     数据
+     * @param offset    起始位置
+     * @param length    长度
+     * @param out       输出，至少length*2
+     * @param outOffset 输出起始位置
+     */
+    public static void encode(byte[] bytes, int offset, int length, char[] out, int outOffset) {
+        for (int i = 0; i < length; i++) {
+            int value = bytes[offset + i] & 0xFF;
+            out[outOffset++] = DIGITS[value >>> 4];
+            out[outOffset++] = DIGITS[value & 0x0F];
+        }
+    }
+
+    /**
+     * 解码十六进制，忽略空白字符，大小写均可
+     *
+     * @param hex 十六进制字符串
+     * @return 数据
+     * @throws IllegalArgumentException 非十六进制字符或字符个数为奇数
+     */
+    public static byte[] decode(CharSequence hex) {
+        int length = hex.length();
+        char[] digits = new char[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            char c = hex.charAt(i);
+            if (!Character.isWhitespace(c)) digits[count++] = c;
+        }
+        if ((count & 1) != 0) throw new IllegalArgumentException("十六进制字符个数必须为偶数：" + count);
+        byte[] bytes = new byte[count / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (value(digits[i * 2]) << 4 | value(digits[i * 2 + 1]));
+        }
+        return bytes;
+    }
+
+    private static int value(char c) {
+        int value = c < VALUES.length ? VALUES[c] : -1;
+        if (value < 0) throw new IllegalArgumentException("非十六进制字符：" + c);
+        return value;
+    }
+}
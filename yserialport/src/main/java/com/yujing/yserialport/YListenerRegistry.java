@@ -0,0 +1,181 @@
+package com.yujing.yserialport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 帧监听注册表，增删时整体复制出新的只读快照，分发线程无锁读取快照，遍历时增删监听不会冲突
+ * 每个监听可带过滤条件，每帧每个条件只判断一次；带帧头前缀的监听达到TRIE_THRESHOLD个时用字节前缀树一次找出全部匹配的监听
+ * 回调顺序与添加顺序相同
+ *
+ * @author yujing 2026年10月18日
+ */
+final class YListenerRegistry {
+    static final int TRIE_THRESHOLD = 8;//带前缀的监听达到此数量时使用前缀树
+    private static final Snapshot EMPTY = new Snapshot(new Entry[0]);
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * 回调动作，分发时对每个匹配的监听调用，避免每帧创建lambda
+     */
+    interface Action {
+        void run(FrameListener listener, YFrame frame);
+    }
+
+    private static final class Entry {
+        final FrameListener listener;
+        final byte[] prefix;//帧头前缀，没有为null
+        final FrameFilter rest;//前缀以外的条件，没有为null
+
+        Entry(FrameListener listener, FrameFilter filter) {
+            this.listener = listener;
+            byte[] prefix = null;
+            FrameFilter rest = filter;
+            if (filter instanceof FrameFilter.Prefix) {
+                prefix = ((FrameFilter.Prefix) filter).getPrefix();
+                rest = null;
+            } else if (filter instanceof FrameFilter.All) {
+                List<FrameFilter> others = new ArrayList<>();
+                for (FrameFilter item : ((FrameFilter.All) filter).getFilters()) {
+                    if (prefix == null && item instanceof FrameFilter.Prefix) prefix = ((FrameFilter.Prefix) item).getPrefix();
+                    else others.add(item);
+                }
+                if (prefix != null) rest = others.isEmpty() ? null : others.size() == 1 ? others.get(0) : FrameFilter.all(others.toArray(new FrameFilter[0]));
+            }
+            this.prefix = prefix;
+            this.rest = rest;
+        }
+
+        boolean acceptPrefix(YFrame frame) {
+            if (prefix == null) return true;
+            if (frame.getLength() < prefix.length) return false;
+            byte[] bytes = frame.getBytes();
+            int offset = frame.getOffset();
+            for (int i = 0; i < prefix.length; i++) {
+                if (bytes[offset + i] != prefix[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Snapshot {
+        final Entry[] entries;
+        final YByteTrie trie;//前缀树，编号为entries下标，带前缀的监听少时为null
+        final long[] always;//没有前缀的监听，每帧都要判断其余条件
+
+        Snapshot(Entry[] entries) {
+            this.entries = entries;
+            int prefixCount = 0;
+            for (Entry entry : entries) if (entry.prefix != null) prefixCount++;
+            if (prefixCount < TRIE_THRESHOLD) {
+                trie = null;
+                always = null;
+                return;
+            }
+            trie = new YByteTrie();
+            always = new long[(entries.length + 63) >>> 6];
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].prefix != null) trie.put(entries[i].prefix, i);
+                else always[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * 添加监听，已存在时不重复添加
+     *
+     * @param listener 监听
+     * @param filter   过滤条件，null接收全部帧
+     * @return 是否添加
+     */
+    synchronized boolean add(FrameListener listener, FrameFilter filter) {
+        Entry[] entries = snapshot.entries;
+        if (indexOf(entries, listener) >= 0) return false;
+        Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+        copy[entries.length] = new Entry(listener, filter);
+        snapshot = new Snapshot(copy);
+        return true;
+    }
+
+    /**
+     * 删除监听
+     *
+     * @param listener 监听
+     * @return 是否存在
+     */
+    synchronized boolean remove(FrameListener listener) {
+        Entry[] entries = snapshot.entries;
+        int index = indexOf(entries, listener);
+        if (index < 0) return false;
+        Entry[] copy = new Entry[entries.length - 1];
+        System.arraycopy(entries, 0, copy, 0, index);
+        System.arraycopy(entries, index + 1, copy, index, entries.length - index - 1);
+        snapshot = copy.length == 0 ? EMPTY : new Snapshot(copy);
+        return true;
+    }
+
+    synchronized void clear() {
+        snapshot = EMPTY;
+    }
+
+    private static int indexOf(Entry[] entries, FrameListener listener) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].listener.equals(listener)) return i;
+        }
+        return -1;
+    }
+
+    boolean isEmpty() {
+        return snapshot.entries.length == 0;
+    }
+
+    int size() {
+        return snapshot.entries.length;
+    }
+
+    /**
+     * 是否使用前缀树匹配
+     */
+    boolean isTrieEnabled() {
+        return snapshot.trie != null;
+    }
+
+    /**
+     * 把帧交给每个条件满足的监听，按添加顺序
+     *
+     * @param frame  帧
+     * @param action 回调动作
+     */
+    void dispatch(YFrame frame, Action action) {
+        Snapshot snapshot = this.snapshot;
+        Entry[] entries = snapshot.entries;
+        if (snapshot.trie == null) {
+            for (Entry entry : entries) {
+                if (entry.acceptPrefix(frame) && (entry.rest == null || entry.rest.accept(frame))) action.run(entry.listener, frame);
+            }
+            return;
+        }
+        if (entries.length <= 64) {
+            long mask = snapshot.always[0] | snapshot.trie.match(frame.getBytes(), frame.getOffset(), frame.getLength());
+            while (mask != 0) {
+                int i = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                Entry entry = entries[i];
+                if (entry.rest == null || entry.rest.accept(frame)) action.run(entry.listener, frame);
+            }
+            return;
+        }
+        long[] mask = snapshot.always.clone();
+        snapshot.trie.match(frame.getBytes(), frame.getOffset(), frame.getLength(), mask);
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                Entry entry = entries[i];
+                if (entry.rest == null || entry.rest.accept(frame)) action.run(entry.listener, frame);
+            }
+        }
+    }
+}
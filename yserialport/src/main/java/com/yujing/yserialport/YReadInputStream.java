@@ -3,7 +3,12 @@ package com.yujing.yserialport;
 import android.os.SystemClock;
 import android.util.Log;
 
+import com.yujing.serialport.SerialPort;
+
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -22,6 +27,15 @@ YReadInputStream.readOnce(inputStream, timeOut);
 YReadInputStream.readTime(inputStream, leastTime);
 //读取inputStream数据到YBytes,一直不停组包，至少读取时间：leastTime。但是期间读取长度达到minReadLength，立即返回。
 YReadInputStream.readLength(inputStream, leastTime, minReadLength);
+//直接传入SerialPort，等待数据时阻塞在poll上，不再轮询available()
+YReadInputStream.readOnce(serialPort, timeOut);
+YReadInputStream.readTime(serialPort, maxGroupTime, maxTime);
+YReadInputStream.readLength(serialPort, minLength, maxTime);
+//DirectByteBuffer组包，数据由native直接写入，无中间数组
+ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+int length = YReadInputStream.readGap(serialPort, buffer, gapTime, maxTime);
+//组包数组从当前线程的缓存池获取，YBytes.getBytes()后归还
+YBufferPool pool = YBufferPool.local();
 
 异步：
 private YReadInputStream readInputStream;
@@ -32,24 +46,62 @@ readInputStream = new YReadInputStream(inputStream, bytes ->
 readInputStream.setToAuto(10);
 //设置手自动组包，读取长度100，超时时间为50毫秒。如果读取到数据大于等于100立即返回，否则直到读取到超时为止
 //readInputStream.setToManual(100,50);
+//或者,设置内核组包，串口需设置vmin、vtime，一次read()即一包
+//readInputStream.setToKernel(1024);
+//或者,按协议结构组包，半包留到下次数据到达，每帧只回调一次
+//readInputStream.setFrameDecoder(new LengthFieldFrameDecoder(1, 1, 2, 260));
 //开始读取
 readInputStream.start();
+
+//推荐直接传入SerialPort，空闲时阻塞在poll上，不占用CPU
+readInputStream = new YReadInputStream(serialPort, bytes ->
+    //读取到的数据：bytes
+);
+//多个串口共用一个反应器线程，不再每个串口一个读取线程
+readInputStream.setReactor(YSerialPortReactor.getDefault());
+//读取线程的缓存池命中情况
+Log.i(TAG, readInputStream.getBufferPool().toString());
  */
 public class YReadInputStream {
     private static final String TAG = "YRead";
     private static boolean showLog = false;
-    //轮询时候，是否休息1毫秒。inputStream.available()，如果不休息将会增加CPU功耗。
+    //轮询时候，是否休息1毫秒。inputStream.available()，如果不休息将会增加CPU功耗。传入SerialPort时不轮询，此设置无效
     private static boolean sleep = true;
+    //读取线程每次poll的最长等待时间，毫秒，超时后检查线程是否被中断
+    private static final int WAIT_TIMEOUT = 100;
+    //stop()等待读取线程退出的最长时间，毫秒，回调阻塞时不无限等待
+    private static final int JOIN_TIMEOUT = 1000;
+    //每次read()至少预留的空间
+    private static final int MIN_READ_SIZE = 64;
     private InputStream inputStream;
+    private SerialPort serialPort;
     private YListener<byte[]> readListener;
     private ReadThread readThread;
+    private YSerialPortReactor reactor;//反应器，不为null时由反应器线程读取
+    private ReactorHandler reactorHandler;
+    private volatile YBufferPool bufferPool;//读取线程的缓存池
+
+    //组包方式
+    private static final int PACKAGE_AUTO = 0;//自动组包，按毫秒时间差
+    private static final int PACKAGE_MANUAL = 1;//手动组包，按长度和超时
+    private static final int PACKAGE_KERNEL = 2;//内核组包，由串口VMIN/VTIME组包，一次read()即一包
+    private static final int PACKAGE_CHAR_GAP = 3;//按字符时间差组包，纳秒精度
+    private static final int PACKAGE_DECODER = 4;//按协议结构组包，由FrameDecoder切帧
+    private int packageMode = PACKAGE_AUTO;
 
-    private boolean autoPackage = true;//自动组包
     private int maxGroupPackageTime = 1;//组包时间差，毫秒
 
     private int readLength = -1;//至少读取长度
     private int maxTime = -1;//至少读取时间，大于0时候生效
 
+    private byte[] kernelBuffer;//内核组包读取缓存
+
+    private float gapChars = 3.5f;//组包时间差，字符数
+
+    private FrameDecoder frameDecoder;//帧解码器
+    //累积缓存超过这个长度仍解不出帧，视为垃圾数据清空
+    private static final int MAX_CUMULATION = 65536;
+
     private boolean noDataNotReturn = true;//无数据不返回
 
     public YReadInputStream() {
@@ -60,26 +112,85 @@ public class YReadInputStream {
         this.readListener = readListener;
     }
 
+    public YReadInputStream(SerialPort serialPort, YListener<byte[]> readListener) {
+        setSerialPort(serialPort);
+        this.readListener = readListener;
+    }
+
     public void setInputStream(InputStream inputStream) {
         this.inputStream = inputStream;
+        this.serialPort = null;
+    }
+
+    /**
+     * 设置串口，读取线程将阻塞在poll上等待数据，而不是轮询available()
+     *
+     * @param serialPort 串口
+     */
+    public void setSerialPort(SerialPort serialPort) {
+        this.serialPort = serialPort;
+        this.inputStream = serialPort == null ? null : serialPort.getInputStream();
     }
 
     public void setReadListener(YListener<byte[]> readListener) {
         this.readListener = readListener;
     }
 
+    /**
+     * 设置反应器，多个串口共用一个线程读取，需要设置SerialPort，需在start()之前设置
+     * 内核组包的read()会阻塞，仍使用独立读取线程
+     *
+     * @param reactor 反应器，null则使用独立读取线程
+     */
+    public void setReactor(YSerialPortReactor reactor) {
+        this.reactor = reactor;
+    }
+
+    public YSerialPortReactor getReactor() {
+        return reactor;
+    }
+
     //开始读取
     public void start() {
         stop();
-        readThread = new ReadThread();
+        if (reactor != null) {
+            if (serialPort != null && packageMode != PACKAGE_KERNEL) {
+                reactorHandler = new ReactorHandler();
+                if (reactor.register(serialPort, reactorHandler)) return;
+                reactorHandler = null;
+                Log.e(TAG, "注册反应器失败，使用独立读取线程");
+            } else {
+                Log.w(TAG, "未设置SerialPort或内核组包，不能使用反应器，使用独立读取线程");
+            }
+        }
+        readThread = new ReadThread(serialPort);
         readThread.setName("YReadInputStream-读取线程");
         readThread.start();
     }
 
-    //停止
+    /**
+     * 停止，唤醒阻塞在poll上的读取线程并等待其退出，之后才可以关闭串口
+     * 在读取线程的回调中调用时不等待
+     */
     public void stop() {
-        if (readThread != null) {
-            readThread.interrupt();
+        ReadThread thread = readThread;
+        if (thread != null) {
+            readThread = null;
+            thread.interrupt();
+            if (thread.serialPort != null) thread.serialPort.wakeup();
+            if (thread != Thread.currentThread()) {
+                try {
+                    thread.join(JOIN_TIMEOUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (thread.isAlive()) Log.e(TAG, "读取线程" + JOIN_TIMEOUT + "毫秒未退出");
+                else if (thread.serialPort != null) thread.serialPort.clearWakeup();
+            }
+        }
+        if (reactorHandler != null) {
+            reactor.unregister(reactorHandler);
+            reactorHandler = null;
         }
     }
 
@@ -92,7 +203,7 @@ public class YReadInputStream {
      * @param maxGroupPackageTime 组包时间差，毫秒，列：设置成10，意思是如果连续10毫秒没收到数据，就回调给应用层当前读取到的数据
      */
     public void setToAuto(int maxGroupPackageTime) {
-        autoPackage = true;
+        packageMode = PACKAGE_AUTO;
         this.maxGroupPackageTime = maxGroupPackageTime;
     }
 
@@ -105,26 +216,113 @@ public class YReadInputStream {
      * @param maxTime    最长读取时间
      */
     public void setToManual(int readLength, int maxTime) {
-        autoPackage = false;
+        packageMode = PACKAGE_MANUAL;
         this.readLength = readLength;
         this.maxTime = maxTime;
     }
 
+    /**
+     * 设置为内核组包，由tty驱动按串口的VMIN/VTIME组包，每次阻塞read()返回的数据即为一包。
+     * <p>
+     * 需要打开串口时设置vmin、vtime，如：SerialPort.newBuilder(device, 9600).vmin(255).vtime(1).build();
+     * 收到第一个字节后，收满vmin字节或者字节间隔超过vtime(0.1秒)时返回，每包只需一次poll()和一次read()。
+     *
+     * @param bufferSize 读取缓存大小，应不小于vmin和最大包长
+     */
+    public void setToKernel(int bufferSize) {
+        packageMode = PACKAGE_KERNEL;
+        if (kernelBuffer == null || kernelBuffer.length != bufferSize) kernelBuffer = new byte[bufferSize];
+    }
+
+    /**
+     * 设置为按字符时间差组包，时间差由串口波特率和帧格式换算，使用单调时钟，纳秒精度，需要设置SerialPort
+     * <p>
+     * 举例：Modbus RTU帧间隔3.5个字符，那么这样设置 .setToCharGap(3.5f); 115200 8N1时约304微秒
+     * 注意：部分UART驱动按FIFO超时(约4个字符)批量上报数据，小于该值的间隔无法区分
+     *
+     * @param gapChars 组包时间差，字符数，连续这么多个字符时间没收到数据，就回调当前读取到的数据
+     */
+    public void setToCharGap(float gapChars) {
+        packageMode = PACKAGE_CHAR_GAP;
+        this.gapChars = gapChars;
+    }
+
+    /**
+     * 设置为按协议结构组包，每次有数据就读取并追加到累积缓存，由frameDecoder切出完整帧
+     * <p>
+     * 半包留在缓存中等到下次数据到达，数据无论怎样分段、粘连，每帧都只回调一次，不受时间影响
+     *
+     * @param frameDecoder 帧解码器，如：LengthFieldFrameDecoder、DelimiterFrameDecoder、FixedLengthFrameDecoder、HeaderChecksumFrameDecoder
+     */
+    public void setFrameDecoder(FrameDecoder frameDecoder) {
+        if (frameDecoder == null) throw new NullPointerException("frameDecoder不能为null");
+        packageMode = PACKAGE_DECODER;
+        this.frameDecoder = frameDecoder;
+    }
+
 
     private class ReadThread extends Thread {
+        final SerialPort serialPort;
+
+        ReadThread(SerialPort serialPort) {
+            this.serialPort = serialPort;
+        }
+
         @Override
         public void run() {
             log("开启一个读取线程");
+            bufferPool = YBufferPool.local();
+            //按协议结构组包时的累积缓存，半包跨越多次读取
+            final YByteArray cumulation = new YByteArray(bufferPool, 0);
             while (!Thread.currentThread().isInterrupted()) {
                 try {
-                    //如果可读取消息为0，就不继续。防止InputStream.read阻塞
-                    if (inputStream.available() == 0) {
+                    if (serialPort != null) {
+                        //阻塞等待数据，超时则检查是否被中断
+                        int ready = serialPort.waitReadable(WAIT_TIMEOUT);
+                        if (ready == 0) continue;
+                        if (ready < 0) {
+                            //被stop()唤醒时不是错误
+                            if (!isInterrupted()) Log.e(TAG, "串口不可读，退出读取线程");
+                            break;
+                        }
+                    } else if (packageMode != PACKAGE_KERNEL && inputStream.available() == 0) {
+                        //如果可读取消息为0，就不继续。防止InputStream.read阻塞
                         if (sleep) SystemClock.sleep(1);//休息1毫秒
                         continue;
                     }
                     //如果读取到了数据，而且readListener不为空
                     if (readListener != null) {
-                        byte[] bytes = (autoPackage) ? readTime(inputStream, maxGroupPackageTime).getBytes() : readLength(inputStream, readLength, maxTime).getBytes();
+                        if (packageMode == PACKAGE_DECODER) {
+                            if (!readAvailable(serialPort, inputStream, cumulation)) {
+                                Log.e(TAG, "串口已关闭，退出读取线程");
+                                break;
+                            }
+                            decode(frameDecoder, cumulation, readListener);
+                            if (cumulation.size() > MAX_CUMULATION) {
+                                Log.e(TAG, "超过" + MAX_CUMULATION + "字节未解出帧，丢弃缓存数据");
+                                cumulation.clear();
+                            }
+                            continue;
+                        }
+                        byte[] bytes;
+                        if (packageMode == PACKAGE_KERNEL) {
+                            //有数据后只read()一次，由tty驱动按VMIN/VTIME组包
+                            int size = inputStream.read(kernelBuffer, 0, kernelBuffer.length);
+                            if (size < 0) {
+                                Log.e(TAG, "串口已关闭，退出读取线程");
+                                break;
+                            }
+                            bytes = Arrays.copyOf(kernelBuffer, size);
+                        } else if (serialPort != null) {
+                            if (packageMode == PACKAGE_CHAR_GAP)
+                                bytes = readGap(serialPort, (long) (gapChars * serialPort.getCharTime()), Long.MAX_VALUE).getBytes();
+                            else if (packageMode == PACKAGE_AUTO)
+                                bytes = readTime(serialPort, maxGroupPackageTime, Integer.MAX_VALUE).getBytes();
+                            else
+                                bytes = readLength(serialPort, readLength, maxTime).getBytes();
+                        } else {
+                            bytes = (packageMode == PACKAGE_MANUAL) ? readLength(inputStream, readLength, maxTime).getBytes() : readTime(inputStream, maxGroupPackageTime).getBytes();
+                        }
                         //无数据不返回
                         if (!noDataNotReturn || bytes.length != 0) readListener.value(bytes);
                     }
@@ -132,10 +330,92 @@ public class YReadInputStream {
                     Log.e(TAG, "读取线程异常", e);
                 }
             }
+            cumulation.release();
             log("关闭一个读取线程");
         }
     }
 
+    //反应器模式，在反应器线程中非阻塞组包，组包方式与ReadThread一致
+    private class ReactorHandler implements YSerialPortReactor.PortHandler {
+        private YByteArray bytes;//组包缓存，在反应器线程从缓存池获取
+        private long startTime;//本包第一次收到数据的时间
+        private long deadline = Long.MAX_VALUE;
+
+        @Override
+        public boolean onReadable(SerialPort serialPort) throws Exception {
+            if (bytes == null) {
+                bufferPool = YBufferPool.local();
+                bytes = new YByteArray(bufferPool, 0);
+            }
+            boolean first = bytes.isEmpty();
+            if (!readAvailable(serialPort, null, bytes)) return false;
+            if (bytes.isEmpty()) return true;
+            if (readListener == null) {
+                bytes.clear();
+                return true;
+            }
+            long readTime = serialPort.getReadTime();
+            if (first) startTime = readTime;
+            switch (packageMode) {
+                case PACKAGE_DECODER:
+                    decode(frameDecoder, bytes, readListener);
+                    if (bytes.size() > MAX_CUMULATION) {
+                        Log.e(TAG, "超过" + MAX_CUMULATION + "字节未解出帧，丢弃缓存数据");
+                        bytes.clear();
+                    }
+                    break;
+                case PACKAGE_MANUAL:
+                    if (bytes.size() >= readLength) emit();
+                    else deadline = startTime + maxTime * 1000000L;
+                    break;
+                case PACKAGE_CHAR_GAP:
+                    deadline = readTime + (long) (gapChars * serialPort.getCharTime());
+                    break;
+                default:
+                    deadline = readTime + maxGroupPackageTime * 1000000L;
+                    break;
+            }
+            return true;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public void onDeadline(long now) {
+            emit();
+        }
+
+        @Override
+        public void onClosed() {
+            Log.e(TAG, "串口不可读，停止读取");
+            if (bytes != null) bytes.release();
+        }
+
+        private void emit() {
+            deadline = Long.MAX_VALUE;
+            if (bytes.isEmpty()) return;
+            byte[] frame = bytes.toByteArray();
+            bytes.clear();
+            YListener<byte[]> listener = readListener;
+            if (listener != null) listener.value(frame);
+        }
+    }
+
+    //把当前可读的数据直接读到buffer尾部，返回false表示流已关闭
+    private static boolean readAvailable(SerialPort serialPort, InputStream inputStream, YByteArray buffer) throws IOException {
+        int count = serialPort != null ? serialPort.available() : inputStream.available();
+        buffer.ensureWritable(Math.max(count, MIN_READ_SIZE));
+        int size = serialPort != null
+                ? serialPort.readTimed(buffer.array(), buffer.writeIndex(), buffer.writable())
+                : inputStream.read(buffer.array(), buffer.writeIndex(), Math.max(count, 1));
+        if (size < 0) return false;
+        buffer.advance(size);
+        return true;
+    }
+
     private static void log(String string) {
         if (showLog) Log.i(TAG, string);
     }
@@ -160,8 +440,37 @@ public class YReadInputStream {
         YReadInputStream.sleep = sleep;
     }
 
+    /**
+     * 读取线程的缓存池，可查看命中次数，未开始读取时为null
+     *
+     * @return YBufferPool
+     */
+    public YBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
     public boolean isAutoPackage() {
-        return autoPackage;
+        return packageMode == PACKAGE_AUTO;
+    }
+
+    public boolean isKernelPackage() {
+        return packageMode == PACKAGE_KERNEL;
+    }
+
+    public boolean isCharGapPackage() {
+        return packageMode == PACKAGE_CHAR_GAP;
+    }
+
+    public boolean isDecoderPackage() {
+        return packageMode == PACKAGE_DECODER;
+    }
+
+    public FrameDecoder getFrameDecoder() {
+        return frameDecoder;
+    }
+
+    public float getGapChars() {
+        return gapChars;
     }
 
     public int getMaxGroupPackageTime() {
@@ -207,11 +516,11 @@ public class YReadInputStream {
      * @throws Exception Exception
      */
     public static byte[] readOnce(InputStream inputStream, long timeOut) throws Exception {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int count = 0;
-        while (count == 0 && System.currentTimeMillis() - startTime < timeOut)
+        while (count == 0 && elapsed(startTime) < timeOut)
             count = inputStream.available();//获取真正长度
-        if (System.currentTimeMillis() - startTime >= timeOut) {
+        if (count == 0) {
             throw new TimeoutException("读取超时");
         }
         byte[] bytes = new byte[count];
@@ -245,28 +554,29 @@ public class YReadInputStream {
      * @throws Exception Exception
      */
     public static YBytes readTime(InputStream inputStream, int maxGroupTime, int maxTime) throws Exception {
-        final YBytes bytes = new YBytes();
-        long startTime = System.currentTimeMillis();//开始时间
+        int count = inputStream.available();//可读取多少字节内容
+        final YByteArray bytes = new YByteArray(YBufferPool.local(), count);
+        long startTime = System.nanoTime();//开始时间
         long groupTime;//运行时间
         int i = 0;//第几次组包
-        int count = inputStream.available();//可读取多少字节内容
         do {
-            byte[] newBytes = new byte[1024];
-            int newSize = inputStream.read(newBytes, 0, count);
+            //直接读到组包数组尾部，容量按available()扩充
+            bytes.ensureWritable(count);
+            int newSize = inputStream.read(bytes.array(), bytes.writeIndex(), count);
             if (newSize > 0) {
-                bytes.addByte(newBytes, newSize);
-                log("第" + (++i) + "次组包后长度：" + bytes.getBytes().length + "，\t已耗时：" + (System.currentTimeMillis() - startTime));
+                bytes.advance(newSize);
+                log("第" + (++i) + "次组包后长度：" + bytes.size() + "，\t已耗时：" + elapsed(startTime));
             }
             if (sleep) SystemClock.sleep(1);
             count = inputStream.available();
-            groupTime = System.currentTimeMillis();
+            groupTime = System.nanoTime();
             //如果读取长度为0，那么休息1毫秒继续读取，如果在maxGroupTime时间内都没有数据，那么就退出循环,或者超过maxTime
-            while (count == 0 && System.currentTimeMillis() - groupTime <= maxGroupTime && System.currentTimeMillis() - startTime <= maxTime) {
+            while (count == 0 && elapsed(groupTime) <= maxGroupTime && elapsed(startTime) <= maxTime) {
                 if (sleep) SystemClock.sleep(1);
                 count = inputStream.available();
             }
-        } while (System.currentTimeMillis() - groupTime <= maxGroupTime && System.currentTimeMillis() - startTime <= maxTime);
-        return bytes;
+        } while (elapsed(groupTime) <= maxGroupTime && elapsed(startTime) <= maxTime);
+        return new YBytes(bytes);
     }
 
     /**
@@ -279,24 +589,227 @@ public class YReadInputStream {
      * @throws Exception Exception
      */
     public static YBytes readLength(final InputStream inputStream, final int minLength, final int maxTime) throws Exception {
-        final YBytes bytes = new YBytes();
-        long startTime = System.currentTimeMillis();
+        final YByteArray bytes = new YByteArray(YBufferPool.local(), minLength);
+        long startTime = System.nanoTime();
         int i = 0;
-        while (bytes.getBytes().length < minLength && System.currentTimeMillis() - startTime < maxTime) {
+        while (bytes.size() < minLength && elapsed(startTime) < maxTime) {
             //如果可读取消息为0，就不继续。防止InputStream.read阻塞
-            if (inputStream.available() == 0) {
+            int count = inputStream.available();
+            if (count == 0) {
                 if (sleep) SystemClock.sleep(1);
                 continue;
             }
-            byte[] newBytes = new byte[Math.max(minLength, 1024)];
-            int newSize = inputStream.read(newBytes, 0, inputStream.available());
+            bytes.ensureWritable(count);
+            int newSize = inputStream.read(bytes.array(), bytes.writeIndex(), count);
             if (newSize > 0) {
-                bytes.addByte(newBytes, newSize);
-                log("第" + (++i) + "次组包后长度：" + bytes.getBytes().length + "，\t目标长度：" + minLength + "，\t已耗时：" + (System.currentTimeMillis() - startTime) + "ms，\t超时时间：" + maxTime + "ms");
+                bytes.advance(newSize);
+                log("第" + (++i) + "次组包后长度：" + bytes.size() + "，\t目标长度：" + minLength + "，\t已耗时：" + elapsed(startTime) + "ms，\t超时时间：" + maxTime + "ms");
             }
         }
-        if (System.currentTimeMillis() - startTime >= maxTime)
+        if (elapsed(startTime) >= maxTime)
             log("超时返回，超时时间：" + maxTime + "ms");
+        return new YBytes(bytes);
+    }
+
+    //★★★★★★★★★★★★★★★★★★★★★★★★★★★★★静态方法·读串口操作★★★★★★★★★★★★★★★★★★★★★★★★★★★★★★★★
+
+    /**
+     * 只读一次，读取到就返回。读取不到，阻塞在poll上一直等直到超时，如果超时则向上抛异常
+     *
+     * @param serialPort 串口
+     * @param timeOut    超时毫秒，小于等于0一直等
+     * @return byte[]
+     * @throws Exception Exception
+     */
+    public static byte[] readOnce(SerialPort serialPort, int timeOut) throws Exception {
+        //FIONREAD获取长度，直接读到结果数组，无中间数组
+        int count = serialPort.available();
+        if (count <= 0) {
+            int ready = serialPort.waitReadable(timeOut <= 0 ? -1 : timeOut);
+            if (ready == 0) throw new TimeoutException("读取超时");
+            if (ready < 0) throw new IOException("串口不可读");
+            count = serialPort.available();
+            if (count < 0) throw new IOException("串口不可读");
+        }
+        byte[] bytes = new byte[count];
+        int readCount = 0; // 已经成功读取的字节的个数
+        while (readCount < count) {
+            int newSize = serialPort.readTimed(bytes, readCount, count - readCount);
+            if (newSize < 0) throw new IOException("串口已关闭");
+            readCount += newSize;
+        }
         return bytes;
     }
+
+    /**
+     * 读取串口数据到YBytes,一直不停组包，每次组包时间maxGroupTime，如果一直有数据，不超过maxTime。
+     * 等待数据时阻塞在poll上，数据到达立即唤醒。
+     *
+     * @param serialPort   串口
+     * @param maxGroupTime 最大组包时间，如果这个时间内有数据，就一直组包。如果这个时间都没数据，就返回。
+     * @param maxTime      最多读取这么长时间
+     * @return YBytes
+     * @throws Exception Exception
+     */
+    public static YBytes readTime(SerialPort serialPort, int maxGroupTime, int maxTime) throws Exception {
+        return readGap(serialPort, maxGroupTime * 1000000L, maxTime * 1000000L);
+    }
+
+    /**
+     * 读取串口数据到YBytes,按时间差组包，使用单调时钟，纳秒精度。
+     * 时间差从每次read()返回时由native记录的时间戳开始计算，超过gapTime没有新数据就返回，如果一直有数据，不超过maxTime。
+     *
+     * @param serialPort 串口
+     * @param gapTime    组包时间差，纳秒，可用serialPort.getCharTime()换算字符数
+     * @param maxTime    最多读取这么长时间，纳秒
+     * @return YBytes
+     * @throws Exception Exception
+     */
+    public static YBytes readGap(SerialPort serialPort, long gapTime, long maxTime) throws Exception {
+        final YByteArray bytes = new YByteArray(YBufferPool.local(), Math.max(serialPort.available(), MIN_READ_SIZE));
+        final long startTime = System.nanoTime();//开始时间
+        long lastTime = startTime;//最后一次收到数据的时间
+        int i = 0;//第几次组包
+        while (true) {
+            long now = System.nanoTime();
+            long remain = maxTime - (now - startTime);
+            if (remain <= 0) break;
+            //等到时间差到期，如果期间没有数据就退出；已经到期但仍有未读数据，视为同一包
+            long wait = Math.min(Math.max(lastTime + gapTime - now, 0), remain);
+            if (serialPort.waitReadableNanos(wait) <= 0) break;
+            //直接读到组包数组尾部，容量按FIONREAD扩充
+            bytes.ensureWritable(Math.max(serialPort.available(), MIN_READ_SIZE));
+            int newSize = serialPort.readTimed(bytes.array(), bytes.writeIndex(), bytes.writable());
+            if (newSize < 0) break;
+            if (newSize > 0) {
+                lastTime = serialPort.getReadTime();
+                bytes.advance(newSize);
+                log("第" + (++i) + "次组包后长度：" + bytes.size() + "，\t已耗时：" + (lastTime - startTime) / 1000 + "us");
+            }
+        }
+        return new YBytes(bytes);
+    }
+
+    /**
+     * 读取串口数据到YBytes,一直不停组包，期间读取长度达到minLength立即返回，最多读取maxTime时间。
+     * 等待数据时阻塞在poll上，数据到达立即唤醒。
+     *
+     * @param serialPort 串口
+     * @param minLength  至少读取长度，只要读取长度大于等于minLength，直接返回，最多读取maxTime时间
+     * @param maxTime    最多读取这么长时间
+     * @return YBytes
+     * @throws Exception Exception
+     */
+    public static YBytes readLength(SerialPort serialPort, int minLength, int maxTime) throws Exception {
+        final YByteArray bytes = new YByteArray(YBufferPool.local(), Math.max(minLength, MIN_READ_SIZE));
+        final long startTime = System.nanoTime();
+        final long timeOut = maxTime * 1000000L;
+        int i = 0;
+        while (bytes.size() < minLength) {
+            long remain = timeOut - (System.nanoTime() - startTime);
+            if (remain <= 0) {
+                log("超时返回，超时时间：" + maxTime + "ms");
+                break;
+            }
+            int ready = serialPort.waitReadableNanos(remain);
+            if (ready < 0) break;
+            if (ready == 0) continue;
+            bytes.ensureWritable(Math.max(serialPort.available(), MIN_READ_SIZE));
+            int newSize = serialPort.readTimed(bytes.array(), bytes.writeIndex(), bytes.writable());
+            if (newSize < 0) break;
+            if (newSize > 0) {
+                bytes.advance(newSize);
+                log("第" + (++i) + "次组包后长度：" + bytes.size() + "，\t目标长度：" + minLength + "，\t已耗时：" + elapsed(startTime) + "ms，\t超时时间：" + maxTime + "ms");
+            }
+        }
+        return new YBytes(bytes);
+    }
+
+    /**
+     * 读取串口数据到DirectByteBuffer,按时间差组包，数据由native直接写入buffer，全程无堆内存数组和拷贝。
+     * 从buffer的position开始写入，超过gapTime没有新数据、超过maxTime或者buffer写满时返回。
+     *
+     * @param serialPort 串口
+     * @param buffer     DirectByteBuffer，返回后position为包尾，可flip()后使用
+     * @param gapTime    组包时间差，纳秒
+     * @param maxTime    最多读取这么长时间，纳秒
+     * @return 本次组包长度
+     */
+    public static int readGap(SerialPort serialPort, ByteBuffer buffer, long gapTime, long maxTime) {
+        final int startPosition = buffer.position();
+        final long startTime = System.nanoTime();
+        long lastTime = startTime;
+        while (buffer.hasRemaining()) {
+            long now = System.nanoTime();
+            long remain = maxTime - (now - startTime);
+            if (remain <= 0) break;
+            long wait = Math.min(Math.max(lastTime + gapTime - now, 0), remain);
+            if (serialPort.waitReadableNanos(wait) <= 0) break;
+            int newSize = serialPort.read(buffer);
+            if (newSize < 0) break;
+            if (newSize > 0) lastTime = serialPort.getReadTime();
+        }
+        return buffer.position() - startPosition;
+    }
+
+    /**
+     * 读取串口数据到DirectByteBuffer,一直不停组包，期间读取长度达到minLength立即返回，最多读取maxTime时间。
+     * 数据由native直接写入buffer，全程无堆内存数组和拷贝。
+     *
+     * @param serialPort 串口
+     * @param buffer     DirectByteBuffer，返回后position为包尾，可flip()后使用
+     * @param minLength  至少读取长度
+     * @param maxTime    最多读取这么长时间，毫秒
+     * @return 本次组包长度
+     */
+    public static int readLength(SerialPort serialPort, ByteBuffer buffer, int minLength, int maxTime) {
+        final int startPosition = buffer.position();
+        final long startTime = System.nanoTime();
+        final long timeOut = maxTime * 1000000L;
+        while (buffer.position() - startPosition < minLength && buffer.hasRemaining()) {
+            long remain = timeOut - (System.nanoTime() - startTime);
+            if (remain <= 0) break;
+            int ready = serialPort.waitReadableNanos(remain);
+            if (ready < 0) break;
+            if (ready > 0 && serialPort.read(buffer) < 0) break;
+        }
+        return buffer.position() - startPosition;
+    }
+
+    /**
+     * 用frameDecoder从buffer中解出全部完整帧，每帧拷贝为独立数组后回调，并从buffer头部消费
+     * 不完整的半包留在buffer中，追加新数据后再次调用即可
+     *
+     * @param frameDecoder 帧解码器
+     * @param buffer       累积缓存
+     * @param listener     每解出一帧回调一次
+     * @return 解出的帧数
+     */
+    public static int decode(FrameDecoder frameDecoder, YByteArray buffer, YListener<byte[]> listener) {
+        int frames = 0;
+        while (!buffer.isEmpty()) {
+            int size = buffer.size();
+            int result = frameDecoder.decode(buffer.array(), buffer.offset(), size);
+            if (result == 0) break;
+            if (result < 0) {
+                int discard = -result;
+                if (discard <= 0 || discard > size) discard = size;
+                buffer.skip(discard);
+                log("丢弃" + discard + "字节，重新同步");
+                continue;
+            }
+            if (result > size) throw new IllegalStateException("帧长度" + result + "超过数据长度" + size);
+            byte[] frame = Arrays.copyOfRange(buffer.array(), buffer.offset(), buffer.offset() + result);
+            //先消费再回调，回调异常也不会重复解出同一帧
+            buffer.skip(result);
+            frames++;
+            listener.value(frame);
+        }
+        return frames;
+    }
+
+    //从startTime(System.nanoTime())到现在经过的毫秒数，单调时钟，不受系统时间调整影响
+    private static long elapsed(long startTime) {
+        return (System.nanoTime() - startTime) / 1000000L;
+    }
 }
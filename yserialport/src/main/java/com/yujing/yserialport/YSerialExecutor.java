@@ -0,0 +1,202 @@
+package com.yujing.yserialport;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 串行执行器，任务按提交顺序逐个执行，线程来自全部串口共用的有界线程池
+ * 代替ThreadMode.NEW、ThreadMode.IO每次回调new Thread()：线程数有上限，同一执行器的回调不会乱序
+ * 每个串口一个执行器（NEW、IO），或每个监听一个执行器（LISTENER），慢的监听不影响其他监听
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//共用线程池的线程数，默认CPU核数（2~4）
+YSerialExecutor.setPoolSize(4);
+ySerialPort.setThreadMode(ThreadMode.NEW);
+YSerialExecutor executor = ySerialPort.getCallbackExecutor();
+Log.i(TAG, "排队：" + executor.getQueueSize() + "，平均等待：" + executor.getAverageLatency() / 1000 + "us");
+//每个监听一个执行器
+ySerialPort.setThreadMode(ThreadMode.LISTENER);
+YSerialExecutor listenerExecutor = ySerialPort.getListenerExecutor(dataListener);
+ */
+@SuppressWarnings("unused")
+public class YSerialExecutor implements Executor {
+    private static final String TAG = "YSerialExecutor";
+    private static final int BATCH = 64;//每次占用线程最多执行的任务数，执行完再排队，其他执行器也有机会
+    private static int poolSize = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static ThreadPoolExecutor pool;
+
+    private final ArrayDeque<Task> queue = new ArrayDeque<>();
+    private final int capacity;
+    private final Runnable drainTask = this::drain;
+    private boolean running;//已在线程池排队或执行
+
+    //统计
+    private volatile long submittedCount;//提交数
+    private volatile long completedCount;//执行完成数
+    private volatile long rejectedCount;//队列满拒绝数
+    private volatile long maxLatency;//从提交到开始执行的最大时间，纳秒
+    private volatile long totalLatency;//从提交到开始执行的总时间，纳秒
+
+    private static final class Task {
+        final Runnable runnable;
+        final long submitTime = System.nanoTime();
+
+        Task(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+
+    /**
+     * 队列不限长度
+     */
+    public YSerialExecutor() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param capacity 队列长度，满时execute()抛RejectedExecutionException
+     */
+    public YSerialExecutor(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("队列长度必须大于0：" + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * 设置共用线程池的线程数，空闲30秒的线程自动回收
+     *
+     * @param size 线程数
+     */
+    public static synchronized void setPoolSize(int size) {
+        if (size <= 0) throw new IllegalArgumentException("线程数必须大于0：" + size);
+        poolSize = size;
+        if (pool == null) return;
+        //先调大的一边，避免core大于max
+        if (size > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    public static synchronized int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * 共用线程池，可查看活动线程数、排队的执行器数
+     *
+     * @return ThreadPoolExecutor
+     */
+    public static synchronized ThreadPoolExecutor getPool() {
+        if (pool == null) {
+            final AtomicInteger count = new AtomicInteger();
+            pool = new ThreadPoolExecutor(poolSize, poolSize, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "YSerialExecutor-回调线程-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+        }
+        return pool;
+    }
+
+    /**
+     * 提交任务，按提交顺序执行
+     *
+     * @param runnable 任务
+     * @throws RejectedExecutionException 队列满
+     */
+    @Override
+    public void execute(Runnable runnable) {
+        synchronized (this) {
+            if (queue.size() >= capacity) {
+                rejectedCount++;
+                throw new RejectedExecutionException("回调队列已满：" + capacity);
+            }
+            queue.add(new Task(runnable));
+            submittedCount++;
+            if (running) return;
+            running = true;
+        }
+        getPool().execute(drainTask);
+    }
+
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Task task;
+            synchronized (this) {
+                task = queue.poll();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+            long latency = System.nanoTime() - task.submitTime;
+            if (latency > maxLatency) maxLatency = latency;
+            totalLatency += latency;
+            try {
+                task.runnable.run();
+            } catch (Throwable e) {
+                Log.e(TAG, "回调异常", e);
+            }
+            completedCount++;
+        }
+        //还有任务，重新排队
+        getPool().execute(drainTask);
+    }
+
+    /**
+     * 排队等待执行的任务数
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 从提交到开始执行的最大时间，纳秒
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * 从提交到开始执行的平均时间，纳秒
+     */
+    public long getAverageLatency() {
+        long count = completedCount;
+        return count == 0 ? 0 : totalLatency / count;
+    }
+
+    @Override
+    public String toString() {
+        return "YSerialExecutor{queue=" + getQueueSize() + ", submitted=" + submittedCount + ", completed=" + completedCount + ", rejected=" + rejectedCount + ", avgLatency=" + getAverageLatency() / 1000 + "us, maxLatency=" + maxLatency / 1000 + "us}";
+    }
+}
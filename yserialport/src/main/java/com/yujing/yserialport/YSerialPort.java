@@ -1,5 +1,6 @@
 package com.yujing.yserialport;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Build;
@@ -15,10 +16,16 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 串口工具类
@@ -64,12 +71,14 @@ serialPort.tryClose();//关闭
 byte[] bytes = YSerialPort.sendSyncOnce("/dev/ttyS4", "9600", bytes);
 //发送并等待返回，直到超时，如果超时则向上抛异常
 byte[] bytes = YSerialPort.sendSyncOnce("/dev/ttyS4", "9600",bytes,500);
-//一直不停组包，（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并关闭连接
+//一直不停组包，（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并归还串口
 byte[] bytes = YSerialPort.sendSyncTime("/dev/ttyS4", "9600",bytes,500);
-//一直不停组包，（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并关闭连接（如果一直有数据，最多接收时间为maxTime）
+//一直不停组包，（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并归还串口（如果一直有数据，最多接收时间为maxTime）
 byte[] bytes = YSerialPort.sendSyncTime("/dev/ttyS4", "9600",bytes,500,3000);
-//一直不停组包，当数据长度达到minLength或超时，返回并关闭连接
+//一直不停组包，当数据长度达到minLength或超时，返回并归还串口
 byte[] bytes = YSerialPort.sendSyncLength("/dev/ttyS4", "9600", bytes,500,3000);
+//以上方法使用连接池中保持打开的串口，空闲60秒自动关闭，退出时可关闭全部串口
+YSerialPortPool.getDefault().close();
 */
 
 /*
@@ -84,17 +93,42 @@ ySerialPort.addDataListener(new DataListener() {
         //结果回调:haxString , bytes
     }
 });
-//设置回调线程为主线程，默认主线程
+//或者，帧监听，需要十六进制时才调用frame.getHexString()，没有转换开销
+//ySerialPort.addFrameListener(frame -> handle(frame.getBytes(), frame.getOffset(), frame.getLength()));
+//只接收帧头5A 02、长度14的帧，监听多时按帧头前缀树分发，每帧只回调需要的监听
+//ySerialPort.addFrameListener(FrameFilter.all(FrameFilter.prefix((byte) 0x5A, (byte) 0x02), FrameFilter.length(14, 14)), frame -> {});
+//设置回调线程为主线程，默认主线程，读取线程把帧放入无锁队列，主线程一次取完，不再每帧post一次
 ySerialPort.setThreadMode(ThreadMode.MAIN);
+//或者，在共用线程池中按顺序回调（NEW），或每个监听一个串行执行器（LISTENER），线程数：YSerialExecutor.setPoolSize(4);
+//ySerialPort.setThreadMode(ThreadMode.LISTENER);
+//或者，界面显示高速数据，每个显示帧回调一次本帧收到的全部帧，主线程工作量有上限
+//ySerialPort.addFrameBatchListener(frames -> {});
 //设置自动组包，每次组包时长为40毫秒，如果40毫秒读取不到数据则返回结果
 ySerialPort.setToAuto(); //ySerialPort.setToAuto(40);
 //或者,设置手动组包，读取长度100，超时时间为50毫秒。如果读取到数据大于等于100立即返回，否则直到读取到超时为止
 //ySerialPort.setToManual(100,50);
+//或者,设置按字符时间差组包，3.5个字符时间没有数据则返回结果（Modbus RTU）
+//ySerialPort.setToCharGap(3.5f);
+//或者,设置内核组包，收满200字节或者字节间隔超过100毫秒返回，一次read()即一包
+//ySerialPort.setToKernel(200,1);
+//或者,按协议结构组包，半包跨越多次读取，粘包、拆包都能正确切帧
+//ySerialPort.setFrameDecoder(new LengthFieldFrameDecoder(1, 1, 2, 260));
+//ySerialPort.setFrameDecoder(new DelimiterFrameDecoder(new byte[]{0x0D, 0x0A}, 1024));
+//多个串口共用一个epoll线程读取，需在start()之前设置
+//ySerialPort.setReactor(YSerialPortReactor.getDefault());
 //启动
 ySerialPort.start();
 
 //发送文字
 ySerialPort.send("你好".getBytes(Charset.forName("GB18030")));
+//发送由一个发送线程按顺序写入，可设置队列长度和队列满时的处理方式
+//ySerialPort.setSendQueue(256, OverflowPolicy.DROP_OLDEST);
+//请求/应答，按地址和功能码匹配应答，最多8个请求在途，匹配不上的帧照常回调DataListener
+//ySerialPort.getTransactionEngine().setMaxInFlight(8);
+//ySerialPort.getTransactionEngine().submit(request, ResponseMatcher.field(0, 2), 500, callback);
+//或者，API 24以上返回CompletableFuture，多个串口的请求可以allOf()合并
+//ySerialPort.sendAsync(request, ResponseMatcher.field(0, 2), 500).thenAccept(response -> {});
+//Kotlin协程：ySerialPort.frames()接收帧流（有背压），ySerialPort.transactAwait()挂起等待应答，见YSerialPortFlow.kt
 
 //退出页面时候注销
 @Override
@@ -133,6 +167,25 @@ public class YSerialPort {
     private YReadInputStream readInputStream = new YReadInputStream();//读取InputStream
     private boolean setAutoComplete = false;//设置组包状态完成
     private ThreadMode threadMode = ThreadMode.MAIN; //返回数据在哪个线程
+    private int vmin = -1;//内核组包VMIN，-1保持默认
+    private int vtime = -1;//内核组包VTIME，-1保持默认
+    private YSerialPortReactor reactor;//反应器，不为null时多个串口共用一个线程读取
+    private static final int SEND_QUEUE_CAPACITY = 1024;//默认发送队列长度
+    private static final int SEND_LENGTH = 1024;//每次写入长度
+    private YSerialPortWriter writer;//发送线程
+    private volatile YTransactionEngine transactionEngine;//请求/应答事务引擎
+    private static final int DISPATCH_CAPACITY = 1024;//读取线程到分发线程的队列长度
+    private static final long DISPATCH_FULL_WAIT = 100000L;//队列满时读取线程等待时间，纳秒
+    private static final int JOIN_TIMEOUT = 1000;//停止时等待自定义读线程退出，毫秒
+    private static final int READ_WAIT_TIMEOUT = 100;//自定义读线程等待可读的超时，毫秒
+    private volatile int readGeneration;//每次start()、stop()加1，旧读取线程的数据丢弃，dispatchRing和frameBatcher只有一个生产者
+    private final YSpscRing<YFrame> dispatchRing = new YSpscRing<>(DISPATCH_CAPACITY);//读取线程到分发线程的帧
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();//分发任务已post，还没执行完
+    private volatile long dispatchDroppedCount;//分发队列满丢弃的帧数，只在读取线程修改
+    private final Runnable dispatchTask = this::dispatch;
+    private final YSerialExecutor callbackExecutor = new YSerialExecutor();//NEW、IO的回调执行器
+    private static final int LISTENER_QUEUE_CAPACITY = 1024;//LISTENER每个监听最多排队的帧数
+    private final Map<FrameListener, YSerialExecutor> listenerExecutors = new HashMap<>();//LISTENER每个监听的执行器
 
     //自定义读取InputStream
     private InputStreamReadListener inputStreamReadListener;
@@ -158,8 +211,16 @@ public class YSerialPort {
         return BAUD_RATE_LIST;
     }
 
-    //回调结果
-    private final List<DataListener> dataListeners = new ArrayList<>();
+    //回调结果，增删时复制快照，分发时无锁遍历，可带过滤条件
+    private final YListenerRegistry dataListeners = new YListenerRegistry();
+    private final YListenerRegistry.Action directAction = FrameListener::value;//当前线程回调
+    private final YListenerRegistry.Action listenerAction = this::executeOnListener;//LISTENER交给监听的执行器
+
+    //读取线程帧监听，在读取线程回调，增删时整体复制，读取线程无锁遍历
+    private final List<YListener<YFrame>> readListeners = new CopyOnWriteArrayList<>();
+
+    //界面批量分发，添加批量帧监听时创建
+    private volatile YFrameBatcher frameBatcher;
 
     //错误回调
     private ErrorListener errorListener;
@@ -199,6 +260,7 @@ public class YSerialPort {
      */
     public void setToAuto(int maxGroupPackageTime) {
         readInputStream.setToAuto(maxGroupPackageTime);
+        vmin = vtime = -1;
         setAutoComplete = true;
     }
 
@@ -212,9 +274,68 @@ public class YSerialPort {
      */
     public void setToManual(int readLength, int maxTime) {
         readInputStream.setToManual(readLength, maxTime);
+        vmin = vtime = -1;
+        setAutoComplete = true;
+    }
+
+    /**
+     * 设置为按字符时间差组包，时间差由波特率和帧格式换算，使用单调时钟，纳秒精度
+     * <p>
+     * 举例：Modbus RTU帧间隔3.5个字符，那么这样设置 .setToCharGap(3.5f);
+     *
+     * @param gapChars 组包时间差，字符数，连续这么多个字符时间没收到数据，就回调当前读取到的数据
+     */
+    public void setToCharGap(float gapChars) {
+        readInputStream.setToCharGap(gapChars);
+        vmin = vtime = -1;
+        setAutoComplete = true;
+    }
+
+    /**
+     * 设置为内核组包，由tty驱动按VMIN/VTIME组包，一次read()即一包，需在start()之前设置
+     * <p>
+     * 举例：设备每包最长200字节，字节间隔不超过100毫秒，那么这样设置 .setToKernel(200,1);
+     *
+     * @param vmin  收满vmin字节立即返回，1~255
+     * @param vtime 收到第一个字节后，字节间隔超过vtime返回，单位0.1秒，1~255
+     */
+    public void setToKernel(int vmin, int vtime) {
+        this.vmin = vmin;
+        this.vtime = vtime;
+        readInputStream.setToKernel(Math.max(vmin, 1024));
+        setAutoComplete = true;
+    }
+
+    /**
+     * 设置为按协议结构组包，由frameDecoder从字节流中切出完整帧，每帧回调一次
+     * <p>
+     * 举例：帧格式为 AA LEN DATA... CRC(2)，LEN为DATA长度，那么这样设置 .setFrameDecoder(new LengthFieldFrameDecoder(1, 1, 2, 260));
+     *
+     * @param frameDecoder 帧解码器
+     */
+    public void setFrameDecoder(FrameDecoder frameDecoder) {
+        readInputStream.setFrameDecoder(frameDecoder);
+        vmin = vtime = -1;
         setAutoComplete = true;
     }
 
+    /**
+     * 设置反应器，多个串口共用一个线程读取，空闲的串口不唤醒线程，需在start()之前设置
+     * <p>
+     * 自定义组包(setInputStreamReadListener)和内核组包(setToKernel)需要阻塞读取，仍使用独立读取线程
+     * 回调线程为ThreadMode.CURRENT时在反应器线程回调，不能阻塞
+     * ThreadMode为MAIN、NEW时，分发线程来不及处理、队列满的新帧直接丢弃并计数（{@link #getDispatchDroppedCount()}），不会等待；独立读取线程则等待分发，不丢帧
+     *
+     * @param reactor 反应器，如：YSerialPortReactor.getDefault()，null则每个串口一个读取线程
+     */
+    public void setReactor(YSerialPortReactor reactor) {
+        this.reactor = reactor;
+    }
+
+    public YSerialPortReactor getReactor() {
+        return reactor;
+    }
+
     /**
      * 开始读取串口
      */
@@ -228,33 +349,24 @@ public class YSerialPort {
      * @param sp 外部传入SerialPort
      */
     public void start(SerialPort sp) {
-        readInputStream.stop();
-        if (serialPort != null) {
-            serialPort.close();
-            serialPort = null;
-        }
+        //旧的读取线程退出后再启动新的
+        stop();
         try {
             if (device == null || baudRate == null) throw new NullPointerException("串口或者波特率不能为空");
-            serialPort = sp != null ? sp : SerialPort.newBuilder(new File(device), Integer.parseInt(baudRate)).build();
+            serialPort = sp != null ? sp : SerialPort.newBuilder(new File(device), Integer.parseInt(baudRate)).vmin(vmin).vtime(vtime).build();
             outputStream = serialPort.getOutputStream();
             inputStream = serialPort.getInputStream();
+            final int generation = readGeneration;
             if (inputStreamReadListener != null) {
-                readThread = new ReadThread();
+                readThread = new ReadThread(serialPort);
                 readThread.setName("YSerialPort-读取线程");
-                readThread.setReadListener(bytes ->
-                        post(() -> {
-                            for (DataListener item : dataListeners) item.value(bytesToHexString(bytes), bytes);
-                        })
-                );
+                readThread.setReadListener(bytes -> onRead(generation, bytes));
                 readThread.start();
             } else {
                 assert readInputStream != null;
-                readInputStream.setInputStream(inputStream);
-                readInputStream.setReadListener(bytes ->
-                        post(() -> {
-                            for (DataListener item : dataListeners) item.value(bytesToHexString(bytes), bytes);
-                        })
-                );
+                readInputStream.setSerialPort(serialPort);
+                readInputStream.setReactor(reactor);
+                readInputStream.setReadListener(bytes -> onRead(generation, bytes));
                 //如果没有设置组包方式
                 if (!setAutoComplete) setToAuto();
                 //设置无数据不返回
@@ -271,10 +383,163 @@ public class YSerialPort {
         }
     }
 
-    //自定义读线程
+    //收到一包，先交给事务引擎匹配请求，匹配不上的回调各种帧监听和DataListener
+    private void onRead(int generation, final byte[] bytes) {
+        //已停止或重启，旧读取线程的数据丢弃
+        if (generation != readGeneration) return;
+        YTransactionEngine engine = transactionEngine;
+        if (engine != null && engine.onFrame(bytes)) return;
+        YFrameBatcher batcher = frameBatcher;
+        boolean batch = batcher != null && batcher.hasListener();
+        if (!batch && readListeners.isEmpty() && dataListeners.isEmpty()) return;
+        YFrame frame = new YFrame(bytes, System.nanoTime());
+        for (YListener<YFrame> item : readListeners) {
+            try {
+                item.value(frame);
+            } catch (Throwable e) {
+                Log.e(TAG, "读取线程帧监听回调异常", e);
+            }
+        }
+        if (batch) batcher.offer(frame);
+        if (dataListeners.isEmpty()) return;
+        //CURRENT、IO在读取线程直接回调，LISTENER在deliver()中交给各监听的执行器，不需要交接
+        if (threadMode == ThreadMode.CURRENT || threadMode == ThreadMode.IO || threadMode == ThreadMode.LISTENER) {
+            deliver(frame);
+            return;
+        }
+        //放入环形队列，分发任务还没安排时才post一次，一次唤醒取完全部帧
+        if (dispatchRing.offer(frame)) {
+            scheduleDispatch();
+            return;
+        }
+        //队列满，反应器线程同时读取多个串口，不能等待，丢弃并计数，其他串口不会被本串口的分发线程拖慢
+        YSerialPortReactor current = reactor;
+        if (current != null && current.isReactorThread()) {
+            dispatchDroppedCount++;
+            scheduleDispatch();
+            return;
+        }
+        //独立读取线程等待分发，相当于背压，不丢帧；分发线程（如主线程）太慢时读取也变慢，数据积压在内核缓冲区
+        do {
+            scheduleDispatch();
+            if (Thread.currentThread().isInterrupted()) {
+                dispatchDroppedCount++;
+                return;
+            }
+            LockSupport.parkNanos(DISPATCH_FULL_WAIT);
+        } while (!dispatchRing.offer(frame));
+        scheduleDispatch();
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) post(dispatchTask);
+    }
+
+    //分发线程取出帧回调DataListener，每次最多取一个队列容量，取不完再post，避免长时间占用主线程
+    private void dispatch() {
+        int count = 0;
+        YFrame frame;
+        while (count < dispatchRing.capacity() && (frame = dispatchRing.poll()) != null) {
+            deliver(frame);
+            count++;
+        }
+        dispatchScheduled.set(false);
+        if (!dispatchRing.isEmpty()) scheduleDispatch();
+    }
+
+    //只回调过滤条件满足的监听，十六进制由第一个需要的监听转换，之后共用
+    private void deliver(final YFrame frame) {
+        dataListeners.dispatch(frame, threadMode == ThreadMode.LISTENER ? listenerAction : directAction);
+    }
+
+    private void executeOnListener(final FrameListener listener, final YFrame frame) {
+        try {
+            getListenerExecutor(listener).execute(() -> listener.value(frame));
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "监听处理太慢，丢弃一帧", e);
+        }
+    }
+
+    //DataListener适配为FrameListener，按原监听判断相等，删除时可以找到
+    private static final class DataListenerAdapter implements FrameListener {
+        final DataListener dataListener;
+
+        DataListenerAdapter(DataListener dataListener) {
+            this.dataListener = dataListener;
+        }
+
+        @Override
+        public void value(YFrame frame) {
+            dataListener.value(frame.getHexString(), frame.toByteArray());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DataListenerAdapter && ((DataListenerAdapter) o).dataListener.equals(dataListener);
+        }
+
+        @Override
+        public int hashCode() {
+            return dataListener.hashCode();
+        }
+    }
+
+    /**
+     * ThreadMode为MAIN、NEW时，使用反应器读取且分发队列满被丢弃的帧数，独立读取线程等待分发不丢帧
+     *
+     * @return 帧数
+     */
+    public long getDispatchDroppedCount() {
+        return dispatchDroppedCount;
+    }
+
+    /**
+     * 回调执行器，ThreadMode为NEW、IO、LISTENER时本串口的回调按顺序在共用线程池中执行，可查看排队数和等待时间
+     *
+     * @return YSerialExecutor
+     */
+    public YSerialExecutor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * ThreadMode.LISTENER时该监听的执行器，可查看排队数、等待时间和丢弃数
+     *
+     * @param dataListener 数据监听
+     * @return YSerialExecutor
+     */
+    public YSerialExecutor getListenerExecutor(DataListener dataListener) {
+        return getListenerExecutor(new DataListenerAdapter(dataListener));
+    }
+
+    /**
+     * ThreadMode.LISTENER时该监听的执行器，可查看排队数、等待时间和丢弃数
+     *
+     * @param frameListener 帧监听
+     * @return YSerialExecutor
+     */
+    public YSerialExecutor getListenerExecutor(FrameListener frameListener) {
+        synchronized (listenerExecutors) {
+            YSerialExecutor executor = listenerExecutors.get(frameListener);
+            if (executor == null) {
+                executor = new YSerialExecutor(LISTENER_QUEUE_CAPACITY);
+                listenerExecutors.put(frameListener, executor);
+            }
+            return executor;
+        }
+    }
+
+    //自定义读线程，有数据可读时才交给自定义读取，stop()时wakeup()唤醒，不会阻塞在read()中
     protected class ReadThread extends Thread {
+        private final SerialPort serialPort;
+        private final InputStream inputStream;
         private YListener<byte[]> readListener;
 
+        public ReadThread(SerialPort serialPort) {
+            this.serialPort = serialPort;
+            this.inputStream = serialPort.getInputStream();
+        }
+
         public void setReadListener(YListener<byte[]> readListener) {
             this.readListener = readListener;
         }
@@ -283,6 +548,14 @@ public class YSerialPort {
         public void run() {
             while (!isInterrupted()) {
                 try {
+                    //等待可读，超时则检查是否被中断
+                    int ready = serialPort.waitReadable(READ_WAIT_TIMEOUT);
+                    if (ready == 0) continue;
+                    if (ready < 0) {
+                        //被stop()唤醒时不是错误
+                        if (!isInterrupted()) Log.e(TAG, "串口不可读，退出读取线程");
+                        break;
+                    }
                     if (readListener != null) readListener.value(inputStreamReadListener.inputStreamToBytes(inputStream));
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -338,12 +611,79 @@ public class YSerialPort {
      * @param progressListener 进度监听，返回已经发送长度
      */
     public void send(final byte[] bytes, final YListener<Boolean> listener, final YListener<Integer> progressListener) {
-        new Thread(() -> {
-            boolean result = sendSynchronization(bytes, progressListener);
-            if (listener != null) {
-                post(() -> listener.value(result));
-            }
-        }).start();
+        getWriter().send(bytes, listener == null ? null : result -> post(() -> listener.value(result)), progressListener);
+    }
+
+    /**
+     * 设置发送队列，send()的数据进入有界队列，由一个发送线程按提交顺序写入，需在send()之前设置
+     * <p>
+     * 默认队列长度1024，队列满时阻塞调用线程
+     *
+     * @param capacity       队列长度
+     * @param overflowPolicy 队列满时的处理方式：BLOCK阻塞、FAIL拒绝、DROP_OLDEST丢弃最早的数据
+     */
+    public synchronized void setSendQueue(int capacity, OverflowPolicy overflowPolicy) {
+        if (writer != null) writer.stop();
+        writer = new YSerialPortWriter(this, capacity, overflowPolicy);
+    }
+
+    /**
+     * 设置批量发送，发送队列中window毫秒内的多帧，或累计到maxBytes字节，合并为一次writev()写入
+     * <p>
+     * 适合大量短帧连续发送，如：一组站台门广播几十条14字节命令，.setSendBatch(2, 1024);
+     * window为0时不等待，只合并发送线程取数据时已经在队列中的帧，不增加延迟
+     *
+     * @param window   合并时间窗口，毫秒，从取到第一帧开始计算
+     * @param maxBytes 每批最多字节数，小于等于0关闭批量发送
+     */
+    public void setSendBatch(int window, int maxBytes) {
+        getWriter().setBatch(window * 1000000L, maxBytes);
+    }
+
+    /**
+     * 发送线程，可获取队列深度、入队到写完的延迟
+     *
+     * @return YSerialPortWriter
+     */
+    public synchronized YSerialPortWriter getWriter() {
+        if (writer == null) writer = new YSerialPortWriter(this, SEND_QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+        return writer;
+    }
+
+    /**
+     * 请求/应答事务引擎，收到的帧先匹配在途请求，匹配不上的回调DataListener
+     *
+     * @return YTransactionEngine
+     */
+    public synchronized YTransactionEngine getTransactionEngine() {
+        if (transactionEngine == null) transactionEngine = new YTransactionEngine(this);
+        return transactionEngine;
+    }
+
+    /**
+     * 异步发送并等待应答，收到的第一帧即应答，不阻塞也不额外创建线程，需要start()
+     *
+     * @param bytes   请求
+     * @param timeOut 从写完请求开始的超时毫秒，小于等于0一直等
+     * @return CompletableFuture，future.cancel()取消
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    public CompletableFuture<byte[]> sendAsync(byte[] bytes, int timeOut) {
+        return sendAsync(bytes, ResponseMatcher.any(), timeOut);
+    }
+
+    /**
+     * 异步发送并等待应答，按matcher匹配应答，不阻塞也不额外创建线程，需要start()
+     * future在串口的读取、发送线程中完成，耗时的后续处理请用thenApplyAsync(fn, executor)
+     *
+     * @param bytes   请求
+     * @param matcher 应答匹配
+     * @param timeOut 从写完请求开始的超时毫秒，小于等于0一直等
+     * @return CompletableFuture，future.cancel()取消
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    public CompletableFuture<byte[]> sendAsync(byte[] bytes, ResponseMatcher matcher, int timeOut) {
+        return getTransactionEngine().submitAsync(bytes, matcher, timeOut);
     }
 
     /**
@@ -370,14 +710,12 @@ public class YSerialPort {
                 return false;
             }
             if (serialPort != null) outputStream = serialPort.getOutputStream();
-            final int sendLength = 1024;//每次写入长度
             int count = 0;//统计已经发送长度
-            //数据拆分
-            List<byte[]> list = YBytes.split(bytes, sendLength);
-            for (byte[] item : list) {
-                //写入
-                outputStream.write(item);
-                count += item.length;
+            //按SEND_LENGTH原地分段写入，不拷贝
+            while (count < bytes.length) {
+                int length = Math.min(SEND_LENGTH, bytes.length - count);
+                outputStream.write(bytes, count, length);
+                count += length;
                 //回调进度
                 if (progressListener != null) {
                     final int finalCount = count;
@@ -391,6 +729,26 @@ public class YSerialPort {
         }
     }
 
+    /**
+     * 同步发送DirectByteBuffer中position到limit的数据，由native直接写入串口，无中间拷贝
+     *
+     * @param buffer DirectByteBuffer
+     * @return 是否成功
+     */
+    public boolean sendSynchronization(final ByteBuffer buffer) {
+        try {
+            if (serialPort == null) {
+                Log.e(TAG, "串口未打开,sendSynchronization(buffer)");
+                return false;
+            }
+            serialPort.write(buffer);
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "发送失败", e);
+            return false;
+        }
+    }
+
     //判断当前线程是否是主线程
     private boolean isMainThread() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)
@@ -400,13 +758,14 @@ public class YSerialPort {
     }
 
     //通知外部接收到数据
-    private void post(Runnable runnable) {
+    void post(Runnable runnable) {
         switch (threadMode) {
             case CURRENT:
                 runnable.run();
                 break;
             case NEW:
-                new Thread(runnable).start();
+            case LISTENER:
+                callbackExecutor.execute(runnable);
                 break;
             case MAIN:
                 if (isMainThread())
@@ -416,7 +775,7 @@ public class YSerialPort {
                 break;
             case IO:
                 if (isMainThread())
-                    new Thread(runnable).start();
+                    callbackExecutor.execute(runnable);
                 else
                     runnable.run();
                 break;
@@ -433,14 +792,32 @@ public class YSerialPort {
         this.noDataNotReturn = noDataNotReturn;
     }
 
+    /**
+     * 读取线程的接收缓存池，可查看命中、未命中次数，未开始读取时为null
+     *
+     * @return YBufferPool
+     */
+    public YBufferPool getBufferPool() {
+        return readInputStream == null ? null : readInputStream.getBufferPool();
+    }
+
     /**
      * 添加回调函数
      *
      * @param dataListener 数据监听回调
      */
     public void addDataListener(DataListener dataListener) {
-        if (!dataListeners.contains(dataListener))
-            dataListeners.add(dataListener);
+        addFrameListener(new DataListenerAdapter(dataListener));
+    }
+
+    /**
+     * 添加回调函数，只回调过滤条件满足的帧
+     *
+     * @param filter       过滤条件，如帧头、长度、类型
+     * @param dataListener 数据监听回调
+     */
+    public void addDataListener(FrameFilter filter, DataListener dataListener) {
+        addFrameListener(filter, new DataListenerAdapter(dataListener));
     }
 
     /**
@@ -449,7 +826,7 @@ public class YSerialPort {
      * @param dataListener 数据监听回调
      */
     public void removeDataListener(DataListener dataListener) {
-        dataListeners.remove(dataListener);
+        removeFrameListener(new DataListenerAdapter(dataListener));
     }
 
     /**
@@ -457,6 +834,98 @@ public class YSerialPort {
      */
     public void clearDataListener() {
         dataListeners.clear();
+        synchronized (listenerExecutors) {
+            listenerExecutors.clear();
+        }
+    }
+
+    /**
+     * 添加帧监听，回调线程由ThreadMode决定，不需要十六进制时没有转换开销
+     *
+     * @param frameListener 帧监听
+     */
+    public void addFrameListener(FrameListener frameListener) {
+        dataListeners.add(frameListener, null);
+    }
+
+    /**
+     * 添加帧监听，只回调过滤条件满足的帧，每帧每个条件只判断一次，监听多时按帧头前缀树匹配
+     *
+     * @param filter        过滤条件，如帧头、长度、类型
+     * @param frameListener 帧监听
+     */
+    public void addFrameListener(FrameFilter filter, FrameListener frameListener) {
+        dataListeners.add(frameListener, filter);
+    }
+
+    /**
+     * 删除帧监听
+     *
+     * @param frameListener 帧监听
+     */
+    public void removeFrameListener(FrameListener frameListener) {
+        dataListeners.remove(frameListener);
+        synchronized (listenerExecutors) {
+            listenerExecutors.remove(frameListener);
+        }
+    }
+
+    /**
+     * 添加读取线程帧监听，在读取线程直接回调，不切换线程，回调阻塞时读取也暂停（背压）
+     * 使用反应器时所有串口共用一个读取线程，不能长时间阻塞
+     *
+     * @param readListener 帧监听
+     */
+    public void addReadListener(YListener<YFrame> readListener) {
+        if (!readListeners.contains(readListener))
+            readListeners.add(readListener);
+    }
+
+    /**
+     * 删除读取线程帧监听
+     *
+     * @param readListener 帧监听
+     */
+    public void removeReadListener(YListener<YFrame> readListener) {
+        readListeners.remove(readListener);
+    }
+
+    /**
+     * 添加批量帧监听，在主线程每个显示帧回调一次本帧期间收到的全部帧，不受ThreadMode影响
+     * 设备发送很快时界面每帧只刷新一次，主线程的工作量有上限
+     *
+     * @param frameBatchListener 批量帧监听
+     */
+    public void addFrameBatchListener(FrameBatchListener frameBatchListener) {
+        getFrameBatcher().addListener(frameBatchListener);
+    }
+
+    /**
+     * 删除批量帧监听
+     *
+     * @param frameBatchListener 批量帧监听
+     */
+    public void removeFrameBatchListener(FrameBatchListener frameBatchListener) {
+        if (frameBatcher != null) frameBatcher.removeListener(frameBatchListener);
+    }
+
+    /**
+     * 设置批量帧监听的回调间隔
+     *
+     * @param interval 毫秒，0跟随显示帧（默认）
+     */
+    public void setFrameBatchInterval(int interval) {
+        getFrameBatcher().setInterval(interval);
+    }
+
+    /**
+     * 界面批量分发，可查看帧数、批数、丢弃数
+     *
+     * @return YFrameBatcher
+     */
+    public synchronized YFrameBatcher getFrameBatcher() {
+        if (frameBatcher == null) frameBatcher = new YFrameBatcher();
+        return frameBatcher;
     }
 
     /**
@@ -507,7 +976,8 @@ public class YSerialPort {
     }
 
     /**
-     * 自定义读取InputStream
+     * 自定义读取InputStream，串口有数据可读时才回调，应只读取已到达的数据（inputStream.available()）
+     * 数据不够时继续read()会阻塞到数据到达，期间stop()、reStart()最多等待1秒
      *
      * @param inputStreamReadListener InputStream监听
      */
@@ -605,9 +1075,16 @@ public class YSerialPort {
      * 关闭串口释放资源
      */
     private void stop() {
+        //之后旧读取线程读到的数据丢弃
+        readGeneration++;
         try {
-            if (readInputStream != null) {
-                readInputStream.stop();
+            readInputStream.stop();
+            ReadThread thread = readThread;
+            readThread = null;
+            if (thread != null) {
+                thread.interrupt();
+                //唤醒等待可读的自定义读线程，串口关闭前退出
+                thread.serialPort.wakeup();
             }
             if (inputStream != null) {
                 inputStream.close();
@@ -617,10 +1094,7 @@ public class YSerialPort {
                 outputStream.close();
                 outputStream = null;
             }
-            if (readThread != null) {
-                readThread.interrupt();
-                readThread = null;
-            }
+            if (thread != null) joinReadThread(thread);
         } catch (Throwable e) {
             Log.e(TAG, "stop异常", e);
         } finally {
@@ -634,13 +1108,40 @@ public class YSerialPort {
         }
     }
 
+    //等待自定义读线程退出，新的读取线程启动前旧的已不再生产，在读取线程中调用时不等待
+    //只有自定义读取正在执行、数据不够还在read()时才需要等待，最多JOIN_TIMEOUT
+    private static void joinReadThread(ReadThread thread) {
+        if (thread == Thread.currentThread()) return;
+        try {
+            thread.join(JOIN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) Log.e(TAG, "读取线程" + JOIN_TIMEOUT + "毫秒未退出");
+    }
+
     /**
      * onDestroy,调用的此类的activity必须在onDestroy调用此方法
      */
     public void onDestroy() {
         Log.i(TAG, "调用onDestroy");
         stop();
+        synchronized (this) {
+            if (transactionEngine != null) {
+                transactionEngine.close();
+                transactionEngine = null;
+            }
+            if (writer != null) {
+                writer.stop();
+                writer = null;
+            }
+            if (frameBatcher != null) {
+                frameBatcher.close();
+                frameBatcher = null;
+            }
+        }
         clearDataListener();
+        readListeners.clear();
     }
 
 
@@ -677,15 +1178,7 @@ public class YSerialPort {
      * @return HexString
      */
     public static String bytesToHexString(byte[] bArray) {
-        StringBuilder sb = new StringBuilder(bArray.length);
-        String sTemp;
-        for (byte aBArray : bArray) {
-            sTemp = Integer.toHexString(0xFF & aBArray);
-            if (sTemp.length() < 2)
-                sb.append(0);
-            sb.append(sTemp.toUpperCase(Locale.US));
-        }
-        return sb.toString();
+        return YHex.encode(bArray);
     }
 
 
@@ -730,7 +1223,7 @@ public class YSerialPort {
     }
 
     /**
-     * 同步发送数据，建立连接,发送完毕后，等待接收数据（读取到数据立即返回），接收完毕后关闭连接
+     * 同步发送数据，从连接池借出串口，发送完毕后，等待接收数据（读取到数据立即返回），接收完毕后归还串口
      *
      * @param device   串口名称
      * @param baudRate 波特率
@@ -743,7 +1236,7 @@ public class YSerialPort {
     }
 
     /**
-     * 同步发送数据，建立连接,发送完毕后，等待接收数据（读取到数据立即返回），最多等待timeOut时间，接收完毕后关闭连接
+     * 同步发送数据，从连接池借出串口，发送完毕后，等待接收数据（读取到数据立即返回），最多等待timeOut时间，接收完毕后归还串口
      *
      * @param device   串口名称
      * @param baudRate 波特率
@@ -752,13 +1245,17 @@ public class YSerialPort {
      * @return 读取的数据
      */
     public static byte[] sendSyncOnce(String device, String baudRate, byte[] bytes, int timeOut) throws Exception {
-        //串口类
-        SerialPort serialPort = null;
+        //从连接池借出串口，用完归还，不再每次打开、关闭
+        YSerialPortPool pool = YSerialPortPool.getDefault();
+        SerialPort serialPort = pool.acquire(device, Integer.parseInt(baudRate));
+        boolean healthy = true;
         try {
-            serialPort = SerialPort.newBuilder(new File(device), Integer.parseInt(baudRate)).build();
             return sendSyncOnce(serialPort, bytes, timeOut);
+        } catch (IOException e) {
+            healthy = false;
+            throw e;
         } finally {
-            if (serialPort != null) serialPort.tryClose();
+            pool.release(serialPort, healthy);
         }
     }
 
@@ -789,20 +1286,14 @@ public class YSerialPort {
      * @return 读取的数据
      */
     public static byte[] sendSyncOnce(SerialPort serialPort, byte[] bytes, int timeOut) throws Exception {
-        serialPort.getInputStream().skip(serialPort.getInputStream().available());
+        clear(serialPort.getInputStream());
         //发送
-        final int sendLength = 1024;//每次写入长度
-        //数据拆分
-        List<byte[]> list = YBytes.split(bytes, sendLength);
-        for (byte[] item : list) {
-            serialPort.getOutputStream().write(item);
-        }
-        serialPort.getOutputStream().flush();
-        return (timeOut <= 0) ? YReadInputStream.readOnce(serialPort.getInputStream()) : YReadInputStream.readOnce(serialPort.getInputStream(), timeOut);
+        write(serialPort.getOutputStream(), bytes);
+        return YReadInputStream.readOnce(serialPort, timeOut);
     }
 
     /**
-     * 同步发送数据，建立连接 ,发送完毕后，等待接收数据（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并关闭连接
+     * 同步发送数据，从连接池借出串口，发送完毕后，等待接收数据（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并归还串口
      *
      * @param device       串口名称
      * @param baudRate     波特率
@@ -816,7 +1307,7 @@ public class YSerialPort {
     }
 
     /**
-     * 同步发送数据，建立连接 ,发送完毕后，等待接收数据（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并关闭连接（如果一直有数据，最多接收时间为maxTime）
+     * 同步发送数据，从连接池借出串口，发送完毕后，等待接收数据（maxGroupTime每次组包时间）当在maxGroupTime时间内没有数据，就返回并归还串口（如果一直有数据，最多接收时间为maxTime）
      *
      * @param device       串口名称
      * @param baudRate     波特率
@@ -826,13 +1317,17 @@ public class YSerialPort {
      * @return 读取的数据
      */
     public static byte[] sendSyncTime(String device, String baudRate, byte[] bytes, int maxGroupTime, int maxTime) throws Exception {
-        //串口类
-        SerialPort serialPort = null;
+        //从连接池借出串口，用完归还，不再每次打开、关闭
+        YSerialPortPool pool = YSerialPortPool.getDefault();
+        SerialPort serialPort = pool.acquire(device, Integer.parseInt(baudRate));
+        boolean healthy = true;
         try {
-            serialPort = SerialPort.newBuilder(new File(device), Integer.parseInt(baudRate)).build();
             return sendSyncTime(serialPort, bytes, maxGroupTime, maxTime);
+        } catch (IOException e) {
+            healthy = false;
+            throw e;
         } finally {
-            if (serialPort != null) serialPort.tryClose();
+            pool.release(serialPort, healthy);
         }
     }
 
@@ -864,22 +1359,16 @@ public class YSerialPort {
      * @return 读取的数据
      */
     public static byte[] sendSyncTime(SerialPort serialPort, byte[] bytes, int maxGroupTime, int maxTime) throws Exception {
-        serialPort.getInputStream().skip(serialPort.getInputStream().available());
+        clear(serialPort.getInputStream());
         //发送
-        final int sendLength = 1024;//每次写入长度
-        //数据拆分
-        List<byte[]> list = YBytes.split(bytes, sendLength);
-        for (byte[] item : list) {
-            serialPort.getOutputStream().write(item);
-        }
-        serialPort.getOutputStream().flush();
+        write(serialPort.getOutputStream(), bytes);
         //读取
-        YBytes yBytes = YReadInputStream.readTime(serialPort.getInputStream(), maxGroupTime, maxTime);
+        YBytes yBytes = YReadInputStream.readTime(serialPort, maxGroupTime, maxTime);
         return yBytes.getBytes();
     }
 
     /**
-     * 同步发送数据，建立连接,发送完毕后，等待接收数据，一直不停接收，当数据长度达到minLength或超时，返回并关闭连接
+     * 同步发送数据，从连接池借出串口，发送完毕后，等待接收数据，一直不停接收，当数据长度达到minLength或超时，返回并归还串口
      *
      * @param device    串口名称
      * @param baudRate  波特率
@@ -889,13 +1378,17 @@ public class YSerialPort {
      * @return 读取的数据
      */
     public static byte[] sendSyncLength(String device, String baudRate, byte[] bytes, int minLength, int maxTime) throws Exception {
-        //串口类
-        SerialPort serialPort = null;
+        //从连接池借出串口，用完归还，不再每次打开、关闭
+        YSerialPortPool pool = YSerialPortPool.getDefault();
+        SerialPort serialPort = pool.acquire(device, Integer.parseInt(baudRate));
+        boolean healthy = true;
         try {
-            serialPort = SerialPort.newBuilder(new File(device), Integer.parseInt(baudRate)).build();
             return sendSyncLength(serialPort, bytes, minLength, maxTime);
+        } catch (IOException e) {
+            healthy = false;
+            throw e;
         } finally {
-            if (serialPort != null) serialPort.tryClose();
+            pool.release(serialPort, healthy);
         }
     }
 
@@ -912,17 +1405,29 @@ public class YSerialPort {
      * @return 读取的数据
      */
     public static byte[] sendSyncLength(SerialPort serialPort, byte[] bytes, int minLength, int maxTime) throws Exception {
-        serialPort.getInputStream().skip(serialPort.getInputStream().available());
+        clear(serialPort.getInputStream());
         //发送
-        final int sendLength = 1024;//每次写入长度
-        //数据拆分
-        List<byte[]> list = YBytes.split(bytes, sendLength);
-        for (byte[] item : list) {
-            serialPort.getOutputStream().write(item);
-        }
-        serialPort.getOutputStream().flush();
+        write(serialPort.getOutputStream(), bytes);
         //读取
-        YBytes yBytes = YReadInputStream.readLength(serialPort.getInputStream(), minLength, maxTime);
+        YBytes yBytes = YReadInputStream.readLength(serialPort, minLength, maxTime);
         return yBytes.getBytes();
     }
+
+    //丢弃上次收发残留的数据，串口复用时不会读到上一次的应答；tty不支持skip()时也能清空
+    private static void clear(InputStream inputStream) throws IOException {
+        byte[] buffer = null;
+        int count;
+        while ((count = inputStream.available()) > 0) {
+            if (buffer == null) buffer = new byte[Math.min(count, SEND_LENGTH)];
+            if (inputStream.read(buffer, 0, Math.min(count, buffer.length)) < 0) break;
+        }
+    }
+
+    //按SEND_LENGTH原地分段写入，不拷贝
+    private static void write(OutputStream outputStream, byte[] bytes) throws IOException {
+        for (int count = 0; count < bytes.length; count += SEND_LENGTH) {
+            outputStream.write(bytes, count, Math.min(SEND_LENGTH, bytes.length - count));
+        }
+        outputStream.flush();
+    }
 }
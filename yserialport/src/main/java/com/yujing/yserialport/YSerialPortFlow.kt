@@ -0,0 +1,109 @@
+@file:JvmName("YSerialPortFlow")
+
+package com.yujing.yserialport
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.channels.trySendBlocking
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.buffer
+import kotlinx.coroutines.flow.callbackFlow
+import kotlinx.coroutines.runInterruptible
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * YSerialPort的Kotlin协程扩展：接收帧流（有背压）、挂起的请求/应答和发送
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//缓冲64帧，处理不过来时读取线程暂停，数据留在内核缓冲区
+lifecycleScope.launch {
+    ySerialPort.frames().collect { frame -> handle(frame.bytes) }
+}
+//只处理最新一帧，如界面显示
+ySerialPort.frames(Channel.CONFLATED).collect { frame -> show(frame.hexString) }
+//丢弃最早的帧
+ySerialPort.frames(256, BufferOverflow.DROP_OLDEST).collect { }
+//多个收集者共享（热流）
+val shared = ySerialPort.frames().shareIn(scope, SharingStarted.WhileSubscribed())
+//挂起等待应答，协程取消时请求也取消
+val response = ySerialPort.transactAwait(request, ResponseMatcher.field(0, 2), 500)
+//挂起直到写完，协程取消时还没写的帧不再写入
+val sent = ySerialPort.sendAwait(bytes)
+ */
+
+/**
+ * 接收的帧流，冷流，每个收集者注册自己的帧监听，收集结束自动删除
+ * 帧在读取线程送入缓冲区，和DataListener一样只收到没有被事务引擎匹配的帧
+ * SUSPEND：缓冲区满时阻塞读取线程，收集者处理不过来时读取暂停，使用反应器时会影响其他串口
+ * DROP_OLDEST：丢弃最早的帧；DROP_LATEST：丢弃新的帧；capacity为Channel.CONFLATED：只保留最新一帧
+ *
+ * @param capacity         缓冲帧数
+ * @param onBufferOverflow 缓冲区满时的处理方式，capacity为Channel.CONFLATED时只能为SUSPEND
+ * @return Flow<YFrame>
+ */
+fun YSerialPort.frames(capacity: Int = 64, onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND): Flow<YFrame> =
+    callbackFlow {
+        val listener = YListener<YFrame> { frame -> trySendBlocking(frame) }
+        addReadListener(listener)
+        awaitClose { removeReadListener(listener) }
+    }.buffer(capacity, onBufferOverflow)
+
+/**
+ * 挂起等待应答，不阻塞线程
+ *
+ * @param request 请求
+ * @param matcher 应答匹配，默认收到的第一帧即应答
+ * @param timeOut 从写完请求开始的超时毫秒，小于等于0一直等
+ * @return 应答
+ * @throws java.util.concurrent.TimeoutException 超时
+ * @throws java.io.IOException 发送失败或串口已关闭
+ */
+suspend fun YTransactionEngine.transactAwait(request: ByteArray, matcher: ResponseMatcher = ResponseMatcher.any(), timeOut: Int): ByteArray =
+    suspendCancellableCoroutine { continuation ->
+        val transaction = submit(request, matcher, timeOut, object : YTransactionEngine.Callback {
+            override fun onResponse(response: ByteArray) = continuation.resume(response)
+
+            override fun onFailure(e: Exception) = continuation.resumeWithException(e)
+        }, false)
+        continuation.invokeOnCancellation { transaction.cancel() }
+    }
+
+/**
+ * 挂起等待应答，需要start()，见[YTransactionEngine.transactAwait]
+ */
+suspend fun YSerialPort.transactAwait(request: ByteArray, matcher: ResponseMatcher = ResponseMatcher.any(), timeOut: Int): ByteArray =
+    transactionEngine.transactAwait(request, matcher, timeOut)
+
+/**
+ * 挂起直到发送线程写完，发送队列满时按OverflowPolicy处理，BLOCK在IO线程等待空位，不阻塞当前线程
+ * 协程取消时，还在队列中的帧移出队列不再写入；已经开始写入的帧不能撤回，会写完
+ *
+ * @param bytes 数据
+ * @return 是否成功
+ */
+suspend fun YSerialPort.sendAwait(bytes: ByteArray): Boolean {
+    val writer = writer
+    val result = CompletableDeferred<Boolean>()
+    val listener = YListener<Boolean> { result.complete(it) }
+    var task: YSerialPortWriter.Task? = null
+    try {
+        //没有加入队列时返回null，listener已回调false；在IO线程中赋值，入队后马上取消也能移出队列
+        if (writer.overflowPolicy == OverflowPolicy.BLOCK) {
+            runInterruptible(Dispatchers.IO) { task = writer.enqueue(bytes, null, listener, null) }
+        } else {
+            task = writer.enqueue(bytes, null, listener, null)
+        }
+        return result.await()
+    } catch (e: CancellationException) {
+        task?.let { writer.cancel(it) }
+        throw e
+    }
+}
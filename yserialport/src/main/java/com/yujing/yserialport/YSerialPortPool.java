@@ -0,0 +1,338 @@
+package com.yujing.yserialport;
+
+import android.util.Log;
+
+import com.yujing.serialport.SerialPort;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 串口连接池，每个串口（按真实路径，符号链接指向同一设备算同一个）保持一个打开的SerialPort，避免每次收发都open、设置termios、su chmod、close
+ * 同一个串口同时只能借出一个，其他线程等待归还，同一串口上的收发不会交错
+ * 借出时波特率、数据位、校验位、停止位与已打开的不同，关闭后按新参数重新打开；VMIN/VTIME固定为默认值
+ * 借出前检查串口是否仍可用，不可用则重新打开；空闲超过idleTimeout的串口由清理线程关闭
+ * YSerialPort.sendSyncOnce/sendSyncTime/sendSyncLength(String device, String baudRate, ...)默认使用{@link #getDefault()}
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YSerialPortPool pool = YSerialPortPool.getDefault();
+SerialPort serialPort = pool.acquire("/dev/ttyS4", 9600);
+boolean healthy = true;
+try {
+    byte[] bytes = YSerialPort.sendSyncOnce(serialPort, request, 500);
+} catch (IOException e) {
+    healthy = false;//读写出错，归还时关闭，下次重新打开
+} finally {
+    pool.release(serialPort, healthy);
+}
+//空闲30秒关闭
+pool.setIdleTimeout(30000);
+Log.i(TAG, "打开次数：" + pool.getOpenCount() + "，复用次数：" + pool.getReuseCount());
+//退出时关闭全部空闲串口
+pool.close();
+ */
+@SuppressWarnings("unused")
+public class YSerialPortPool {
+    private static final String TAG = "YSerialPortPool";
+    private static final long DEFAULT_IDLE_TIMEOUT = 60000;//默认空闲超时，毫秒
+    private static volatile YSerialPortPool defaultPool;
+
+    //一个打开的串口
+    private static final class Entry {
+        final SerialPort serialPort;
+        boolean inUse;
+        long lastUsed;//归还时间，System.nanoTime()
+
+        Entry(SerialPort serialPort) {
+            this.serialPort = serialPort;
+        }
+    }
+
+    //按串口真实路径，同一个串口只有一个fd
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Set<String> opening = new HashSet<>();//正在打开的串口，打开不持锁
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private ScheduledThreadPoolExecutor cleaner;
+    private boolean closed;
+
+    //统计
+    private volatile long openCount;//打开次数
+    private volatile long reuseCount;//复用次数
+    private volatile long evictCount;//空闲超时关闭次数
+    private volatile long brokenCount;//检查不可用或归还时出错关闭次数
+    private volatile long reopenCount;//参数不同关闭后重新打开次数
+
+    /**
+     * 进程共用的连接池，静态sendSync*方法使用
+     *
+     * @return YSerialPortPool
+     */
+    public static YSerialPortPool getDefault() {
+        if (defaultPool == null) {
+            synchronized (YSerialPortPool.class) {
+                if (defaultPool == null) defaultPool = new YSerialPortPool();
+            }
+        }
+        return defaultPool;
+    }
+
+    /**
+     * 借出串口，8位数据位，无校验，1位停止位
+     *
+     * @param device   串口
+     * @param baudRate 波特率
+     * @return SerialPort，用完必须release()
+     * @throws IOException 打开失败
+     */
+    public SerialPort acquire(String device, int baudRate) throws IOException, InterruptedException {
+        return acquire(device, baudRate, 8, 0, 1);
+    }
+
+    /**
+     * 借出串口，已被借出时等待归还，没有打开的串口时打开，参数与已打开的不同时重新打开
+     *
+     * @param device   串口
+     * @param baudRate 波特率
+     * @param dataBits 数据位，5~8
+     * @param parity   奇偶校验，0:无；1:奇；2:偶
+     * @param stopBits 停止位，1或2
+     * @return SerialPort，用完必须release()
+     * @throws IOException 打开失败
+     */
+    public SerialPort acquire(String device, int baudRate, int dataBits, int parity, int stopBits) throws IOException, InterruptedException {
+        //符号链接（如/dev/serial/by-id/...）和设备本身是同一个串口
+        String path = new File(device).getCanonicalPath();
+        SerialPort old = null;
+        synchronized (this) {
+            while (true) {
+                if (closed) throw new IOException("连接池已关闭");
+                Entry entry = entries.get(path);
+                if (entry == null && !opening.contains(path)) break;
+                if (entry != null && !entry.inUse) {
+                    boolean healthy = isHealthy(entry.serialPort);
+                    if (healthy && matches(entry.serialPort, baudRate, dataBits, parity, stopBits)) {
+                        entry.inUse = true;
+                        reuseCount++;
+                        return entry.serialPort;
+                    }
+                    if (healthy) {
+                        Log.i(TAG, "串口参数不同，重新打开：" + path);
+                        reopenCount++;
+                    } else {
+                        Log.e(TAG, "串口不可用，重新打开：" + path);
+                        brokenCount++;
+                    }
+                    entries.remove(path);
+                    old = entry.serialPort;
+                    break;
+                }
+                wait();
+            }
+            opening.add(path);
+        }
+        //先关闭旧的fd再打开，同一个串口不会同时有两个fd
+        if (old != null) old.tryClose();
+        SerialPort serialPort = null;
+        try {
+            serialPort = SerialPort.newBuilder(new File(path), baudRate).dataBits(dataBits).parity(parity).stopBits(stopBits).build();
+        } finally {
+            synchronized (this) {
+                opening.remove(path);
+                if (serialPort != null) {
+                    Entry entry = new Entry(serialPort);
+                    entry.inUse = true;
+                    entries.put(path, entry);
+                    openCount++;
+                    ensureCleaner();
+                }
+                notifyAll();
+            }
+        }
+        return serialPort;
+    }
+
+    /**
+     * 归还串口
+     *
+     * @param serialPort acquire()借出的串口
+     */
+    public void release(SerialPort serialPort) {
+        release(serialPort, true);
+    }
+
+    /**
+     * 归还串口
+     *
+     * @param serialPort acquire()借出的串口
+     * @param healthy    false：读写出错，关闭串口，下次重新打开
+     */
+    public void release(SerialPort serialPort, boolean healthy) {
+        if (serialPort == null) return;
+        boolean close = true;
+        synchronized (this) {
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.serialPort != serialPort) continue;
+                if (healthy && !closed) {
+                    entry.inUse = false;
+                    entry.lastUsed = System.nanoTime();
+                    close = false;
+                } else {
+                    iterator.remove();
+                    if (!healthy) brokenCount++;
+                }
+                notifyAll();
+                break;
+            }
+        }
+        if (close) serialPort.tryClose();
+    }
+
+    private static boolean matches(SerialPort serialPort, int baudRate, int dataBits, int parity, int stopBits) {
+        return serialPort.getBaudRate() == baudRate && serialPort.getDataBits() == dataBits && serialPort.getParity() == parity && serialPort.getStopBits() == stopBits;
+    }
+
+    //fd仍然有效且设备文件还在
+    private static boolean isHealthy(SerialPort serialPort) {
+        try {
+            return serialPort.available() >= 0 && serialPort.getDevice().exists();
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 设置空闲超时，空闲超过该时间的串口被关闭
+     *
+     * @param idleTimeout 毫秒
+     */
+    public synchronized void setIdleTimeout(long idleTimeout) {
+        if (idleTimeout <= 0) throw new IllegalArgumentException("空闲超时必须大于0：" + idleTimeout);
+        this.idleTimeout = idleTimeout;
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+            cleaner = null;
+            if (!entries.isEmpty()) ensureCleaner();
+        }
+    }
+
+    public synchronized long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    //每半个空闲超时检查一次，需持有锁
+    private void ensureCleaner() {
+        if (cleaner != null) return;
+        cleaner = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "YSerialPortPool-清理线程");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(idleTimeout / 2, 1);
+        cleaner.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭空闲超时的串口，清理线程定时调用
+     *
+     * @return 关闭的个数
+     */
+    public int evictIdle() {
+        List<SerialPort> idle = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.inUse || now - entry.lastUsed < idleTimeout * 1000000L) continue;
+                iterator.remove();
+                idle.add(entry.serialPort);
+                evictCount++;
+            }
+            //没有串口时停止清理线程
+            if (entries.isEmpty() && cleaner != null) {
+                cleaner.shutdown();
+                cleaner = null;
+            }
+        }
+        for (SerialPort serialPort : idle) serialPort.tryClose();
+        return idle.size();
+    }
+
+    /**
+     * 关闭连接池，关闭全部空闲串口，借出的串口在归还时关闭
+     */
+    public void close() {
+        List<SerialPort> idle = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.inUse) continue;
+                iterator.remove();
+                idle.add(entry.serialPort);
+            }
+            if (cleaner != null) {
+                cleaner.shutdownNow();
+                cleaner = null;
+            }
+            notifyAll();
+        }
+        for (SerialPort serialPort : idle) serialPort.tryClose();
+        if (this == defaultPool) {
+            synchronized (YSerialPortPool.class) {
+                if (this == defaultPool) defaultPool = null;
+            }
+        }
+    }
+
+    /**
+     * 打开的串口数，包括借出的
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getOpenCount() {
+        return openCount;
+    }
+
+    public long getReuseCount() {
+        return reuseCount;
+    }
+
+    public long getEvictCount() {
+        return evictCount;
+    }
+
+    public long getBrokenCount() {
+        return brokenCount;
+    }
+
+    /**
+     * 借出时参数与已打开的不同，关闭后重新打开的次数
+     */
+    public long getReopenCount() {
+        return reopenCount;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String toString() {
+        return "YSerialPortPool{size=" + getSize() + ", open=" + openCount + ", reuse=" + reuseCount + ", evict=" + evictCount + ", broken=" + brokenCount + ", reopen=" + reopenCount + "}";
+    }
+}
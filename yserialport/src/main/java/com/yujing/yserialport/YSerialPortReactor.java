@@ -0,0 +1,293 @@
+package com.yujing.yserialport;
+
+import android.util.Log;
+
+import com.yujing.serialport.Epoll;
+import com.yujing.serialport.SerialPort;
+
+/**
+ * 串口反应器，一个线程通过epoll同时读取多个串口，代替每个串口一个读取线程
+ * 空闲的串口不会唤醒线程；组包超时（时间差、最长读取时间）由最近的超时时间点决定epoll等待时间，毫秒精度
+ * 所有回调都在反应器线程执行，不能阻塞，否则会影响其他串口
+ * 内核组包（VMIN/VTIME）的read()会阻塞，不能使用反应器
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//多个串口共用一个线程
+YSerialPortReactor reactor = YSerialPortReactor.getDefault();
+ySerialPort1.setReactor(reactor);
+ySerialPort2.setReactor(reactor);
+ySerialPort1.start();
+ySerialPort2.start();
+//线程被唤醒次数，空闲时不增长
+Log.i(TAG, "唤醒次数：" + reactor.getWakeupCount());
+
+//直接使用YReadInputStream
+YReadInputStream readInputStream = new YReadInputStream(serialPort, bytes -> {});
+readInputStream.setReactor(reactor);
+readInputStream.start();
+ */
+@SuppressWarnings("unused")
+public class YSerialPortReactor {
+    private static final String TAG = "YSerialPortReactor";
+    private static final int WAKEUP_ID = -1;//唤醒事件的id
+    private static final int MAX_EVENTS = 32;//每次epoll_wait最多返回的事件数
+    private static volatile YSerialPortReactor defaultReactor;
+
+    /**
+     * 串口事件处理，全部在反应器线程回调
+     */
+    public interface PortHandler {
+        /**
+         * 串口可读，必须把数据读走，否则会被反复唤醒
+         *
+         * @param serialPort 串口
+         * @return false：串口已关闭，自动注销
+         * @throws Exception Exception
+         */
+        boolean onReadable(SerialPort serialPort) throws Exception;
+
+        /**
+         * 下一次超时的时间点，System.nanoTime()，没有超时返回Long.MAX_VALUE
+         *
+         * @return 时间点，纳秒
+         */
+        long getDeadline();
+
+        /**
+         * 到达超时时间点，先处理完可读事件后才回调
+         *
+         * @param now 当前时间，System.nanoTime()
+         * @throws Exception Exception
+         */
+        void onDeadline(long now) throws Exception;
+
+        /**
+         * 串口不可读（已关闭、设备断开），已自动注销
+         */
+        void onClosed();
+    }
+
+    private static final class Entry {
+        final int id;
+        final SerialPort serialPort;
+        final PortHandler handler;
+
+        Entry(int id, SerialPort serialPort, PortHandler handler) {
+            this.id = id;
+            this.serialPort = serialPort;
+            this.handler = handler;
+        }
+    }
+
+    private final Object lock = new Object();
+    //注册的串口，修改时整体替换，反应器线程无锁遍历
+    private volatile Entry[] entries = new Entry[0];
+    private int nextId;
+    private int epfd = -1;
+    private int wakeFd = -1;
+    private Thread thread;
+    private volatile boolean closed;
+    private volatile long wakeupCount;//反应器线程被唤醒的次数
+
+    /**
+     * 进程共用的反应器
+     *
+     * @return YSerialPortReactor
+     */
+    public static YSerialPortReactor getDefault() {
+        if (defaultReactor == null) {
+            synchronized (YSerialPortReactor.class) {
+                if (defaultReactor == null) defaultReactor = new YSerialPortReactor();
+            }
+        }
+        return defaultReactor;
+    }
+
+    /**
+     * 注册串口，第一次注册时启动反应器线程
+     *
+     * @param serialPort 串口
+     * @param handler    事件处理
+     * @return 是否成功
+     */
+    public boolean register(SerialPort serialPort, PortHandler handler) {
+        synchronized (lock) {
+            if (closed) {
+                Log.e(TAG, "反应器已关闭，不能注册");
+                return false;
+            }
+            if (!ensureStarted()) return false;
+            int id = nextId++ & Integer.MAX_VALUE;
+            if (Epoll.add(epfd, serialPort, id) < 0) {
+                Log.e(TAG, "串口加入epoll失败");
+                return false;
+            }
+            Entry[] old = entries;
+            Entry[] current = new Entry[old.length + 1];
+            System.arraycopy(old, 0, current, 0, old.length);
+            current[old.length] = new Entry(id, serialPort, handler);
+            entries = current;
+            //唤醒反应器线程，重新计算超时时间
+            Epoll.wakeup(wakeFd);
+            return true;
+        }
+    }
+
+    /**
+     * 注销串口
+     *
+     * @param handler 注册时的事件处理
+     * @return 是否找到并注销
+     */
+    public boolean unregister(PortHandler handler) {
+        //与closeFds()同一把锁，epfd关闭后不再使用
+        synchronized (lock) {
+            Entry[] old = entries;
+            for (int i = 0; i < old.length; i++) {
+                if (old[i].handler != handler) continue;
+                Entry[] current = new Entry[old.length - 1];
+                System.arraycopy(old, 0, current, 0, i);
+                System.arraycopy(old, i + 1, current, i, old.length - i - 1);
+                entries = current;
+                if (epfd >= 0) {
+                    Epoll.remove(epfd, old[i].serialPort);
+                    Epoll.wakeup(wakeFd);
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 关闭反应器，停止线程，已注册的串口不再读取，但不会关闭串口
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            entries = new Entry[0];
+            if (thread != null) Epoll.wakeup(wakeFd);
+            else closeFds();
+        }
+        if (this == defaultReactor) defaultReactor = null;
+    }
+
+    //创建epoll并启动反应器线程
+    private boolean ensureStarted() {
+        if (thread != null) return true;
+        epfd = Epoll.create();
+        if (epfd < 0) return false;
+        wakeFd = Epoll.createWakeup(epfd, WAKEUP_ID);
+        if (wakeFd < 0) {
+            Epoll.close(epfd);
+            epfd = -1;
+            return false;
+        }
+        thread = new Thread(this::loop);
+        thread.setName("YSerialPortReactor-读取线程");
+        thread.start();
+        return true;
+    }
+
+    private void closeFds() {
+        Epoll.close(wakeFd);
+        Epoll.close(epfd);
+        wakeFd = epfd = -1;
+    }
+
+    private void loop() {
+        Log.i(TAG, "开启反应器线程");
+        final int[] events = new int[MAX_EVENTS * 2];
+        while (!closed) {
+            //最近的超时时间点决定等待时间，没有超时就一直等
+            long deadline = Long.MAX_VALUE;
+            for (Entry entry : entries) deadline = Math.min(deadline, entry.handler.getDeadline());
+            int timeout = -1;
+            if (deadline != Long.MAX_VALUE) {
+                long wait = deadline - System.nanoTime();
+                //向上取整到毫秒，避免提前醒来空转
+                timeout = wait <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, (wait + 999999L) / 1000000L);
+            }
+            int count = Epoll.wait(epfd, events, timeout);
+            wakeupCount++;
+            if (count < 0) {
+                Log.e(TAG, "epoll_wait失败，退出反应器线程");
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                int id = events[i * 2];
+                if (id == WAKEUP_ID) {
+                    Epoll.clearWakeup(wakeFd);
+                    continue;
+                }
+                Entry entry = find(id);
+                if (entry == null) continue;
+                boolean readable = events[i * 2 + 1] == Epoll.READABLE;
+                try {
+                    if (readable) readable = entry.handler.onReadable(entry.serialPort);
+                } catch (Throwable e) {
+                    //数据没有读走，水平触发会一直返回这个串口，注销避免空转
+                    Log.e(TAG, "读取异常", e);
+                    readable = false;
+                }
+                if (!readable) {
+                    Log.e(TAG, "串口不可读，注销");
+                    if (unregister(entry.handler)) entry.handler.onClosed();
+                }
+            }
+            //先处理完可读数据，再处理到期的超时，已到期但仍有未读数据视为同一包
+            long now = System.nanoTime();
+            for (Entry entry : entries) {
+                if (entry.handler.getDeadline() > now) continue;
+                try {
+                    entry.handler.onDeadline(now);
+                } catch (Throwable e) {
+                    Log.e(TAG, "超时处理异常", e);
+                }
+            }
+        }
+        synchronized (lock) {
+            closed = true;
+            entries = new Entry[0];
+            thread = null;
+            closeFds();
+        }
+        Log.i(TAG, "关闭反应器线程");
+    }
+
+    private Entry find(int id) {
+        for (Entry entry : entries) {
+            if (entry.id == id) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * 当前线程是否为反应器线程，在反应器线程的回调中不能等待
+     */
+    public boolean isReactorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 已注册的串口数
+     */
+    public int getPortCount() {
+        return entries.length;
+    }
+
+    /**
+     * 反应器线程被唤醒的次数，空闲时不增长
+     */
+    public long getWakeupCount() {
+        return wakeupCount;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
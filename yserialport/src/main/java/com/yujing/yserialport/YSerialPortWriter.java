@@ -0,0 +1,392 @@
+package com.yujing.yserialport;
+
+import android.util.Log;
+
+import com.yujing.serialport.SerialPort;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 串口发送线程，每个串口一个长期存在的发送线程，从有界队列中按提交顺序逐帧写入
+ * 多个线程同时发送也不会交错，不再每次发送都创建线程
+ * 队列满时按{@link OverflowPolicy}处理；可获取队列深度和从入队到写完的延迟
+ * 开启批量发送后，时间窗口内或字节预算内的多帧合并为一次writev()写入
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+//一般通过YSerialPort使用，队列长度256，队列满时丢弃最早的数据
+ySerialPort.setSendQueue(256, OverflowPolicy.DROP_OLDEST);
+ySerialPort.send(bytes, result -> {});
+YSerialPortWriter writer = ySerialPort.getWriter();
+Log.i(TAG, "队列深度：" + writer.getQueueSize() + "，平均延迟：" + writer.getAverageLatency() / 1000 + "us");
+//批量发送，2毫秒内或1024字节内的帧合并为一次writev()
+ySerialPort.setSendBatch(2, 1024);
+Log.i(TAG, "帧数：" + writer.getSentCount() + "，写入次数：" + writer.getWriteCount());
+ */
+@SuppressWarnings("unused")
+public class YSerialPortWriter {
+    private static final String TAG = "YSerialPortWriter";
+    private final YSerialPort ySerialPort;
+    private final BlockingQueue<Task> queue;
+    private final OverflowPolicy overflowPolicy;
+    private Thread thread;
+    private volatile boolean stopped;
+
+    //批量发送
+    private volatile long batchWindow;//合并时间窗口，纳秒
+    private volatile int batchBytes;//每批最多字节数，小于等于0不合并
+    private Task pending;//超出上一批字节预算的帧，下一批先发送，只在发送线程使用
+    private final Task[] batch = new Task[SerialPort.WRITEV_MAX_SEGMENTS];
+    private final byte[][] buffers = new byte[SerialPort.WRITEV_MAX_SEGMENTS][];
+    private final int[] offsets = new int[SerialPort.WRITEV_MAX_SEGMENTS];
+    private final int[] lengths = new int[SerialPort.WRITEV_MAX_SEGMENTS];
+
+    //统计，sent、write、failed和延迟只在发送线程修改；rejected、dropped、cancelled在各发送方线程修改
+    private volatile long sentCount;//写入成功帧数
+    private volatile long writeCount;//写入次数，一批算一次
+    private volatile long failedCount;//写入失败帧数
+    private final AtomicLong rejectedCount = new AtomicLong();//队列满被拒绝帧数
+    private final AtomicLong droppedCount = new AtomicLong();//队列满被丢弃的最早帧数
+    private final AtomicLong cancelledCount = new AtomicLong();//写入前被取消的帧数
+    private volatile long lastLatency;//最近一帧从入队到写完的时间，纳秒
+    private volatile long maxLatency;//最大延迟，纳秒
+    private volatile long totalLatency;//总延迟，纳秒
+
+    //一次发送，enqueue()返回，写入开始前可cancel()
+    static final class Task {
+        final byte[] bytes;
+        final Runnable onWrite;
+        final YListener<Boolean> listener;
+        final YListener<Integer> progressListener;
+        final long enqueueTime = System.nanoTime();
+
+        Task(byte[] bytes, Runnable onWrite, YListener<Boolean> listener, YListener<Integer> progressListener) {
+            this.bytes = bytes;
+            this.onWrite = onWrite;
+            this.listener = listener;
+            this.progressListener = progressListener;
+        }
+    }
+
+    /**
+     * @param ySerialPort    通过ySerialPort.sendSynchronization()写入，串口重启后继续使用
+     * @param capacity       队列长度
+     * @param overflowPolicy 队列满时的处理方式
+     */
+    public YSerialPortWriter(YSerialPort ySerialPort, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) throw new IllegalArgumentException("队列长度必须大于0：" + capacity);
+        this.ySerialPort = ySerialPort;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * 加入发送队列，由发送线程按提交顺序写入
+     *
+     * @param bytes            数据
+     * @param listener         写入结果，在发送线程回调；被拒绝时在调用线程回调false
+     * @param progressListener 进度监听，返回已经发送长度
+     * @return 是否加入队列
+     */
+    public boolean send(byte[] bytes, YListener<Boolean> listener, YListener<Integer> progressListener) {
+        return send(bytes, null, listener, progressListener);
+    }
+
+    /**
+     * 加入发送队列，onWrite在发送线程开始写入这一帧之前回调
+     */
+    boolean send(byte[] bytes, Runnable onWrite, YListener<Boolean> listener, YListener<Integer> progressListener) {
+        return enqueue(bytes, onWrite, listener, progressListener) != null;
+    }
+
+    /**
+     * 加入发送队列，返回的Task可以cancel()，没有加入队列时返回null，listener已回调false
+     * BLOCK队列满时阻塞到有空位，中断则拒绝
+     */
+    Task enqueue(byte[] bytes, Runnable onWrite, YListener<Boolean> listener, YListener<Integer> progressListener) {
+        if (bytes == null) {
+            Log.e(TAG, "发送的数据不能为null");
+            if (listener != null) listener.value(false);
+            return null;
+        }
+        if (stopped) {
+            Log.e(TAG, "发送线程已停止");
+            if (listener != null) listener.value(false);
+            return null;
+        }
+        ensureStarted();
+        Task task = new Task(bytes, onWrite, listener, progressListener);
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return reject(task);
+                }
+                return checkStopped(task);
+            case DROP_OLDEST:
+                while (!queue.offer(task)) {
+                    Task oldest = queue.poll();
+                    if (oldest != null) {
+                        droppedCount.incrementAndGet();
+                        if (oldest.listener != null) oldest.listener.value(false);
+                    }
+                }
+                return checkStopped(task);
+            default:
+                return queue.offer(task) ? checkStopped(task) : reject(task);
+        }
+    }
+
+    //入队期间stop()可能已经清空队列，发送线程不会再取，自己取回并回调false
+    private Task checkStopped(Task task) {
+        if (!stopped || !queue.remove(task)) return task;
+        Log.e(TAG, "发送线程已停止");
+        if (task.listener != null) task.listener.value(false);
+        return null;
+    }
+
+    private Task reject(Task task) {
+        rejectedCount.incrementAndGet();
+        Log.e(TAG, "发送队列已满，拒绝发送");
+        if (task.listener != null) task.listener.value(false);
+        return null;
+    }
+
+    /**
+     * 取消还在队列中的发送，不再写入，也不回调listener
+     * 发送线程已经取出（正在写入或在批量发送中等待）的帧不能取消
+     *
+     * @return 是否取消
+     */
+    boolean cancel(Task task) {
+        if (task == null || !queue.remove(task)) return false;
+        cancelledCount.incrementAndGet();
+        return true;
+    }
+
+    private synchronized void ensureStarted() {
+        if (thread != null) return;
+        thread = new Thread(this::loop);
+        thread.setName("YSerialPortWriter-发送线程");
+        thread.start();
+    }
+
+    /**
+     * 设置批量发送，从取到第一帧开始window纳秒内入队的帧，或累计到maxBytes字节，通过一次writev()写入
+     *
+     * @param window   合并时间窗口，纳秒，0只合并已经在队列中的帧
+     * @param maxBytes 每批最多字节数，小于等于0关闭批量发送
+     */
+    public void setBatch(long window, int maxBytes) {
+        this.batchWindow = Math.max(window, 0);
+        this.batchBytes = maxBytes;
+    }
+
+    private void loop() {
+        while (!stopped) {
+            Task task = pending;
+            pending = null;
+            if (task == null) {
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            SerialPort serialPort = ySerialPort.getSerialPort();
+            if (batchBytes > 0 && serialPort != null) {
+                writeBatch(serialPort, task);
+            } else {
+                beforeWrite(task);
+                boolean result = ySerialPort.sendSynchronization(task.bytes, task.progressListener);
+                writeCount++;
+                finish(task, result);
+            }
+        }
+        if (pending != null) {
+            finish(pending, false);
+            pending = null;
+        }
+    }
+
+    //合并窗口内、预算内的帧，一次writev()写入
+    private void writeBatch(SerialPort serialPort, Task first) {
+        int count = 0;
+        int bytes = 0;
+        batch[count++] = first;
+        bytes += first.bytes.length;
+        final long deadline = System.nanoTime() + batchWindow;
+        while (count < batch.length && bytes < batchBytes) {
+            Task next;
+            long wait = deadline - System.nanoTime();
+            try {
+                next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (next == null) break;
+            if (bytes + next.bytes.length > batchBytes) {
+                pending = next;
+                break;
+            }
+            batch[count++] = next;
+            bytes += next.bytes.length;
+        }
+        for (int i = 0; i < count; i++) {
+            beforeWrite(batch[i]);
+            buffers[i] = batch[i].bytes;
+            offsets[i] = 0;
+            lengths[i] = batch[i].bytes.length;
+        }
+        boolean result;
+        try {
+            result = serialPort.writev(buffers, offsets, lengths, count) == bytes;
+        } catch (Throwable e) {
+            Log.e(TAG, "发送失败", e);
+            result = false;
+        }
+        writeCount++;
+        for (int i = 0; i < count; i++) {
+            final Task task = batch[i];
+            batch[i] = null;
+            buffers[i] = null;
+            if (result && task.progressListener != null) ySerialPort.post(() -> task.progressListener.value(task.bytes.length));
+            finish(task, result);
+        }
+    }
+
+    private static void beforeWrite(Task task) {
+        if (task.onWrite == null) return;
+        try {
+            task.onWrite.run();
+        } catch (Throwable e) {
+            Log.e(TAG, "发送回调异常", e);
+        }
+    }
+
+    //统计并回调结果
+    private void finish(Task task, boolean result) {
+        long latency = System.nanoTime() - task.enqueueTime;
+        lastLatency = latency;
+        if (latency > maxLatency) maxLatency = latency;
+        totalLatency += latency;
+        if (result) sentCount++;
+        else failedCount++;
+        if (task.listener != null) {
+            try {
+                task.listener.value(result);
+            } catch (Throwable e) {
+                Log.e(TAG, "发送回调异常", e);
+            }
+        }
+    }
+
+    /**
+     * 停止发送线程，队列中未发送的数据回调false
+     */
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (thread != null) thread.interrupt();
+        }
+        Task task;
+        while ((task = queue.poll()) != null) {
+            if (task.listener != null) task.listener.value(false);
+        }
+    }
+
+    /**
+     * 队列中等待发送的帧数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 队列剩余空位
+     */
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * 写入次数，批量发送时一批算一次，可与getSentCount()比较合并效果
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    public int getBatchBytes() {
+        return batchBytes;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * 写入前被取消的帧数，如协程sendAwait()被取消
+     */
+    public long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    /**
+     * 最近一帧从入队到写完的时间，纳秒
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * 从入队到写完的最大时间，纳秒
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * 从入队到写完的平均时间，纳秒
+     */
+    public long getAverageLatency() {
+        long count = sentCount + failedCount;
+        return count == 0 ? 0 : totalLatency / count;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public String toString() {
+        return "YSerialPortWriter{queue=" + queue.size() + ", sent=" + sentCount + ", writes=" + writeCount + ", failed=" + failedCount + ", rejected=" + rejectedCount.get() + ", dropped=" + droppedCount.get() + ", cancelled=" + cancelledCount.get() + ", avgLatency=" + getAverageLatency() / 1000 + "us, maxLatency=" + maxLatency / 1000 + "us}";
+    }
+}
@@ -0,0 +1,96 @@
+package com.yujing.yserialport;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者无锁环形队列，槽位预先分配，入队出队不加锁也不创建对象
+ * 只允许一个线程offer()、一个线程poll()，用于读取线程把帧交给分发线程
+ *
+ * @param <E> 元素类型
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YSpscRing<byte[]> ring = new YSpscRing<>(1024);
+//读取线程
+if (!ring.offer(bytes)) {
+    //队列满
+}
+//分发线程，一次唤醒取完
+byte[] bytes;
+while ((bytes = ring.poll()) != null) {
+}
+ */
+@SuppressWarnings({"unused", "unchecked"})
+public final class YSpscRing<E> {
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();//下一个读取位置，只有消费者修改
+    private final AtomicLong tail = new AtomicLong();//下一个写入位置，只有生产者修改
+    private long headCache;//生产者看到的head，只在生产者线程使用，减少读取对方的计数
+    private long tailCache;//消费者看到的tail，只在消费者线程使用
+
+    /**
+     * @param capacity 容量，向上取整到2的幂
+     */
+    public YSpscRing(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) throw new IllegalArgumentException("容量必须在1~2^30之间：" + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        slots = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * 入队，只能在生产者线程调用
+     *
+     * @param e 元素，不能为null
+     * @return false：队列满
+     */
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException("元素不能为null");
+        final long t = tail.get();
+        if (t - headCache >= slots.length) {
+            headCache = head.get();
+            if (t - headCache >= slots.length) return false;
+        }
+        slots[(int) t & mask] = e;
+        //写槽位在前，发布tail在后
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 出队，只能在消费者线程调用
+     *
+     * @return 队列空返回null
+     */
+    public E poll() {
+        final long h = head.get();
+        if (h >= tailCache) {
+            tailCache = tail.get();
+            if (h >= tailCache) return null;
+        }
+        final int index = (int) h & mask;
+        E e = (E) slots[index];
+        slots[index] = null;
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    /**
+     * 当前元素个数，并发时为近似值
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
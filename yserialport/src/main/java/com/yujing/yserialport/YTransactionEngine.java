@@ -0,0 +1,502 @@
+package com.yujing.yserialport;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 请求/应答事务引擎，建立在已打开的YSerialPort上，请求经发送线程按顺序写入，应答来自读取线程的组包结果
+ * 每个请求带一个{@link ResponseMatcher}，收到的帧按发送顺序匹配在途请求，匹配上的交给该请求，匹配不上的照常回调DataListener
+ * 发送线程开始写入请求后才参与匹配，排队期间收到的帧（如设备主动上报）不会被当成应答；超时从写完开始计算
+ * 交给发送线程时不持有锁，发送队列满（BLOCK）时只阻塞提交的线程；读取、发送、超时线程中完成的请求，由超时线程继续发送排队的请求
+ * 协议允许时可同时有多个请求在途（如按地址或序号区分应答），不再发一条等一条；超时由一个共用的定时线程处理
+ * 组包方式推荐setFrameDecoder()，按协议结构切帧，粘包时也能一帧一帧匹配
+ *
+ * @author yujing 2026年10月18日
+ */
+/*
+用法：
+YSerialPort ySerialPort = new YSerialPort(this, "/dev/ttyS4", "9600");
+ySerialPort.setFrameDecoder(new LengthFieldFrameDecoder(2, 1, 2, 260));
+ySerialPort.addDataListener((hexString, bytes) -> {
+    //不属于任何请求的帧，如设备主动上报
+});
+ySerialPort.start();
+YTransactionEngine engine = ySerialPort.getTransactionEngine();
+//同时最多8个请求在途
+engine.setMaxInFlight(8);
+//异步，地址(第0字节)和命令(第1字节)回显作为匹配条件，超时500毫秒
+engine.submit(request, ResponseMatcher.field(0, 2), 500, new YTransactionEngine.Callback() {
+    @Override
+    public void onResponse(byte[] response) {
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+        //TimeoutException：超时；CancellationException：已取消；IOException：发送失败或串口已关闭
+    }
+});
+//同步，不能在读取线程和回调线程中调用
+byte[] response = engine.transact(request, ResponseMatcher.field(0, 2), 500);
+//CompletableFuture，API 24以上，可同时向多个串口发请求再合并结果
+CompletableFuture<byte[]> future = engine.submitAsync(request, ResponseMatcher.field(0, 2), 500);
+ */
+@SuppressWarnings("unused")
+public class YTransactionEngine {
+    private static final String TAG = "YTransactionEngine";
+    //所有引擎共用一个超时线程
+    private static ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 事务结果回调，线程由YSerialPort的ThreadMode决定
+     */
+    public interface Callback {
+        /**
+         * 收到应答
+         *
+         * @param response 应答
+         */
+        void onResponse(byte[] response);
+
+        /**
+         * 失败
+         *
+         * @param e TimeoutException：超时；CancellationException：已取消；IOException：发送失败或串口已关闭
+         */
+        void onFailure(Exception e);
+    }
+
+    /**
+     * 把请求交给发送线程，开始写入前回调onWrite，写完或失败回调listener
+     */
+    interface Sender {
+        void send(byte[] request, Runnable onWrite, YListener<Boolean> listener);
+    }
+
+    //事务状态
+    private static final int WAITING = 0;//排队，等待在途请求数有空位
+    private static final int SENDING = 1;//已占在途名额，在发送队列中，不参与匹配
+    private static final int WRITING = 2;//发送线程已开始写入，参与匹配，写完后开始计算超时
+    private static final int DONE = 3;//已完成
+
+    /**
+     * 一次请求/应答
+     */
+    public final class Transaction {
+        private final byte[] request;
+        private final ResponseMatcher matcher;
+        private final int timeOut;
+        private final Callback callback;
+        private final boolean post;//回调是否按ThreadMode切换线程
+        private final long submitTime = System.nanoTime();
+        private int state = WAITING;
+        private ScheduledFuture<?> timeoutFuture;
+
+        private Transaction(byte[] request, ResponseMatcher matcher, int timeOut, Callback callback, boolean post) {
+            this.request = request;
+            this.matcher = matcher;
+            this.timeOut = timeOut;
+            this.callback = callback;
+            this.post = post;
+        }
+
+        /**
+         * 取消，回调CancellationException；已发送的请求无法撤回，迟到的应答按不匹配处理
+         *
+         * @return 是否取消成功，已完成返回false
+         */
+        public boolean cancel() {
+            if (!fail(this, new CancellationException("已取消"))) return false;
+            pump();
+            return true;
+        }
+
+        public boolean isDone() {
+            synchronized (YTransactionEngine.this) {
+                return state == DONE;
+            }
+        }
+
+        public byte[] getRequest() {
+            return request;
+        }
+
+        /**
+         * 提交时间，System.nanoTime()
+         */
+        public long getSubmitTime() {
+            return submitTime;
+        }
+    }
+
+    private final Sender sender;
+    private final Executor callbackExecutor;//按ThreadMode切换线程
+    private final ArrayDeque<Transaction> waiting = new ArrayDeque<>();
+    private final List<Transaction> inFlight = new ArrayList<>();
+    private final ArrayDeque<Transaction> outbox = new ArrayDeque<>();//已占在途名额，等待交给发送线程
+    private boolean draining;//有线程正在把outbox交给发送线程，同时只有一个，保证按提交顺序
+    private int maxInFlight = 1;
+    private boolean closed;
+
+    //统计
+    private volatile long completedCount;//收到应答
+    private volatile long timeoutCount;//超时
+    private volatile long failedCount;//发送失败、取消、关闭
+    private volatile long unmatchedCount;//没有匹配请求，交给DataListener的帧
+    private volatile long totalLatency;//提交到收到应答的总时间，纳秒
+
+    /**
+     * 一般通过ySerialPort.getTransactionEngine()获取
+     *
+     * @param ySerialPort 串口
+     */
+    public YTransactionEngine(YSerialPort ySerialPort) {
+        this((request, onWrite, listener) -> ySerialPort.getWriter().send(request, onWrite, listener, null), ySerialPort::post);
+    }
+
+    /**
+     * @param sender           发送
+     * @param callbackExecutor post为true的回调在这里执行
+     */
+    YTransactionEngine(Sender sender, Executor callbackExecutor) {
+        this.sender = sender;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * 设置最多同时在途的请求数，一问一答的协议为1（默认），按地址、序号区分应答的协议可以大于1
+     *
+     * @param maxInFlight 在途请求数
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) throw new IllegalArgumentException("在途请求数必须大于0：" + maxInFlight);
+        synchronized (this) {
+            this.maxInFlight = maxInFlight;
+        }
+        pump();
+    }
+
+    /**
+     * 提交请求，异步等待应答
+     *
+     * @param request  请求
+     * @param matcher  应答匹配
+     * @param timeOut  从写完请求开始的超时毫秒，小于等于0一直等
+     * @param callback 结果回调
+     * @return Transaction，可取消
+     */
+    public Transaction submit(byte[] request, ResponseMatcher matcher, int timeOut, Callback callback) {
+        return submit(request, matcher, timeOut, callback, true);
+    }
+
+    /**
+     * 提交请求并阻塞等待应答，不能在读取线程和回调线程中调用
+     *
+     * @param request 请求
+     * @param matcher 应答匹配
+     * @param timeOut 从写完请求开始的超时毫秒，小于等于0一直等
+     * @return 应答
+     * @throws Exception TimeoutException：超时；IOException：发送失败或串口已关闭
+     */
+    public byte[] transact(byte[] request, ResponseMatcher matcher, int timeOut) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final byte[][] response = new byte[1][];
+        final Exception[] error = new Exception[1];
+        Transaction transaction = submit(request, matcher, timeOut, new Callback() {
+            @Override
+            public void onResponse(byte[] bytes) {
+                response[0] = bytes;
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                error[0] = e;
+                latch.countDown();
+            }
+        }, false);
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            transaction.cancel();
+            throw e;
+        }
+        if (error[0] != null) throw error[0];
+        return response[0];
+    }
+
+    /**
+     * 提交请求，返回CompletableFuture，不阻塞也不额外创建线程
+     * <p>
+     * future在读取线程（收到应答）、发送线程（发送失败）或超时线程中完成，后续的thenApply等同步阶段也在这些线程执行，不能阻塞，耗时处理请用thenApplyAsync(fn, executor)
+     * future.cancel()取消请求，还在排队的不再发送
+     *
+     * @param request 请求
+     * @param matcher 应答匹配
+     * @param timeOut 从写完请求开始的超时毫秒，小于等于0一直等
+     * @return CompletableFuture，超时以TimeoutException完成，发送失败或串口关闭以IOException完成
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    public CompletableFuture<byte[]> submitAsync(byte[] request, ResponseMatcher matcher, int timeOut) {
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        final Transaction transaction = submit(request, matcher, timeOut, new Callback() {
+            @Override
+            public void onResponse(byte[] response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                future.completeExceptionally(e);
+            }
+        }, false);
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) transaction.cancel();
+        });
+        return future;
+    }
+
+    /**
+     * 提交请求，异步等待应答
+     *
+     * @param request  请求
+     * @param matcher  应答匹配
+     * @param timeOut  从写完请求开始的超时毫秒，小于等于0一直等
+     * @param callback 结果回调
+     * @param post     true：按ThreadMode切换线程回调；false：在读取、发送或超时线程直接回调，不能阻塞
+     * @return Transaction，可取消
+     */
+    public Transaction submit(byte[] request, ResponseMatcher matcher, int timeOut, Callback callback, boolean post) {
+        if (request == null || matcher == null) throw new NullPointerException("request和matcher不能为null");
+        Transaction transaction = new Transaction(request, matcher, timeOut, callback, post);
+        boolean rejected;
+        synchronized (this) {
+            rejected = closed;
+            if (closed) transaction.state = DONE;
+            else waiting.add(transaction);
+        }
+        if (rejected) deliver(transaction, null, new IOException("事务引擎已关闭"));
+        else pump();
+        return transaction;
+    }
+
+    //在途请求数有空位时，按提交顺序发送排队的请求
+    private void pump() {
+        synchronized (this) {
+            while (!closed && inFlight.size() < maxInFlight && !waiting.isEmpty()) {
+                Transaction transaction = waiting.poll();
+                transaction.state = SENDING;
+                inFlight.add(transaction);
+                outbox.add(transaction);
+            }
+            //已有线程在发送，由它按顺序发完
+            if (draining || outbox.isEmpty()) return;
+            draining = true;
+        }
+        while (true) {
+            final Transaction transaction;
+            synchronized (this) {
+                transaction = outbox.poll();
+                if (transaction == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            //不持有锁，BLOCK时在这里等待发送队列空位，发送线程的回调不会被挡住
+            try {
+                sender.send(transaction.request, () -> onWrite(transaction), result -> onWritten(transaction, result));
+            } catch (Throwable e) {
+                Log.e(TAG, "发送异常", e);
+                if (fail(transaction, new IOException("发送失败", e))) schedulePump();
+            }
+        }
+    }
+
+    //在读取、发送、超时线程中完成请求后，交给超时线程继续发送，这些线程不能等待发送队列
+    private void schedulePump() {
+        synchronized (this) {
+            if (closed || waiting.isEmpty()) return;
+        }
+        getScheduler().execute(this::pump);
+    }
+
+    //开始写入后才参与匹配，应答最早也要在写入之后到达，在发送线程回调
+    private synchronized void onWrite(Transaction transaction) {
+        if (transaction.state == SENDING) transaction.state = WRITING;
+    }
+
+    //写完后开始计算超时，在发送线程回调
+    private void onWritten(final Transaction transaction, boolean result) {
+        if (!result) {
+            if (fail(transaction, new IOException("发送失败"))) schedulePump();
+            return;
+        }
+        synchronized (this) {
+            if (transaction.state != WRITING || transaction.timeOut <= 0) return;
+            transaction.timeoutFuture = getScheduler().schedule(() -> {
+                if (fail(transaction, new TimeoutException("读取超时"))) schedulePump();
+            }, transaction.timeOut, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 收到一帧，按发送顺序匹配已开始写入的请求，在读取线程调用
+     *
+     * @param frame 帧
+     * @return 是否匹配到请求，false时应交给DataListener
+     */
+    boolean onFrame(byte[] frame) {
+        Transaction matched = null;
+        synchronized (this) {
+            for (Transaction transaction : inFlight) {
+                if (transaction.state == WRITING && matches(transaction, frame)) {
+                    matched = transaction;
+                    break;
+                }
+            }
+            if (matched == null) {
+                unmatchedCount++;
+                return false;
+            }
+            finish(matched);
+            completedCount++;
+            totalLatency += System.nanoTime() - matched.submitTime;
+        }
+        deliver(matched, frame, null);
+        schedulePump();
+        return true;
+    }
+
+    private static boolean matches(Transaction transaction, byte[] frame) {
+        try {
+            return transaction.matcher.matches(transaction.request, frame);
+        } catch (Throwable e) {
+            Log.e(TAG, "应答匹配异常", e);
+            return false;
+        }
+    }
+
+    private boolean fail(Transaction transaction, Exception e) {
+        synchronized (this) {
+            if (transaction.state == DONE) return false;
+            finish(transaction);
+            if (e instanceof TimeoutException) timeoutCount++;
+            else failedCount++;
+        }
+        deliver(transaction, null, e);
+        return true;
+    }
+
+    //标记完成并移出队列，需持有锁
+    private void finish(Transaction transaction) {
+        if (transaction.state == WAITING) {
+            waiting.remove(transaction);
+        } else {
+            inFlight.remove(transaction);
+            if (transaction.state == SENDING) outbox.remove(transaction);
+        }
+        transaction.state = DONE;
+        if (transaction.timeoutFuture != null) transaction.timeoutFuture.cancel(false);
+    }
+
+    private void deliver(final Transaction transaction, final byte[] response, final Exception e) {
+        final Callback callback = transaction.callback;
+        if (callback == null) return;
+        Runnable runnable = () -> {
+            try {
+                if (e == null) callback.onResponse(response);
+                else callback.onFailure(e);
+            } catch (Throwable t) {
+                Log.e(TAG, "事务回调异常", t);
+            }
+        };
+        if (transaction.post) callbackExecutor.execute(runnable);
+        else runnable.run();
+    }
+
+    /**
+     * 关闭，全部未完成的请求回调IOException，之后提交的请求直接失败
+     */
+    public void close() {
+        List<Transaction> pending;
+        synchronized (this) {
+            closed = true;
+            pending = new ArrayList<>(inFlight);
+            pending.addAll(waiting);
+        }
+        for (Transaction transaction : pending) fail(transaction, new IOException("串口已关闭"));
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor getScheduler() {
+        if (scheduler == null) {
+            scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "YTransactionEngine-超时线程");
+                thread.setDaemon(true);
+                return thread;
+            });
+            //取消的超时任务立即移出队列，API 21以下等到期后移除
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 在途请求数，包括已交给发送线程还没写完的
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 排队等待发送的请求数
+     */
+    public synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getUnmatchedCount() {
+        return unmatchedCount;
+    }
+
+    /**
+     * 从提交到收到应答的平均时间，纳秒
+     */
+    public long getAverageLatency() {
+        long count = completedCount;
+        return count == 0 ? 0 : totalLatency / count;
+    }
+
+    @Override
+    public String toString() {
+        return "YTransactionEngine{inFlight=" + getInFlightCount() + ", waiting=" + getWaitingCount() + ", completed=" + completedCount + ", timeout=" + timeoutCount + ", failed=" + failedCount + ", unmatched=" + unmatchedCount + ", avgLatency=" + getAverageLatency() / 1000 + "us}";
+    }
+}
@@ -0,0 +1,136 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the built-in FrameDecoder implementations and YReadInputStream.decode
+ */
+public class FrameDecoderTest {
+
+    // Feeds the stream in chunks of the given sizes and collects every emitted frame
+    private static List<byte[]> feed(FrameDecoder decoder, byte[] stream, int... chunks) {
+        final List<byte[]> frames = new ArrayList<>();
+        YByteArray buffer = new YByteArray();
+        int position = 0;
+        int i = 0;
+        while (position < stream.length) {
+            int length = Math.min(chunks[i++ % chunks.length], stream.length - position);
+            buffer.add(stream, position, length);
+            position += length;
+            YReadInputStream.decode(decoder, buffer, frames::add);
+        }
+        return frames;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        YByteArray bytes = new YByteArray();
+        for (byte[] part : parts) bytes.add(part);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testFixedLengthAcrossSplits() {
+        byte[] stream = new byte[40];
+        for (int i = 0; i < stream.length; i++) stream[i] = (byte) i;
+        for (int chunk = 1; chunk <= 40; chunk++) {
+            List<byte[]> frames = feed(new FixedLengthFrameDecoder(8), stream, chunk);
+            assertEquals("Chunk " + chunk + " should give 5 frames", 5, frames.size());
+            assertArrayEquals("Last frame", new byte[]{32, 33, 34, 35, 36, 37, 38, 39}, frames.get(4));
+        }
+    }
+
+    @Test
+    public void testDelimiterKeepsPartialFrame() {
+        byte[] stream = "AB\r\nCDE\r\n\r\nF".getBytes();
+        List<byte[]> frames = feed(new DelimiterFrameDecoder(new byte[]{'\r', '\n'}, 16), stream, 1, 3);
+        assertEquals("Should give 3 frames, trailing F is partial", 3, frames.size());
+        assertArrayEquals("AB\r\n".getBytes(), frames.get(0));
+        assertArrayEquals("CDE\r\n".getBytes(), frames.get(1));
+        assertArrayEquals("\r\n".getBytes(), frames.get(2));
+    }
+
+    @Test
+    public void testDelimiterDiscardsOverlongData() {
+        byte[] stream = "0123456789OK\r\n".getBytes();
+        List<byte[]> frames = feed(new DelimiterFrameDecoder(new byte[]{'\r', '\n'}, 6), stream, 2);
+        assertEquals("Overlong data should be dropped", 1, frames.size());
+        assertArrayEquals("OK\r\n".getBytes(), frames.get(0));
+    }
+
+    @Test
+    public void testLengthFieldBackToBackFrames() {
+        // AA LEN DATA... CRC(2)
+        byte[] a = {(byte) 0xAA, 2, 0x11, 0x22, 0x01, 0x02};
+        byte[] b = {(byte) 0xAA, 0, 0x03, 0x04};
+        byte[] c = {(byte) 0xAA, 3, 0x33, 0x44, 0x55, 0x05, 0x06};
+        byte[] stream = concat(a, b, c);
+        Random random = new Random(1);
+        for (int round = 0; round < 50; round++) {
+            List<byte[]> frames = feed(new LengthFieldFrameDecoder(1, 1, 2, 64), stream, 1 + random.nextInt(8), 1 + random.nextInt(8));
+            assertEquals("Round " + round + " frame count", 3, frames.size());
+            assertArrayEquals(a, frames.get(0));
+            assertArrayEquals(b, frames.get(1));
+            assertArrayEquals(c, frames.get(2));
+        }
+    }
+
+    @Test
+    public void testLengthFieldLittleEndianWholeFrameLength() {
+        // HEAD(2) LEN(2, little endian, whole frame) DATA...
+        byte[] frame = {0x55, 0x66, 6, 0, 0x01, 0x02};
+        List<byte[]> frames = feed(new LengthFieldFrameDecoder(2, 2, -4, 64, false), concat(frame, frame), 5);
+        assertEquals("Should give 2 frames", 2, frames.size());
+        assertArrayEquals(frame, frames.get(1));
+    }
+
+    @Test
+    public void testLengthFieldResyncsOnInvalidLength() {
+        byte[] frame = {(byte) 0xAA, 1, 0x7F, 0x01, 0x02};
+        // 0xFF as a length is larger than maxFrameLength and must be skipped
+        List<byte[]> frames = feed(new LengthFieldFrameDecoder(1, 1, 2, 16), concat(new byte[]{(byte) 0xFF, (byte) 0xFF}, frame), 3);
+        assertEquals("Should resync to the valid frame", 1, frames.size());
+        assertArrayEquals(frame, frames.get(0));
+    }
+
+    private static byte[] withCrc32(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        long value = crc.getValue();
+        return concat(data, new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+    }
+
+    @Test
+    public void testHeaderChecksumSkipsGarbageAndBadFrames() {
+        byte[] good = withCrc32(new byte[]{0x5A, 0x02, 0x7E, 0x10, 0x20, 0x30});
+        byte[] bad = good.clone();
+        bad[4] ^= 0x01;
+        byte[] stream = concat(new byte[]{0x00, 0x5A, 0x11}, good, bad, good, new byte[]{0x5A, 0x02});
+        for (int chunk = 1; chunk <= stream.length; chunk++) {
+            List<byte[]> frames = feed(new HeaderChecksumFrameDecoder(new byte[]{0x5A, 0x02, 0x7E}, 10, new CRC32(), 4), stream, chunk);
+            assertEquals("Chunk " + chunk + " should give only the 2 good frames", 2, frames.size());
+            assertArrayEquals(good, frames.get(0));
+            assertArrayEquals(good, frames.get(1));
+        }
+    }
+
+    @Test
+    public void testDecodeConsumesFrameBeforeCallback() {
+        YByteArray buffer = new YByteArray();
+        buffer.add(new byte[]{1, 2, 3, 4, 5});
+        try {
+            YReadInputStream.decode(new FixedLengthFrameDecoder(2), buffer, frame -> {
+                throw new IllegalStateException("listener failed");
+            });
+            fail("Listener exception should propagate");
+        } catch (IllegalStateException e) {
+            assertEquals("Frame should already be consumed", 3, buffer.size());
+        }
+    }
+}
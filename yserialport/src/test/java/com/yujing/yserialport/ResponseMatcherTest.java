@@ -0,0 +1,37 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the built-in ResponseMatcher factories
+ */
+public class ResponseMatcherTest {
+
+    @Test
+    public void testFieldSameOffset() {
+        ResponseMatcher matcher = ResponseMatcher.field(0, 2);
+        byte[] request = {0x01, 0x03, 0x00, 0x10, 0x00, 0x02};
+        assertTrue("address and function echoed should match", matcher.matches(request, new byte[]{0x01, 0x03, 0x04, 0x00}));
+        assertFalse("different address should not match", matcher.matches(request, new byte[]{0x02, 0x03, 0x04, 0x00}));
+        assertFalse("response shorter than the field should not match", matcher.matches(request, new byte[]{0x01}));
+    }
+
+    @Test
+    public void testFieldDifferentOffsets() {
+        ResponseMatcher matcher = ResponseMatcher.field(3, 5, 1);
+        byte[] request = {0x5A, 0x00, 0x00, 0x7F};
+        assertTrue("sequence echoed at another offset should match", matcher.matches(request, new byte[]{0, 0, 0, 0, 0, 0x7F}));
+        assertFalse("sequence mismatch should not match", matcher.matches(request, new byte[]{0, 0, 0, 0x7F, 0, 0x7E}));
+    }
+
+    @Test
+    public void testAnyAndAll() {
+        byte[] request = {0x01, 0x03, 0x09};
+        assertTrue("any should accept every frame", ResponseMatcher.any().matches(request, new byte[0]));
+        ResponseMatcher matcher = ResponseMatcher.all(ResponseMatcher.field(0, 1), ResponseMatcher.field(2, 1));
+        assertTrue("all fields equal should match", matcher.matches(request, new byte[]{0x01, 0x00, 0x09}));
+        assertFalse("one field different should not match", matcher.matches(request, new byte[]{0x01, 0x00, 0x08}));
+    }
+}
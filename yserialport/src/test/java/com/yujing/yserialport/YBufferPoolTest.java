@@ -0,0 +1,59 @@
+package com.yujing.yserialport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for YBufferPool
+ */
+public class YBufferPoolTest {
+
+    @Test
+    public void acquireRoundsUpToSizeClass() {
+        YBufferPool pool = new YBufferPool();
+        assertEquals("0 should round up to the smallest class", 64, pool.acquire(0).length);
+        assertEquals("100 should round up to 256", 256, pool.acquire(100).length);
+        assertEquals("Above 64K should allocate the exact size", 70000, pool.acquire(70000).length);
+        assertEquals("All acquires should miss", 3, pool.getMissCount());
+    }
+
+    @Test
+    public void releasedBufferIsReused() {
+        YBufferPool pool = new YBufferPool();
+        byte[] buffer = pool.acquire(1000);
+        pool.release(buffer);
+        assertSame("Same class should reuse the released buffer", buffer, pool.acquire(1024));
+        assertEquals("Should count one hit", 1, pool.getHitCount());
+        pool.release(new byte[1000]);
+        assertEquals("Non class sized buffer should not be pooled", 0, pool.getPooledCount());
+    }
+
+    @Test
+    public void steadyStateFrameHitsPool() {
+        YBufferPool pool = new YBufferPool();
+        byte[] data = new byte[300];
+        for (int i = 0; i < 10; i++) {
+            YByteArray bytes = new YByteArray(pool, 64);
+            bytes.add(data);
+            assertEquals("Frame length", 300, new YBytes(bytes).getBytes().length);
+        }
+        // First frame allocates 64 and 1K, every later frame hits
+        assertEquals("Miss count", 2, pool.getMissCount());
+        assertEquals("Hit count", 18, pool.getHitCount());
+    }
+
+    @Test
+    public void trimmedArrayIsNotReturned() {
+        YBufferPool pool = new YBufferPool();
+        YByteArray bytes = new YByteArray(pool, 64);
+        bytes.add(new byte[64]);
+        byte[] frame = bytes.trim();
+        // The array handed out by trim() must not go back to the pool on growth
+        bytes.add((byte) 1);
+        assertEquals("Trimmed array should not be pooled", 0, pool.getPooledCount());
+        assertNotSame("Growth should switch to a new array", frame, bytes.array());
+    }
+}
@@ -0,0 +1,79 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YByteArray and the YBytes facade
+ */
+public class YByteArrayTest {
+
+    @Test
+    public void testAddGrowsAndKeepsOrder() {
+        YByteArray bytes = new YByteArray();
+        for (int i = 0; i < 1000; i++) {
+            bytes.add((byte) i);
+        }
+        assertEquals("Size should be 1000", 1000, bytes.size());
+        assertTrue("Capacity should be at least size", bytes.capacity() >= 1000);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Byte " + i, (byte) i, bytes.get(i));
+        }
+    }
+
+    @Test
+    public void testWriteDirectlyToTail() {
+        YByteArray bytes = new YByteArray(4);
+        bytes.add(new byte[]{1, 2, 3});
+        bytes.ensureWritable(10);
+        assertTrue("Should have room for 10 bytes", bytes.writable() >= 10);
+        byte[] array = bytes.array();
+        int index = bytes.writeIndex();
+        array[index] = 4;
+        array[index + 1] = 5;
+        bytes.advance(2);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, bytes.toByteArray());
+    }
+
+    @Test
+    public void testSkipReclaimsHeadBeforeGrowing() {
+        YByteArray bytes = new YByteArray(8);
+        bytes.add(new byte[]{1, 2, 3, 4, 5, 6});
+        bytes.skip(4);
+        assertEquals("Offset should move after skip", 4, bytes.offset());
+        byte[] before = bytes.array();
+        bytes.ensureWritable(5);
+        assertSame("Should compact instead of growing", before, bytes.array());
+        assertEquals("Offset should be 0 after compaction", 0, bytes.offset());
+        assertArrayEquals(new byte[]{5, 6}, bytes.toByteArray());
+    }
+
+    @Test
+    public void testTrimCopiesOnce() {
+        YByteArray bytes = new YByteArray(64);
+        bytes.add(ByteBuffer.wrap(new byte[]{9, 8, 7}));
+        byte[] first = bytes.trim();
+        assertArrayEquals(new byte[]{9, 8, 7}, first);
+        assertSame("Second trim should not copy", first, bytes.trim());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testAdvancePastCapacityThrows() {
+        YByteArray bytes = new YByteArray(2);
+        bytes.advance(3);
+    }
+
+    @Test
+    public void testYBytesFacade() {
+        YBytes yBytes = new YBytes(new byte[]{1, 2});
+        yBytes.addByte((byte) 3).addByte(new byte[]{4, 5, 6}, 1, 2).addByte(new byte[]{7, 8}, 1);
+        assertEquals("Length should be 6", 6, yBytes.length());
+        yBytes.changeByte((byte) 0x10, 0);
+        assertArrayEquals(new byte[]{0x10, 2, 3, 5, 6, 7}, yBytes.getBytes());
+        assertSame("getBytes should not copy twice", yBytes.getBytes(), yBytes.getBytes());
+        assertEquals("Split into 2 chunks", 2, yBytes.split(4).size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YChecksum
+ */
+public class YChecksumTest {
+    private static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testStandardCheckValues() {
+        assertEquals("CRC-16/MODBUS check value", 0x4B37, YChecksum.crc16Modbus(CHECK, 0, CHECK.length));
+        assertEquals("CRC-16/CCITT-FALSE check value", 0x29B1, YChecksum.crc16Ccitt(CHECK, 0, CHECK.length));
+        assertEquals("CRC-32 check value", 0xCBF43926L, YChecksum.crc32(CHECK, 0, CHECK.length));
+        assertEquals("XOR check value", 0x31, YChecksum.xor(CHECK, 0, CHECK.length));
+        assertEquals("LRC should make the byte sum zero", 0, (YChecksum.lrc(CHECK, 0, CHECK.length) + 0x1DD) & 0xFF);
+    }
+
+    @Test
+    public void testCrc32MatchesJdk() {
+        Random random = new Random(3);
+        byte[] bytes = new byte[1000];
+        random.nextBytes(bytes);
+        for (int offset = 0; offset < 9; offset++) {
+            for (int length = 0; length < 40; length++) {
+                CRC32 expected = new CRC32();
+                expected.update(bytes, offset, length);
+                assertEquals("slicing-by-8 should match java.util.zip.CRC32", expected.getValue(), YChecksum.crc32(bytes, offset, length));
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingUpdate() {
+        YChecksum[] checksums = {YChecksum.newCrc16Modbus(), YChecksum.newCrc16Ccitt(), YChecksum.newCrc32(), YChecksum.newLrc(), YChecksum.newXor()};
+        for (YChecksum checksum : checksums) {
+            checksum.update(CHECK);
+            long whole = checksum.getValue();
+            checksum.reset();
+            checksum.update(CHECK, 0, 4);
+            checksum.update(CHECK[4]);
+            checksum.update(CHECK, 5, 4);
+            assertEquals(checksum.getName() + " split update should equal one-shot", whole, checksum.getValue());
+        }
+    }
+
+    @Test
+    public void testVerifyInPlace() {
+        //站台门：全部上升，CRC高字节在前
+        byte[] buffer = {0x00, 0x5A, 0x02, 0x7E, 0x00, 0x04, 0x08, (byte) 0xF1, 0x03, 0x02, 0x01, (byte) 0x80, (byte) 0xA5, 0x6D, (byte) 0xFC, 0x00};
+        YChecksum crc = YChecksum.newCrc16Modbus();
+        assertTrue("door frame should verify in place", YChecksum.verify(crc, buffer, 1, 14, 2, true));
+        assertFalse("little endian order should not verify", YChecksum.verify(crc, buffer, 1, 14, 2, false));
+        buffer[5] ^= 1;
+        assertFalse("corrupted frame should fail", YChecksum.verify(crc, buffer, 1, 14, 2, true));
+    }
+}
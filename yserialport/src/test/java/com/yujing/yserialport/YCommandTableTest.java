@@ -0,0 +1,35 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YCommandTable
+ */
+public class YCommandTableTest {
+
+    @Test
+    public void testMatchLongestPrefix() {
+        YCommandTable<String> table = new YCommandTable<String>()
+                .add("5A02", "generic")
+                .add("5A02 F1", "rise")
+                .add("5A02 D1", "short");
+        assertEquals("longest prefix should win", "rise", table.match(new byte[]{0x5A, 0x02, (byte) 0xF1, 0x00}, 0, 4));
+        assertEquals("shorter prefix should match when the opcode is unknown", "generic", table.match(new byte[]{0x5A, 0x02, 0x11}, 0, 3));
+        assertEquals("offset should be honoured", "short", table.match(new byte[]{0x00, 0x5A, 0x02, (byte) 0xD1}, 1, 3));
+        assertNull("unknown header should not match", table.match(new byte[]{0x5B, 0x02}, 0, 2));
+        assertNull("truncated frame should not match a longer key only", new YCommandTable<String>().add("5A02F1", "rise").match(new byte[]{0x5A, 0x02}, 0, 2));
+        assertEquals("commands should keep insertion order", "short", table.getCommands().get(2));
+    }
+
+    @Test
+    public void testManyOpcodes() {
+        YCommandTable<Integer> table = new YCommandTable<>();
+        for (int i = 0; i < 500; i++) table.add(new byte[]{0x7E, (byte) (i >> 8), (byte) i}, i);
+        for (int i = 0; i < 500; i++) {
+            assertEquals("every opcode should resolve", Integer.valueOf(i), table.match(new byte[]{0x7E, (byte) (i >> 8), (byte) i, 0x00}, 0, 4));
+        }
+        assertEquals("size should count all commands", 500, table.size());
+    }
+}
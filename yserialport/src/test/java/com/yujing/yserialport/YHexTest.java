@@ -0,0 +1,74 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YHex and the lazy hex string of YFrame
+ */
+public class YHexTest {
+
+    // The conversion YSerialPort.bytesToHexString used before the table-driven codec
+    private static String legacyHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            String s = Integer.toHexString(0xFF & b);
+            if (s.length() < 2) sb.append(0);
+            sb.append(s.toUpperCase(Locale.US));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testEncodeMatchesLegacyConversion() {
+        Random random = new Random(7);
+        for (int size = 0; size < 300; size += 13) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            assertEquals("encode should match the legacy conversion", legacyHex(bytes), YHex.encode(bytes));
+        }
+        assertEquals("bytesToHexString should delegate to YHex", "00FF7F80", YSerialPort.bytesToHexString(new byte[]{0, -1, 127, -128}));
+    }
+
+    @Test
+    public void testEncodeRange() {
+        byte[] bytes = {0x5A, 0x02, 0x7E, 0x00};
+        assertEquals("range encode should only cover the slice", "027E", YHex.encode(bytes, 1, 2));
+        char[] out = new char[6];
+        out[0] = '[';
+        out[5] = ']';
+        YHex.encode(bytes, 0, 2, out, 1);
+        assertEquals("encode into char[] should write at the offset", "[5A02]", new String(out));
+    }
+
+    @Test
+    public void testDecode() {
+        assertArrayEquals("decode should ignore whitespace and case", new byte[]{0x5A, 0x02, 0x7E, (byte) 0xAB}, YHex.decode("5A 02\n7e ab"));
+        assertEquals("empty string should decode to empty array", 0, YHex.decode("").length);
+        try {
+            YHex.decode("5A0");
+            fail("odd digit count should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            YHex.decode("5G");
+            fail("non-hex character should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testFrameHexIsLazyAndCached() {
+        byte[] bytes = {0x01, 0x02, 0x03, 0x04};
+        YFrame frame = new YFrame(bytes, 1, 2, 0);
+        assertEquals("frame hex should cover the slice", "0203", frame.getHexString());
+        assertSame("frame hex should be cached", frame.getHexString(), frame.getHexString());
+        assertArrayEquals("toByteArray should copy the slice", new byte[]{0x02, 0x03}, frame.toByteArray());
+        YFrame whole = new YFrame(bytes, 0);
+        assertSame("toByteArray should not copy a whole-array frame", bytes, whole.toByteArray());
+    }
+}
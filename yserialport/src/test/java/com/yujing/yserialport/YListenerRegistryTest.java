@@ -0,0 +1,146 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YListenerRegistry, FrameFilter and YByteTrie
+ */
+public class YListenerRegistryTest {
+
+    private static final class Recorder implements FrameListener {
+        final int id;
+        final List<Integer> calls;
+
+        Recorder(int id, List<Integer> calls) {
+            this.id = id;
+            this.calls = calls;
+        }
+
+        @Override
+        public void value(YFrame frame) {
+            calls.add(id);
+        }
+    }
+
+    private static final YListenerRegistry.Action DIRECT = FrameListener::value;
+
+    private static YFrame frame(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) bytes[i] = (byte) values[i];
+        return new YFrame(bytes, 0);
+    }
+
+    @Test
+    public void testFilters() {
+        YFrame frame = frame(0x5A, 0x02, 0x7E, 0x01);
+        assertTrue("matching prefix should pass", FrameFilter.prefix((byte) 0x5A, (byte) 0x02).accept(frame));
+        assertFalse("prefix longer than frame should fail", FrameFilter.prefix((byte) 0x5A, (byte) 0x02, (byte) 0x7E, (byte) 0x01, (byte) 0x00).accept(frame));
+        assertTrue("length in range should pass", FrameFilter.length(4, 4).accept(frame));
+        assertFalse("length out of range should fail", FrameFilter.length(5, 10).accept(frame));
+        assertTrue("type in set should pass", FrameFilter.type(3, (byte) 0x02, (byte) 0x01).accept(frame));
+        assertFalse("type beyond frame should fail", FrameFilter.type(4, (byte) 0x01).accept(frame));
+        assertFalse("all should require every filter", FrameFilter.all(FrameFilter.prefix((byte) 0x5A), FrameFilter.length(5, 5)).accept(frame));
+    }
+
+    @Test
+    public void testTrieMatch() {
+        YByteTrie trie = new YByteTrie();
+        trie.put(new byte[]{0x5A, 0x02}, 0);
+        trie.put(new byte[]{0x5A}, 1);
+        trie.put(new byte[]{0x5B}, 2);
+        trie.put(new byte[0], 3);
+        byte[] bytes = {0x5A, 0x02, 0x00};
+        assertEquals("all matching prefixes should be reported", 0b1011L, trie.match(bytes, 0, bytes.length));
+        assertEquals("longest prefix should win", 0, trie.longestMatch(bytes, 0, bytes.length));
+        assertEquals("shorter frame should match the shorter prefix", 1, trie.longestMatch(bytes, 0, 1));
+        long[] mask = new long[1];
+        trie.match(new byte[]{0x5B}, 0, 1, mask);
+        assertEquals("array variant should match too", 0b1100L, mask[0]);
+    }
+
+    private void checkRouting(int listenerCount) {
+        YListenerRegistry registry = new YListenerRegistry();
+        List<Integer> calls = new ArrayList<>();
+        registry.add(new Recorder(-1, calls), null);
+        for (int i = 0; i < listenerCount; i++) {
+            registry.add(new Recorder(i, calls), FrameFilter.all(FrameFilter.prefix((byte) 0x5A, (byte) i), FrameFilter.length(3, 3)));
+        }
+        registry.add(new Recorder(-2, calls), FrameFilter.type(2, (byte) 0x33));
+        assertEquals("trie should be used only with many prefixed listeners", listenerCount >= YListenerRegistry.TRIE_THRESHOLD, registry.isTrieEnabled());
+
+        registry.dispatch(frame(0x5A, 5, 0x33), DIRECT);
+        List<Integer> expected = new ArrayList<>();
+        expected.add(-1);
+        if (listenerCount > 5) expected.add(5);
+        expected.add(-2);
+        assertEquals("only matching listeners should be called, in insertion order", expected, calls);
+
+        calls.clear();
+        registry.dispatch(frame(0x5A, 5, 0x33, 0x00), DIRECT);
+        expected.remove(Integer.valueOf(5));
+        assertEquals("length mismatch should skip the prefixed listener", expected, calls);
+    }
+
+    @Test
+    public void testLinearRouting() {
+        checkRouting(YListenerRegistry.TRIE_THRESHOLD - 1);
+    }
+
+    @Test
+    public void testTrieRouting() {
+        checkRouting(20);
+    }
+
+    @Test
+    public void testTrieRoutingBeyond64() {
+        checkRouting(100);
+    }
+
+    @Test
+    public void testAddRemoveDuringDispatch() throws InterruptedException {
+        final YListenerRegistry registry = new YListenerRegistry();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final List<Throwable> errors = new ArrayList<>();
+        Thread mutator = new Thread(() -> {
+            List<Integer> sink = new ArrayList<>();
+            int i = 0;
+            while (!stop.get()) {
+                Recorder recorder = new Recorder(i++, sink);
+                registry.add(recorder, FrameFilter.prefix((byte) (i & 0x0F)));
+                registry.remove(recorder);
+            }
+        });
+        mutator.start();
+        final int[] count = {0};
+        registry.add(frame -> count[0]++, null);
+        try {
+            for (int i = 0; i < 100000; i++) registry.dispatch(frame(i & 0x0F, 0), (listener, frame) -> {
+                if (!(listener instanceof Recorder)) listener.value(frame);
+            });
+        } catch (Throwable e) {
+            errors.add(e);
+        } finally {
+            stop.set(true);
+            mutator.join();
+        }
+        assertTrue("dispatch should not fail while listeners change: " + errors, errors.isEmpty());
+        assertEquals("the fixed listener should see every frame", 100000, count[0]);
+    }
+
+    @Test
+    public void testDuplicateAndRemove() {
+        YListenerRegistry registry = new YListenerRegistry();
+        FrameListener listener = frame -> {
+        };
+        assertTrue("first add should succeed", registry.add(listener, null));
+        assertFalse("duplicate add should be ignored", registry.add(listener, FrameFilter.length(1, 2)));
+        assertTrue("remove should find the listener", registry.remove(listener));
+        assertTrue("registry should be empty", registry.isEmpty());
+    }
+}
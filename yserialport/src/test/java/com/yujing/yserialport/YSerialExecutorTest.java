@@ -0,0 +1,83 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YSerialExecutor
+ */
+public class YSerialExecutorTest {
+
+    @Test
+    public void testTasksRunInSubmissionOrder() throws InterruptedException {
+        final int count = 10000;
+        final YSerialExecutor executor = new YSerialExecutor();
+        final List<Integer> results = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            final int value = i;
+            executor.execute(() -> {
+                results.add(value);
+                latch.countDown();
+            });
+        }
+        assertTrue("all tasks should complete", latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) assertEquals("tasks should run in submission order", i, results.get(i).intValue());
+        //completedCount is updated after the last task returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getCompletedCount() < count && System.currentTimeMillis() < deadline) Thread.sleep(1);
+        assertEquals("completed count should match", count, executor.getCompletedCount());
+    }
+
+    @Test
+    public void testFullQueueRejects() throws InterruptedException {
+        final YSerialExecutor executor = new YSerialExecutor(2);
+        final CountDownLatch block = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                block.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue("first task should start", started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+        executor.execute(() -> {
+        });
+        try {
+            executor.execute(() -> {
+            });
+            fail("execute on a full queue should throw");
+        } catch (RejectedExecutionException expected) {
+            assertEquals("rejected count should be recorded", 1, executor.getRejectedCount());
+        } finally {
+            block.countDown();
+        }
+    }
+
+    @Test
+    public void testSlowExecutorDoesNotBlockAnother() throws InterruptedException {
+        final YSerialExecutor slow = new YSerialExecutor();
+        final YSerialExecutor fast = new YSerialExecutor();
+        final CountDownLatch block = new CountDownLatch(1);
+        slow.execute(() -> {
+            try {
+                block.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        final CountDownLatch done = new CountDownLatch(1);
+        fast.execute(done::countDown);
+        assertTrue("a blocked executor should not stall another", done.await(5, TimeUnit.SECONDS));
+        block.countDown();
+    }
+}
@@ -0,0 +1,55 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YSerialPortWriter, the port is never started so every write fails
+ */
+public class YSerialPortWriterTest {
+
+    @Test
+    public void testCancelQueuedTask() throws InterruptedException {
+        final YSerialPortWriter writer = new YSerialPortWriter(new YSerialPort(null, "/dev/null", "9600"), 4, OverflowPolicy.FAIL);
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch firstDone = new CountDownLatch(1);
+        //the writer thread holds the first frame in onWrite until released
+        YSerialPortWriter.Task first = writer.enqueue(new byte[]{0x01}, () -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }, result -> firstDone.countDown(), null);
+        assertNotNull("first frame should be queued", first);
+        assertTrue("writer should start the first frame", writing.await(5, TimeUnit.SECONDS));
+        final AtomicBoolean secondCalled = new AtomicBoolean();
+        YSerialPortWriter.Task second = writer.enqueue(new byte[]{0x02}, null, result -> secondCalled.set(true), null);
+        assertNotNull("second frame should be queued", second);
+        assertTrue("queued frame should cancel", writer.cancel(second));
+        assertFalse("cancel twice should return false", writer.cancel(second));
+        assertFalse("frame being written should not cancel", writer.cancel(first));
+        assertEquals("cancelled frame should leave the queue", 0, writer.getQueueSize());
+        release.countDown();
+        assertTrue("first frame should complete", firstDone.await(5, TimeUnit.SECONDS));
+        writer.stop();
+        assertFalse("cancelled frame should not call its listener", secondCalled.get());
+        assertEquals("cancelled count should be recorded", 1, writer.getCancelledCount());
+    }
+
+    @Test
+    public void testEnqueueRejectedReturnsNull() {
+        final YSerialPortWriter writer = new YSerialPortWriter(new YSerialPort(null, "/dev/null", "9600"), 1, OverflowPolicy.FAIL);
+        writer.stop();
+        final AtomicBoolean result = new AtomicBoolean(true);
+        assertNull("enqueue after stop should return null", writer.enqueue(new byte[]{0x01}, null, result::set, null));
+        assertFalse("listener should get false", result.get());
+        assertNull("null bytes should return null", writer.enqueue(null, null, null, null));
+    }
+}
@@ -0,0 +1,54 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YSpscRing
+ */
+public class YSpscRingTest {
+
+    @Test
+    public void testCapacityRoundsUpToPowerOfTwo() {
+        assertEquals("capacity should round up to a power of two", 1024, new YSpscRing<Integer>(1000).capacity());
+        assertEquals("power of two capacity should be kept", 8, new YSpscRing<Integer>(8).capacity());
+    }
+
+    @Test
+    public void testFullAndEmpty() {
+        YSpscRing<Integer> ring = new YSpscRing<>(4);
+        assertNull("empty ring should return null", ring.poll());
+        for (int i = 0; i < 4; i++) assertTrue("offer within capacity should succeed", ring.offer(i));
+        assertFalse("offer to a full ring should fail", ring.offer(4));
+        assertEquals("size should equal capacity when full", 4, ring.size());
+        assertEquals("poll should return the oldest element", Integer.valueOf(0), ring.poll());
+        assertTrue("offer should succeed after a poll", ring.offer(4));
+        for (int i = 1; i <= 4; i++) assertEquals("elements should come out in order", Integer.valueOf(i), ring.poll());
+        assertTrue("ring should be empty after draining", ring.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducerConsumerKeepsOrder() throws InterruptedException {
+        final int count = 1000000;
+        final YSpscRing<Integer> ring = new YSpscRing<>(256);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!ring.offer(i)) Thread.yield();
+            }
+        });
+        producer.start();
+        int expected = 0;
+        while (expected < count) {
+            Integer value = ring.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals("consumer should see elements in production order", expected, value.intValue());
+            expected++;
+        }
+        producer.join();
+        assertNull("ring should be empty after all elements are consumed", ring.poll());
+    }
+}
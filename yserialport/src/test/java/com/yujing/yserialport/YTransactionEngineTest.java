@@ -0,0 +1,213 @@
+package com.yujing.yserialport;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for YTransactionEngine, driven by a fake sender instead of a serial port
+ */
+public class YTransactionEngineTest {
+
+    //Records requests; the test decides when each write completes
+    private static final class ManualSender implements YTransactionEngine.Sender {
+        final List<byte[]> requests = new ArrayList<>();
+        final List<Runnable> onWrites = new ArrayList<>();
+        final List<YListener<Boolean>> listeners = new ArrayList<>();
+
+        @Override
+        public synchronized void send(byte[] request, Runnable onWrite, YListener<Boolean> listener) {
+            requests.add(request);
+            onWrites.add(onWrite);
+            listeners.add(listener);
+        }
+
+        synchronized int count() {
+            return requests.size();
+        }
+
+        void written(int index, boolean result) {
+            Runnable onWrite;
+            YListener<Boolean> listener;
+            synchronized (this) {
+                onWrite = onWrites.get(index);
+                listener = listeners.get(index);
+            }
+            if (result) onWrite.run();
+            listener.value(result);
+        }
+    }
+
+    //Collects callback results in completion order
+    private static final class Results implements YTransactionEngine.Callback {
+        final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onResponse(byte[] response) {
+            queue.add(response);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            queue.add(e);
+        }
+
+        Object take() throws InterruptedException {
+            Object result = queue.poll(5, TimeUnit.SECONDS);
+            assertNotNull("callback should be invoked", result);
+            return result;
+        }
+    }
+
+    private static YTransactionEngine newEngine(YTransactionEngine.Sender sender) {
+        return new YTransactionEngine(sender, Runnable::run);
+    }
+
+    private static void awaitCount(ManualSender sender, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sender.count() < count && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals("requests handed to the sender", count, sender.count());
+    }
+
+    @Test
+    public void testRequestsSentAndAnsweredInOrder() throws InterruptedException {
+        ManualSender sender = new ManualSender();
+        YTransactionEngine engine = newEngine(sender);
+        Results results = new Results();
+        for (int i = 0; i < 3; i++) engine.submit(new byte[]{(byte) i}, ResponseMatcher.any(), 0, results);
+        assertEquals("only one request should be in flight by default", 1, sender.count());
+        assertEquals("the rest should wait", 2, engine.getWaitingCount());
+        for (int i = 0; i < 3; i++) {
+            awaitCount(sender, i + 1);
+            assertArrayEquals("requests should be sent in submission order", new byte[]{(byte) i}, sender.requests.get(i));
+            sender.written(i, true);
+            assertTrue("frame should match the written request", engine.onFrame(new byte[]{(byte) (0x10 + i)}));
+            assertArrayEquals("responses should arrive in order", new byte[]{(byte) (0x10 + i)}, (byte[]) results.take());
+        }
+        assertEquals("completed count should match", 3, engine.getCompletedCount());
+    }
+
+    @Test
+    public void testFrameBeforeWriteIsNotMatched() throws InterruptedException {
+        ManualSender sender = new ManualSender();
+        YTransactionEngine engine = newEngine(sender);
+        Results results = new Results();
+        engine.submit(new byte[]{0x01}, ResponseMatcher.any(), 0, results);
+        assertFalse("unsolicited frame while the request is queued should not match", engine.onFrame(new byte[]{0x7F}));
+        assertEquals("unmatched count should be recorded", 1, engine.getUnmatchedCount());
+        sender.onWrites.get(0).run();
+        assertTrue("frame after the write starts should match", engine.onFrame(new byte[]{0x02}));
+        assertArrayEquals("the response should be the frame after the write", new byte[]{0x02}, (byte[]) results.take());
+    }
+
+    @Test
+    public void testTimeoutStartsNextRequest() throws InterruptedException {
+        ManualSender sender = new ManualSender();
+        YTransactionEngine engine = newEngine(sender);
+        Results results = new Results();
+        engine.submit(new byte[]{0x01}, ResponseMatcher.any(), 50, results);
+        engine.submit(new byte[]{0x02}, ResponseMatcher.any(), 0, results);
+        sender.written(0, true);
+        assertTrue("first request should time out", results.take() instanceof TimeoutException);
+        assertEquals("timeout count should be recorded", 1, engine.getTimeoutCount());
+        awaitCount(sender, 2);
+        sender.written(1, true);
+        assertTrue("second request should take the next frame", engine.onFrame(new byte[]{0x22}));
+        assertArrayEquals("second response", new byte[]{0x22}, (byte[]) results.take());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        ManualSender sender = new ManualSender();
+        YTransactionEngine engine = newEngine(sender);
+        Results first = new Results();
+        Results second = new Results();
+        YTransactionEngine.Transaction inFlight = engine.submit(new byte[]{0x01}, ResponseMatcher.any(), 0, first);
+        YTransactionEngine.Transaction waiting = engine.submit(new byte[]{0x02}, ResponseMatcher.any(), 0, second);
+        assertTrue("waiting request should cancel", waiting.cancel());
+        assertTrue("cancelled request should fail with CancellationException", second.take() instanceof CancellationException);
+        assertFalse("cancel twice should return false", waiting.cancel());
+        sender.written(0, true);
+        assertTrue("in-flight request should cancel", inFlight.cancel());
+        assertTrue("cancelled request should fail with CancellationException", first.take() instanceof CancellationException);
+        assertTrue("cancelled request should be done", inFlight.isDone());
+        assertFalse("late response should be unmatched", engine.onFrame(new byte[]{0x11}));
+        assertEquals("cancelled waiting request should never be sent", 1, sender.count());
+        assertEquals("nothing should be in flight", 0, engine.getInFlightCount());
+    }
+
+    @Test
+    public void testBlockingQueueWithFailedWritesDoesNotDeadlock() throws InterruptedException {
+        //Behaves like YSerialPortWriter with OverflowPolicy.BLOCK and capacity 1, every write fails
+        final BlockingQueue<YListener<Boolean>> queue = new ArrayBlockingQueue<>(1);
+        Thread writer = new Thread(() -> {
+            try {
+                while (true) queue.take().value(false);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+        YTransactionEngine engine = newEngine((request, onWrite, listener) -> {
+            try {
+                queue.put(listener);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                listener.value(false);
+            }
+        });
+        engine.setMaxInFlight(8);
+        final int count = 100;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final List<Exception> errors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            engine.submit(new byte[]{(byte) i}, ResponseMatcher.any(), 0, new YTransactionEngine.Callback() {
+                @Override
+                public void onResponse(byte[] response) {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue("all requests should complete without deadlock", latch.await(10, TimeUnit.SECONDS));
+        writer.interrupt();
+        assertEquals("every failed write should be reported", count, errors.size());
+        for (Exception e : errors) assertTrue("failed write should be an IOException", e instanceof IOException);
+        assertEquals("failed count should match", count, engine.getFailedCount());
+    }
+
+    @Test
+    public void testCloseFailsPendingAndRejectsNew() throws InterruptedException {
+        ManualSender sender = new ManualSender();
+        YTransactionEngine engine = newEngine(sender);
+        Results results = new Results();
+        engine.submit(new byte[]{0x01}, ResponseMatcher.any(), 0, results);
+        engine.submit(new byte[]{0x02}, ResponseMatcher.any(), 0, results);
+        sender.written(0, true);
+        engine.close();
+        assertTrue("in-flight request should fail on close", results.take() instanceof IOException);
+        assertTrue("waiting request should fail on close", results.take() instanceof IOException);
+        engine.submit(new byte[]{0x03}, ResponseMatcher.any(), 0, results);
+        assertTrue("submit after close should fail", results.take() instanceof IOException);
+        assertEquals("nothing should be sent after close", 1, sender.count());
+        assertFalse("frames after close should be unmatched", engine.onFrame(new byte[]{0x11}));
+    }
+}